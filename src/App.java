@@ -1,7 +1,88 @@
+import controllers.CurrentOwnerProjection;
+import controllers.Dialogues;
+import controllers.MatriculeIndex;
+import database.SchemaMigrations;
+import exportation.RegistreExport;
+import importation.CsvImport;
+import performance.ControllerBenchmark;
+import performance.RegistreGenerator;
+import serveur.RegistreServeur;
 import views.MainView;
 
+import javax.swing.JOptionPane;
+import java.sql.SQLException;
+import java.util.Arrays;
+
 public class App {
     public static void main(String[] args) {
+        boolean headless = args.length > 0;
+        if (headless) {
+            // Sans interface, les contrôleurs journalisent leurs messages au lieu d'ouvrir des boîtes de dialogue ;
+            // AWT est aussi mis en mode headless, avant toute initialisation
+            System.setProperty("java.awt.headless", "true");
+            Dialogues.desactiverInterface();
+        }
+
+        // Vérifier que le schéma est à jour (les migrations manquantes sont appliquées)
+        try {
+            SchemaMigrations.verifier();
+        } catch (Exception e) {
+            String message = "Base de données non utilisable : " + e.getMessage();
+            if (headless) {
+                System.err.println(message);
+            } else {
+                JOptionPane.showMessageDialog(null, message, "Erreur", JOptionPane.ERROR_MESSAGE);
+            }
+            System.exit(1);
+        }
+
+        // Import en masse sans interface : --import <table> <fichier.csv>
+        if (args.length > 0 && args[0].equals("--import")) {
+            CsvImport.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Export du registre sans interface : --export <csv|json> <fichier> [--gzip]
+        if (args.length > 0 && args[0].equals("--export")) {
+            RegistreExport.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Registre synthétique : --generer <base|sql|csv> [--vehicules n] [--graine g] [--fichier chemin] ...
+        if (args.length > 0 && args[0].equals("--generer")) {
+            RegistreGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Mesure des chemins critiques des contrôleurs : --bench [--threads n] [--prechauffage s] [--duree s] [scénario...]
+        if (args.length > 0 && args[0].equals("--bench")) {
+            ControllerBenchmark.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Réconciliation des propriétaires actuels sans interface : --reconcilier (tâche planifiée du système)
+        if (args.length > 0 && args[0].equals("--reconcilier")) {
+            try {
+                CurrentOwnerProjection.reconcilier();
+            } catch (SQLException e) {
+                System.err.println("Échec de la réconciliation des propriétaires actuels : " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
+        // API JSON du registre sans interface : --server [--port n] [--adresse hôte]
+        if (args.length > 0 && args[0].equals("--server")) {
+            MatriculeIndex.chargerEnArrierePlan();
+            CurrentOwnerProjection.planifierReconciliation();
+            RegistreServeur.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Index des matricules chargé pendant l'ouverture de l'interface
+        MatriculeIndex.chargerEnArrierePlan();
+        CurrentOwnerProjection.planifierReconciliation();
+
         // Lancer la vue principale
         new MainView();
     }
@@ -0,0 +1,45 @@
+package controllers;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Utilitaires communs aux opérations en masse des contrôleurs.
+ */
+final class BatchSupport {
+    // Nombre maximal de valeurs par liste IN et de lignes par executeBatch
+    static final int BATCH_SIZE = 1000;
+
+    private BatchSupport() {
+    }
+
+    // Découpe une collection en paquets d'au plus BATCH_SIZE éléments
+    static <T> List<List<T>> paquets(Collection<T> elements) {
+        List<T> liste = new ArrayList<>(elements);
+        List<List<T>> paquets = new ArrayList<>();
+        for (int debut = 0; debut < liste.size(); debut += BATCH_SIZE) {
+            paquets.add(liste.subList(debut, Math.min(liste.size(), debut + BATCH_SIZE)));
+        }
+        return paquets;
+    }
+
+    // "?, ?, ?" pour une liste IN de count valeurs
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    // Texte comparé sans tenir compte de la casse ni des accents, comme par la collation utf8mb4_0900_ai_ci
+    // (les rares équivalences propres à la collation, ß = ss par exemple, ne sont pas reproduites)
+    static String sansCasseNiAccents(String texte) {
+        String sansAccents = Normalizer.normalize(texte, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sansAccents.toLowerCase(Locale.ROOT);
+    }
+
+    static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,158 @@
+package controllers;
+
+import database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Projection CURRENT_OWNER(id_vehicule, id_proprietaire, since) : le propriétaire actuel de chaque véhicule,
+ * lu par clé primaire au lieu de filtrer POSSEDER sur les dates.
+ * <p>
+ * Le propriétaire actuel est celui dont la possession est en cours à la date du jour (début inclus, fin
+ * exclue) ; si plusieurs le sont, la possession commencée le plus récemment l'emporte, puis, à date égale,
+ * le plus grand id_proprietaire. Cette règle n'est écrite qu'une fois ({@link #REMPLISSAGE_QUERY}), pour
+ * toutes les écritures de la projection (migration, réconciliation, actualisation). Chaque écriture sur
+ * POSSEDER recalcule la ligne des véhicules touchés dans sa propre transaction ({@link #actualiser}).
+ * Le passage des jours (possession qui commence ou se termine à une date déjà enregistrée) est rattrapé par
+ * {@link #reconcilier()}, exécuté chaque nuit par {@link #planifierReconciliation()}.
+ */
+public final class CurrentOwnerProjection {
+    private static final Logger LOGGER = Logger.getLogger(CurrentOwnerProjection.class.getName());
+
+    private static final String EN_COURS = "p.date_debut_propriete <= CURDATE() "
+            + "AND (p.date_fin_propriete IS NULL OR p.date_fin_propriete > CURDATE())";
+    // Une seule possession par véhicule : aucune autre possession en cours n'est plus récente, ni de même
+    // début avec un id_proprietaire plus grand
+    private static final String GAGNANTE = " AND NOT EXISTS (SELECT 1 FROM POSSEDER q "
+            + "WHERE q.id_vehicule = p.id_vehicule "
+            + "AND q.date_debut_propriete <= CURDATE() "
+            + "AND (q.date_fin_propriete IS NULL OR q.date_fin_propriete > CURDATE()) "
+            + "AND (q.date_debut_propriete > p.date_debut_propriete "
+            + "OR (q.date_debut_propriete = p.date_debut_propriete AND q.id_proprietaire > p.id_proprietaire)))";
+    private static final String SELECT_QUERY = "SELECT p.id_vehicule, p.id_proprietaire, p.date_debut_propriete "
+            + "FROM POSSEDER p WHERE " + EN_COURS + GAGNANTE;
+    // Pas d'IGNORE : une violation de clé étrangère ou toute autre erreur annule la transaction
+    private static final String MISE_A_JOUR = " ON DUPLICATE KEY UPDATE "
+            + "id_proprietaire = VALUES(id_proprietaire), since = VALUES(since)";
+    private static final String INSERT_QUERY = "INSERT INTO CURRENT_OWNER (id_vehicule, id_proprietaire, since) ";
+    // Lignes des véhicules qui n'ont plus aucune possession en cours ; les autres sont réécrites par le remplissage
+    private static final String PURGE_QUERY = "DELETE FROM CURRENT_OWNER WHERE NOT EXISTS (SELECT 1 FROM POSSEDER p "
+            + "WHERE p.id_vehicule = CURRENT_OWNER.id_vehicule AND " + EN_COURS + ")";
+
+    /**
+     * Écrit le propriétaire actuel de chaque véhicule qui en a un, en remplaçant une ligne périmée ;
+     * remplit entièrement une projection vide.
+     */
+    public static final String REMPLISSAGE_QUERY = INSERT_QUERY + SELECT_QUERY + MISE_A_JOUR;
+
+    // Heure de la réconciliation quotidienne (juste après minuit, quand les dates changent d'effet)
+    private static final LocalTime HEURE_RECONCILIATION = LocalTime.parse(
+            System.getProperty("cartegrise.reconciliation.heure", "00:05"));
+
+    private static ScheduledExecutorService planificateur;
+
+    private CurrentOwnerProjection() {
+    }
+
+    /**
+     * Recalcule la ligne d'un véhicule. À appeler dans la transaction qui a modifié ses possessions.
+     */
+    static void actualiser(Connection conn, int idVehicule) throws SQLException {
+        actualiser(conn, Collections.singletonList(idVehicule));
+    }
+
+    /**
+     * Recalcule les lignes des véhicules donnés, par paquets. À appeler dans la transaction qui a modifié
+     * leurs possessions.
+     */
+    static void actualiser(Connection conn, Collection<Integer> vehicules) throws SQLException {
+        for (List<Integer> paquet : BatchSupport.paquets(vehicules)) {
+            String in = " IN (" + BatchSupport.placeholders(paquet.size()) + ")";
+            try (PreparedStatement delete = conn.prepareStatement("DELETE FROM CURRENT_OWNER WHERE id_vehicule" + in);
+                 PreparedStatement insert = conn.prepareStatement(INSERT_QUERY + SELECT_QUERY + " AND p.id_vehicule" + in
+                         + MISE_A_JOUR)) {
+                for (int i = 0; i < paquet.size(); i++) {
+                    delete.setInt(i + 1, paquet.get(i));
+                    insert.setInt(i + 1, paquet.get(i));
+                }
+                delete.executeUpdate();
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Remet la projection en accord avec POSSEDER à la date du jour, en une transaction : retire les
+     * véhicules qui n'ont plus de possession en cours, puis écrit le propriétaire actuel des autres
+     * (les lignes inchangées ne sont pas modifiées par MySQL).
+     *
+     * @return Le nombre de lignes retirées, ajoutées et remplacées
+     */
+    public static int reconcilier() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                int retirees = stmt.executeUpdate(PURGE_QUERY);
+                int ajoutees = stmt.executeUpdate(REMPLISSAGE_QUERY);
+                conn.commit();
+                LOGGER.log(Level.INFO, "Propriétaires actuels réconciliés : {0} lignes retirées, {1} écrites",
+                        new Object[]{retirees, ajoutees});
+                return retirees + ajoutees;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Lance la réconciliation immédiatement (rattrapage des nuits où l'application était arrêtée), puis
+     * chaque jour à l'heure {@code cartegrise.reconciliation.heure} (00:05 par défaut), dans un thread
+     * d'arrière-plan. Sans effet si elle est déjà planifiée.
+     */
+    public static synchronized void planifierReconciliation() {
+        if (planificateur != null) {
+            return;
+        }
+        planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reconciliation-proprietaires");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LocalDateTime maintenant = LocalDateTime.now();
+        LocalDateTime prochaine = LocalDate.now().atTime(HEURE_RECONCILIATION);
+        if (!prochaine.isAfter(maintenant)) {
+            prochaine = prochaine.plusDays(1);
+        }
+        planificateur.execute(CurrentOwnerProjection::reconcilierSansErreur);
+        // Délai fixe d'un jour : une dérive (changement d'heure) est sans conséquence à cette échelle
+        planificateur.scheduleAtFixedRate(CurrentOwnerProjection::reconcilierSansErreur,
+                Duration.between(maintenant, prochaine).toMillis(), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    // Une exception annulerait les exécutions suivantes
+    private static void reconcilierSansErreur() {
+        try {
+            reconcilier();
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Échec de la réconciliation des propriétaires actuels", e);
+        }
+    }
+}
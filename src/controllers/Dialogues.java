@@ -0,0 +1,72 @@
+package controllers;
+
+import javax.swing.JOptionPane;
+import java.awt.GraphicsEnvironment;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Messages des contrôleurs à l'utilisateur : boîtes de dialogue dans l'application graphique,
+ * journal sans interface (serveur, outils en ligne de commande).
+ * <p>
+ * Sans interface, aucune boîte n'est ouverte : le message est journalisé et gardé pour le thread courant,
+ * afin que l'appelant puisse le renvoyer ({@link #dernierMessage()}), et une demande de confirmation
+ * est refusée.
+ */
+public final class Dialogues {
+    private static final Logger LOGGER = Logger.getLogger(Dialogues.class.getName());
+    private static final ThreadLocal<String> DERNIER_MESSAGE = new ThreadLocal<>();
+
+    private static volatile boolean sansInterface = GraphicsEnvironment.isHeadless();
+
+    private Dialogues() {
+    }
+
+    /**
+     * Passe les contrôleurs en mode sans interface pour tout le processus.
+     */
+    public static void desactiverInterface() {
+        sansInterface = true;
+    }
+
+    /**
+     * @return Le dernier message émis par un contrôleur sur ce thread sans interface, puis l'oublie
+     */
+    public static String dernierMessage() {
+        String message = DERNIER_MESSAGE.get();
+        DERNIER_MESSAGE.remove();
+        return message;
+    }
+
+    public static void erreur(String message) {
+        if (sansInterface) {
+            journaliser(Level.WARNING, message);
+        } else {
+            JOptionPane.showMessageDialog(null, message, "Erreur", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    static void information(String titre, String message) {
+        if (sansInterface) {
+            journaliser(Level.INFO, titre + " : " + message);
+        } else {
+            JOptionPane.showMessageDialog(null, message, titre, JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    /**
+     * @return JOptionPane.YES_OPTION ou JOptionPane.NO_OPTION ; toujours NO_OPTION sans interface
+     */
+    static int confirmation(String titre, String message) {
+        if (sansInterface) {
+            journaliser(Level.INFO, titre + " (refusée sans interface) : " + message);
+            return JOptionPane.NO_OPTION;
+        }
+        return JOptionPane.showConfirmDialog(null, message, titre, JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+    }
+
+    private static void journaliser(Level niveau, String message) {
+        DERNIER_MESSAGE.set(message);
+        LOGGER.log(niveau, message);
+    }
+}
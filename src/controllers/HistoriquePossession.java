@@ -0,0 +1,104 @@
+package controllers;
+
+import java.util.Arrays;
+
+/**
+ * Possessions d'un véhicule, triées par date de début, sous forme de tableaux de jours (epoch day).
+ * Une possession couvre les jours [début, fin[ : le jour de la vente appartient à l'acheteur, comme dans
+ * {@link PossederController#transfererVehicule}. Une possession sans date de fin est ouverte.
+ * <p>
+ * {@code finMax[i]} est la plus grande fin parmi les possessions 0 à i : il borne la remontée depuis
+ * la dernière possession commencée à la date cherchée, si bien qu'une recherche coûte O(log n) plus
+ * le nombre de possessions trouvées, même si des possessions se chevauchent. Immuable.
+ */
+final class HistoriquePossession {
+    static final int OUVERTE = Integer.MAX_VALUE;
+
+    private final int[] proprietaires;
+    private final int[] debuts;
+    private final int[] fins;
+    private final int[] finMax;
+
+    /**
+     * @param proprietaires Identifiants des propriétaires
+     * @param debuts        Jours de début, dans l'ordre croissant
+     * @param fins          Jours de fin, {@link #OUVERTE} pour une possession en cours
+     */
+    HistoriquePossession(int[] proprietaires, int[] debuts, int[] fins) {
+        this.proprietaires = proprietaires;
+        this.debuts = debuts;
+        this.fins = fins;
+        this.finMax = new int[fins.length];
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < fins.length; i++) {
+            max = Math.max(max, fins[i]);
+            finMax[i] = max;
+        }
+    }
+
+    int taille() {
+        return debuts.length;
+    }
+
+    int proprietaire(int i) {
+        return proprietaires[i];
+    }
+
+    int debut(int i) {
+        return debuts[i];
+    }
+
+    int fin(int i) {
+        return fins[i];
+    }
+
+    /**
+     * @return Les rangs des possessions en cours le jour donné, par date de début croissante
+     */
+    int[] aLaDate(int jour) {
+        return chevauchant(jour, jour + 1L);
+    }
+
+    /**
+     * @return Les rangs des possessions qui couvrent au moins un jour de [du, au], par date de début croissante
+     */
+    int[] surPeriode(int du, int au) {
+        return au < du ? new int[0] : chevauchant(du, au + 1L);
+    }
+
+    // Possessions telles que début < finExclue et fin > du
+    private int[] chevauchant(int du, long finExclue) {
+        int dernier = dernierDebutAvant(finExclue);
+        int[] rangs = new int[0];
+        int n = 0;
+        for (int i = dernier; i >= 0 && finMax[i] > du; i--) {
+            if (fins[i] > du) {
+                if (n == rangs.length) {
+                    rangs = Arrays.copyOf(rangs, Math.max(2, n * 2));
+                }
+                rangs[n++] = i;
+            }
+        }
+        // Remis dans l'ordre des dates de début
+        int[] resultat = new int[n];
+        for (int i = 0; i < n; i++) {
+            resultat[i] = rangs[n - 1 - i];
+        }
+        return resultat;
+    }
+
+    // Rang de la dernière possession commencée avant finExclue, -1 s'il n'y en a pas
+    private int dernierDebutAvant(long finExclue) {
+        int bas = 0;
+        int haut = debuts.length - 1;
+        while (bas <= haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (debuts[milieu] < finExclue) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu - 1;
+            }
+        }
+        return haut;
+    }
+}
@@ -0,0 +1,145 @@
+package controllers;
+
+/**
+ * Table de hachage long → int à adressage ouvert (sondage linéaire), sans objet par entrée :
+ * clés et valeurs sont rangées dans deux tableaux primitifs. La clé 0 est réservée aux cases vides.
+ * La suppression décale les entrées suivantes au lieu de laisser des marqueurs.
+ * <p>
+ * Non synchronisée. {@link #get} ne lit que des tableaux pris en début d'appel : une lecture concurrente
+ * d'une écriture peut renvoyer un résultat faux, mais ne sort jamais des tableaux ni ne boucle.
+ */
+final class LongIntHashMap {
+    private static final double CHARGE_MAX = 0.6;
+
+    private long[] cles;
+    private int[] valeurs;
+    private int taille;
+    private int seuil;
+
+    LongIntHashMap(int capaciteAttendue) {
+        int capacite = Integer.highestOneBit((int) Math.max(16, Math.min(capaciteAttendue / CHARGE_MAX + 1, 1 << 30)) - 1) << 1;
+        allouer(capacite);
+    }
+
+    /**
+     * @return La valeur associée à la clé, ou {@code absent}
+     */
+    int get(long cle, int absent) {
+        long[] c = cles;
+        int[] v = valeurs;
+        int masque = c.length - 1;
+        if (v.length != c.length) {
+            return absent; // Tableaux de deux générations différentes
+        }
+        int i = indice(cle, masque);
+        for (int n = 0; n <= masque; n++) {
+            long k = c[i];
+            if (k == cle) {
+                return v[i];
+            }
+            if (k == 0) {
+                return absent;
+            }
+            i = (i + 1) & masque;
+        }
+        return absent;
+    }
+
+    void put(long cle, int valeur) {
+        verifier(cle);
+        int masque = cles.length - 1;
+        int i = indice(cle, masque);
+        while (cles[i] != 0) {
+            if (cles[i] == cle) {
+                valeurs[i] = valeur;
+                return;
+            }
+            i = (i + 1) & masque;
+        }
+        cles[i] = cle;
+        valeurs[i] = valeur;
+        if (++taille > seuil) {
+            redimensionner();
+        }
+    }
+
+    /**
+     * @return true si la clé était présente
+     */
+    boolean remove(long cle) {
+        verifier(cle);
+        int masque = cles.length - 1;
+        int i = indice(cle, masque);
+        while (cles[i] != cle) {
+            if (cles[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & masque;
+        }
+        // Décalage arrière : remonte les entrées dont la case idéale précède le trou
+        int trou = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & masque;
+            long k = cles[j];
+            if (k == 0) {
+                break;
+            }
+            int ideal = indice(k, masque);
+            if (((j - ideal) & masque) >= ((j - trou) & masque)) {
+                cles[trou] = k;
+                valeurs[trou] = valeurs[j];
+                trou = j;
+            }
+        }
+        cles[trou] = 0;
+        valeurs[trou] = 0;
+        taille--;
+        return true;
+    }
+
+    int size() {
+        return taille;
+    }
+
+    private void redimensionner() {
+        long[] anciennesCles = cles;
+        int[] anciennesValeurs = valeurs;
+        int capacite = anciennesCles.length << 1;
+        long[] nouvellesCles = new long[capacite];
+        int[] nouvellesValeurs = new int[capacite];
+        int masque = capacite - 1;
+        for (int i = 0; i < anciennesCles.length; i++) {
+            long k = anciennesCles[i];
+            if (k != 0) {
+                int j = indice(k, masque);
+                while (nouvellesCles[j] != 0) {
+                    j = (j + 1) & masque;
+                }
+                nouvellesCles[j] = k;
+                nouvellesValeurs[j] = anciennesValeurs[i];
+            }
+        }
+        // Les valeurs d'abord : get() écarte un couple de tableaux de tailles différentes
+        valeurs = nouvellesValeurs;
+        cles = nouvellesCles;
+        seuil = (int) (capacite * CHARGE_MAX);
+    }
+
+    private void allouer(int capacite) {
+        cles = new long[capacite];
+        valeurs = new int[capacite];
+        seuil = (int) (capacite * CHARGE_MAX);
+    }
+
+    private static int indice(long cle, int masque) {
+        long h = cle * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & masque;
+    }
+
+    private static void verifier(long cle) {
+        if (cle == 0) {
+            throw new IllegalArgumentException("La clé 0 est réservée");
+        }
+    }
+}
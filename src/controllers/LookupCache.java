@@ -0,0 +1,102 @@
+package controllers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache borné (LRU) en lecture traversante pour les correspondances nom ↔ identifiant.
+ * Seules les valeurs trouvées sont conservées : une clé absente de la base est relue à chaque appel,
+ * ce qui évite d'avoir à invalider le cache lors des ajouts.
+ *
+ * @param <K> Type de la clé
+ * @param <V> Type de la valeur
+ */
+public class LookupCache<K, V> {
+    private final String name;
+    private final Map<K, V> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // Incrémentée à chaque invalidation (sous le verrou de entries)
+    private long generation;
+
+    public LookupCache(String name, int maxSize) {
+        this.name = name;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Retourne la valeur associée à la clé, en la chargeant via {@code loader} si elle n'est pas en cache.
+     * Le chargement s'effectue hors verrou ; un résultat null n'est pas conservé, ni un résultat dont le
+     * chargement a croisé une invalidation (il peut précéder l'écriture qui l'a provoquée).
+     */
+    public V get(K key, Function<K, V> loader) {
+        long generationLue;
+        synchronized (entries) {
+            V cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            generationLue = generation;
+        }
+        misses.incrementAndGet();
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            synchronized (entries) {
+                if (generation == generationLue) {
+                    entries.put(key, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Retire une clé du cache.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Vide le cache.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return name + "[taille=" + size() + ", succès=" + h + ", échecs=" + (total - h)
+                + ", ratio=" + (total == 0 ? "-" : String.format("%.1f%%", 100.0 * h / total)) + "]";
+    }
+}
@@ -0,0 +1,86 @@
+package controllers;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Caches partagés par les contrôleurs pour les recherches nom ↔ identifiant sur les tables de référence,
+ * et pour l'historique des possessions de chaque véhicule.
+ * Les méthodes d'invalidation suivent les ON DELETE CASCADE du schéma : supprimer une marque supprime
+ * ses modèles, supprimer un modèle supprime ses véhicules, supprimer un véhicule ou un propriétaire
+ * supprime ses possessions.
+ */
+public final class LookupCaches {
+    private static final int MAX_SIZE = Integer.getInteger("cartegrise.cache.maxSize", 10_000);
+
+    // MARQUE
+    public static final LookupCache<String, Integer> MARQUE_ID_PAR_NOM = new LookupCache<>("marque.idParNom", MAX_SIZE);
+    public static final LookupCache<Integer, String> MARQUE_NOM_PAR_ID = new LookupCache<>("marque.nomParId", MAX_SIZE);
+    public static final LookupCache<Integer, String> MARQUE_NOM_PAR_MODELE = new LookupCache<>("marque.nomParModele", MAX_SIZE);
+
+    // MODELE
+    public static final LookupCache<String, Integer> MODELE_ID_PAR_NOM = new LookupCache<>("modele.idParNom", MAX_SIZE);
+    public static final LookupCache<Integer, String> MODELE_NOM_PAR_ID = new LookupCache<>("modele.nomParId", MAX_SIZE);
+
+    // VEHICULE
+    public static final LookupCache<String, Integer> VEHICULE_ID_PAR_MODELE = new LookupCache<>("vehicule.idParModele", MAX_SIZE);
+    public static final LookupCache<Integer, String> MODELE_NOM_PAR_VEHICULE = new LookupCache<>("vehicule.nomModele", MAX_SIZE);
+
+    // PROPRIETAIRE
+    public static final LookupCache<String, Integer> PROPRIETAIRE_ID_PAR_NOM = new LookupCache<>("proprietaire.idParNom", MAX_SIZE);
+    public static final LookupCache<Integer, String> PROPRIETAIRE_NOM_PAR_ID = new LookupCache<>("proprietaire.nomParId", MAX_SIZE);
+
+    // POSSEDER (historique vide conservé aussi : un véhicule sans possession n'est pas relu à chaque appel)
+    static final LookupCache<Integer, HistoriquePossession> HISTORIQUE_PAR_VEHICULE =
+            new LookupCache<>("possession.historiqueParVehicule", MAX_SIZE);
+
+    private LookupCaches() {
+    }
+
+    // À appeler après la modification ou la suppression d'une marque
+    public static void invalidateMarques() {
+        MARQUE_ID_PAR_NOM.invalidateAll();
+        MARQUE_NOM_PAR_ID.invalidateAll();
+        MARQUE_NOM_PAR_MODELE.invalidateAll();
+        invalidateModeles();
+    }
+
+    // À appeler après la modification ou la suppression d'un modèle
+    public static void invalidateModeles() {
+        MODELE_ID_PAR_NOM.invalidateAll();
+        MODELE_NOM_PAR_ID.invalidateAll();
+        MARQUE_NOM_PAR_MODELE.invalidateAll();
+        invalidateVehicules();
+    }
+
+    // À appeler après la modification ou la suppression d'un véhicule
+    public static void invalidateVehicules() {
+        VEHICULE_ID_PAR_MODELE.invalidateAll();
+        MODELE_NOM_PAR_VEHICULE.invalidateAll();
+    }
+
+    // À appeler après la modification ou la suppression d'un propriétaire
+    public static void invalidateProprietaires() {
+        PROPRIETAIRE_ID_PAR_NOM.invalidateAll();
+        PROPRIETAIRE_NOM_PAR_ID.invalidateAll();
+    }
+
+    // À appeler après l'ajout, la modification ou la suppression d'une possession du véhicule
+    public static void invalidatePossessions(int idVehicule) {
+        HISTORIQUE_PAR_VEHICULE.invalidate(idVehicule);
+    }
+
+    // À appeler après la suppression en cascade de possessions (propriétaires ou véhicules supprimés)
+    public static void invalidatePossessions() {
+        HISTORIQUE_PAR_VEHICULE.invalidateAll();
+    }
+
+    /**
+     * @return Tous les caches, pour l'affichage de leurs compteurs
+     */
+    public static List<LookupCache<?, ?>> all() {
+        return Arrays.asList(MARQUE_ID_PAR_NOM, MARQUE_NOM_PAR_ID, MARQUE_NOM_PAR_MODELE,
+                MODELE_ID_PAR_NOM, MODELE_NOM_PAR_ID, VEHICULE_ID_PAR_MODELE, MODELE_NOM_PAR_VEHICULE,
+                PROPRIETAIRE_ID_PAR_NOM, PROPRIETAIRE_NOM_PAR_ID, HISTORIQUE_PAR_VEHICULE);
+    }
+}
@@ -25,48 +25,109 @@ public class MarqueController {
         return marques;
     }
 
-    public void addMarque(String nomMarque) {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            if (existsByNomMarque(conn, nomMarque)) {
-                showAlert("Erreur", "La marque '" + nomMarque + "' existe déjà !");
-                return;
+    public int countMarques() {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM MARQUE")) {
+            if (rs.next()) {
+                return rs.getInt(1);
             }
-            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO MARQUE (nom_marque) VALUES (?)")) {
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    // Récupère une fenêtre de marques triées par identifiant
+    public List<Marque> getMarquesPage(int offset, int limit) {
+        List<Marque> marques = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT id_marque, nom_marque FROM MARQUE ORDER BY id_marque LIMIT ? OFFSET ?")) {
+            ps.setInt(1, limit);
+            ps.setInt(2, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    marques.add(new Marque(rs.getInt("id_marque"), rs.getString("nom_marque")));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return marques;
+    }
+
+    // Pagination par clé : les marques d'identifiant strictement supérieur à lastIdMarque (0 pour commencer)
+    public List<Marque> getMarquesApres(int lastIdMarque, int pageSize) {
+        List<Marque> marques = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT id_marque, nom_marque FROM MARQUE WHERE id_marque > ? ORDER BY id_marque LIMIT ?")) {
+            ps.setInt(1, lastIdMarque);
+            ps.setInt(2, pageSize);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    marques.add(new Marque(rs.getInt("id_marque"), rs.getString("nom_marque")));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return marques;
+    }
+
+    // Retourne l'identifiant de la marque créée, ou -1 si elle n'a pas été ajoutée
+    public int addMarque(String nomMarque) {
+        // L'unicité du nom est garantie par la contrainte uk_marque_nom
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO MARQUE (nom_marque) VALUES (?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
                 ps.setString(1, nomMarque);
                 ps.executeUpdate();
                 showAlert("Succès", "La marque '" + nomMarque + "' a été ajoutée avec succès !");
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    return keys.next() ? keys.getInt(1) : -1;
+                }
             }
         } catch (SQLException e) {
+            if (SqlErrors.isDuplicateKey(e)) {
+                showAlert("Erreur", "La marque '" + nomMarque + "' existe déjà !");
+                return -1;
+            }
             e.printStackTrace();
             showAlert("Erreur", "Une erreur s'est produite lors de l'ajout de la marque.");
         }
+        return -1;
     }
 
-    public void updateMarque(int idMarque, String newNom) {
+    public boolean updateMarque(int idMarque, String newNom) {
         try (Connection conn = DatabaseConnection.getConnection()) {
-            if (existsByNomMarqueExcludingId(conn, newNom, idMarque)) {
-                showAlert("Erreur", "Une autre marque porte déjà le nom '" + newNom + "' !");
-                return;
-            }
             try (PreparedStatement ps = conn.prepareStatement("UPDATE MARQUE SET nom_marque = ? WHERE id_marque = ?")) {
                 ps.setString(1, newNom);
                 ps.setInt(2, idMarque);
                 ps.executeUpdate();
+                LookupCaches.invalidateMarques();
                 showAlert("Succès", "La marque a été mise à jour avec succès !");
+                return true;
             }
         } catch (SQLException e) {
+            if (SqlErrors.isDuplicateKey(e)) {
+                showAlert("Erreur", "Une autre marque porte déjà le nom '" + newNom + "' !");
+                return false;
+            }
             e.printStackTrace();
             showAlert("Erreur", "Une erreur s'est produite lors de la mise à jour de la marque.");
         }
+        return false;
     }
 
-    public void deleteMarque(int idMarque) {
+    public boolean deleteMarque(int idMarque) {
         try (Connection conn = DatabaseConnection.getConnection()) {
             // Récupérer le nom de la marque pour confirmation
             String nomMarque = getMarqueNameById(conn, idMarque);
             if (nomMarque == null) {
                 showAlert("Erreur", "La marque à supprimer n'existe pas.");
-                return;
+                return false;
             }
 
             // Demander confirmation à l'utilisateur
@@ -77,7 +138,11 @@ public class MarqueController {
                 try (PreparedStatement ps = conn.prepareStatement("DELETE FROM MARQUE WHERE id_marque = ?")) {
                     ps.setInt(1, idMarque);
                     ps.executeUpdate();
+                    LookupCaches.invalidateMarques();  // Modèles et véhicules supprimés en cascade
+                    LookupCaches.invalidatePossessions();
+                    MatriculeIndex.invalider();
                     showAlert("Succès", "La marque '" + nomMarque + "' a été supprimée avec succès !");
+                    return true;
                 }
             } else {
                 showAlert("Annulé", "La suppression a été annulée.");
@@ -86,6 +151,7 @@ public class MarqueController {
             e.printStackTrace();
             showAlert("Erreur", "Une erreur s'est produite lors de la suppression de la marque.");
         }
+        return false;
     }
 
     private String getMarqueNameById(Connection conn, int idMarque) throws SQLException {
@@ -100,37 +166,11 @@ public class MarqueController {
         return null;
     }
 
-    private boolean existsByNomMarque(Connection conn, String nomMarque) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM MARQUE WHERE nom_marque = ?")) {
-            ps.setString(1, nomMarque);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-        }
-        return false;
-    }
-
-    private boolean existsByNomMarqueExcludingId(Connection conn, String nomMarque, int idMarque) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(
-                "SELECT COUNT(*) FROM MARQUE WHERE nom_marque = ? AND id_marque <> ?")) {
-            ps.setString(1, nomMarque);
-            ps.setInt(2, idMarque);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-        }
-        return false;
-    }
-
     private void showAlert(String title, String message) {
-        JOptionPane.showMessageDialog(null, message, title, JOptionPane.INFORMATION_MESSAGE);
+        Dialogues.information(title, message);
     }
 
     private int showConfirmation(String title, String message) {
-        return JOptionPane.showConfirmDialog(null, message, title, JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        return Dialogues.confirmation(title, message);
     }
 }
@@ -0,0 +1,289 @@
+package controllers;
+
+import database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Index en mémoire matricule → id_vehicule, pour les recherches et tests d'existence sans requête SQL.
+ * <p>
+ * Les matricules sont comparés comme par la clé unique de la base (collation utf8mb4_0900_ai_ci par défaut) :
+ * casse et accents indifférents, tirets et espaces significatifs ; « AB-123-CD » et « AB123CD » sont donc deux
+ * véhicules distincts. Un matricule SIV (AA-123-AA) est codé dans un long et rangé dans une table à adressage
+ * ouvert de types primitifs ; les rares matricules d'un autre format sont gardés dans une table ordinaire. L'index est chargé en arrière-plan au démarrage et tenu à jour par
+ * les écritures de {@link VehiculeController} ; tant qu'il n'est pas chargé (ou après une suppression en
+ * cascade, qui le fait recharger), {@link #chercher} renvoie {@link #INCONNU} et l'appelant interroge la base.
+ */
+public final class MatriculeIndex {
+    private static final Logger LOGGER = Logger.getLogger(MatriculeIndex.class.getName());
+
+    /** Matricule absent du registre. */
+    public static final int ABSENT = -1;
+    /** Index pas encore chargé : la réponse doit être cherchée en base. */
+    public static final int INCONNU = -2;
+
+    private static final String SELECT_QUERY = "SELECT id_vehicule, matricule FROM VEHICULE";
+
+    private static final StampedLock VERROU = new StampedLock();
+    private static final Object CHARGEMENT = new Object();
+    // null tant que l'index n'est pas chargé
+    private static Table table;
+    // Écritures survenues pendant un chargement, rejouées sur la nouvelle table (null hors chargement)
+    private static List<Object[]> journal;
+
+    private MatriculeIndex() {
+    }
+
+    /**
+     * Lance le chargement de l'index dans un thread d'arrière-plan.
+     */
+    public static void chargerEnArrierePlan() {
+        Thread thread = new Thread(MatriculeIndex::charger, "matricule-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Charge (ou recharge) l'index depuis la base, en flux. Les écritures concurrentes ne sont pas perdues.
+     */
+    public static void charger() {
+        synchronized (CHARGEMENT) {
+            long stamp = VERROU.writeLock();
+            journal = new ArrayList<>();
+            VERROU.unlockWrite(stamp);
+
+            long debut = System.nanoTime();
+            Table nouvelle = null;
+            try (Connection conn = DatabaseConnection.getConnection();
+                 Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                nouvelle = new Table();
+                try (ResultSet rs = stmt.executeQuery(SELECT_QUERY)) {
+                    while (rs.next()) {
+                        nouvelle.ajouter(rs.getInt(1), rs.getString(2));
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Chargement de l'index des matricules impossible, recherches en base", e);
+                nouvelle = null;
+            }
+
+            stamp = VERROU.writeLock();
+            try {
+                if (nouvelle != null) {
+                    for (Object[] ecriture : journal) {
+                        nouvelle.appliquer(ecriture);
+                    }
+                }
+                table = nouvelle;
+                journal = null;
+            } finally {
+                VERROU.unlockWrite(stamp);
+            }
+            if (nouvelle != null) {
+                LOGGER.log(Level.INFO, "Index des matricules chargé : {0} véhicules en {1} ms",
+                        new Object[]{nouvelle.taille(), (System.nanoTime() - debut) / 1_000_000});
+            }
+        }
+    }
+
+    /**
+     * Vide l'index et le recharge en arrière-plan, après une écriture qui a pu supprimer des véhicules
+     * sans passer par {@link VehiculeController} (suppressions en cascade, chargements en masse...).
+     * Sans effet si l'index n'a jamais été chargé ni n'est en cours de chargement.
+     */
+    public static void invalider() {
+        boolean utilise;
+        long stamp = VERROU.writeLock();
+        try {
+            utilise = table != null || journal != null;
+            table = null;
+        } finally {
+            VERROU.unlockWrite(stamp);
+        }
+        if (utilise) {
+            chargerEnArrierePlan();
+        }
+    }
+
+    /**
+     * @return L'identifiant du véhicule, {@link #ABSENT} s'il n'existe pas, ou {@link #INCONNU} si l'index
+     * n'est pas disponible
+     */
+    public static int chercher(String matricule) {
+        if (matricule == null) {
+            return ABSENT;
+        }
+        String normalise = normaliser(matricule);
+        long code = coder(normalise);
+        if (code != 0) {
+            // Lecture optimiste : aucun verrou pris si aucune écriture n'a eu lieu pendant la lecture
+            long stamp = VERROU.tryOptimisticRead();
+            Table t = table;
+            int id = t == null ? INCONNU : t.siv.get(code, ABSENT);
+            if (VERROU.validate(stamp)) {
+                return id;
+            }
+        }
+        long stamp = VERROU.readLock();
+        try {
+            return table == null ? INCONNU : table.chercher(normalise, code);
+        } finally {
+            VERROU.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return true si l'index est chargé
+     */
+    public static boolean isCharge() {
+        long stamp = VERROU.readLock();
+        try {
+            return table != null;
+        } finally {
+            VERROU.unlockRead(stamp);
+        }
+    }
+
+    // Enregistre le matricule d'un véhicule créé ou modifié
+    static void ajouter(int idVehicule, String matricule) {
+        ecrire(new Object[]{idVehicule, matricule});
+    }
+
+    // Retire un véhicule supprimé
+    static void retirer(int idVehicule) {
+        ecrire(new Object[]{idVehicule, null});
+    }
+
+    private static void ecrire(Object[] ecriture) {
+        long stamp = VERROU.writeLock();
+        try {
+            if (table != null) {
+                table.appliquer(ecriture);
+            }
+            if (journal != null) {
+                journal.add(ecriture);
+            }
+        } finally {
+            VERROU.unlockWrite(stamp);
+        }
+    }
+
+    // Majuscules sans accents ; les autres caractères (tirets, espaces) sont gardés tels quels
+    static String normaliser(String matricule) {
+        for (int i = 0; i < matricule.length(); i++) {
+            if (matricule.charAt(i) > 0x7F) {
+                matricule = Normalizer.normalize(matricule, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+                break;
+            }
+        }
+        return matricule.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Code un matricule SIV normalisé (LL-CCC-LL) : 4 lettres sur 5 bits et le numéro sur 10 bits,
+     * plus un bit de marquage pour que le code ne soit jamais nul.
+     *
+     * @return Le code, ou 0 si le matricule n'est pas au format SIV
+     */
+    static long coder(String normalise) {
+        if (normalise.length() != 9 || normalise.charAt(2) != '-' || normalise.charAt(6) != '-') {
+            return 0;
+        }
+        long code = 1; // Bit de marquage, qui finit en position 30
+        int numero = 0;
+        for (int i = 0; i < 9; i++) {
+            char c = normalise.charAt(i);
+            if (i == 2 || i == 6) {
+                continue;
+            }
+            if (i >= 3 && i <= 5) {
+                if (c < '0' || c > '9') {
+                    return 0;
+                }
+                numero = numero * 10 + (c - '0');
+            } else {
+                if (c < 'A' || c > 'Z') {
+                    return 0;
+                }
+                code = (code << 5) | (c - 'A');
+            }
+        }
+        // Le numéro occupe les 10 bits de poids faible
+        return (code << 10) | numero;
+    }
+
+    /**
+     * Contenu de l'index : table primitive pour les matricules SIV, tables ordinaires pour les autres,
+     * et le code de chaque véhicule par identifiant pour pouvoir le retirer.
+     */
+    private static final class Table {
+        private final LongIntHashMap siv = new LongIntHashMap(1 << 16);
+        private final Map<String, Integer> autres = new HashMap<>();
+        private long[] codesParId = new long[1 << 16];
+        private final Map<Integer, String> autresParId = new HashMap<>();
+
+        private int chercher(String normalise, long code) {
+            if (code != 0) {
+                return siv.get(code, ABSENT);
+            }
+            Integer id = autres.get(normalise);
+            return id != null ? id : ABSENT;
+        }
+
+        private void appliquer(Object[] ecriture) {
+            int idVehicule = (Integer) ecriture[0];
+            retirer(idVehicule);
+            if (ecriture[1] != null) {
+                ajouter(idVehicule, (String) ecriture[1]);
+            }
+        }
+
+        private void ajouter(int idVehicule, String matricule) {
+            String normalise = normaliser(matricule);
+            long code = coder(normalise);
+            if (code != 0) {
+                siv.put(code, idVehicule);
+                if (idVehicule >= codesParId.length) {
+                    codesParId = Arrays.copyOf(codesParId, Math.max(idVehicule + 1, codesParId.length * 2));
+                }
+                codesParId[idVehicule] = code;
+            } else {
+                autres.put(normalise, idVehicule);
+                autresParId.put(idVehicule, normalise);
+            }
+        }
+
+        private void retirer(int idVehicule) {
+            if (idVehicule < codesParId.length && codesParId[idVehicule] != 0) {
+                long code = codesParId[idVehicule];
+                codesParId[idVehicule] = 0;
+                // Le code a pu être réattribué à un autre véhicule entre-temps
+                if (siv.get(code, ABSENT) == idVehicule) {
+                    siv.remove(code);
+                }
+            }
+            String autre = autresParId.remove(idVehicule);
+            if (autre != null && Integer.valueOf(idVehicule).equals(autres.get(autre))) {
+                autres.remove(autre);
+            }
+        }
+
+        private int taille() {
+            return siv.size() + autres.size();
+        }
+    }
+}
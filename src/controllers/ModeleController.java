@@ -3,7 +3,6 @@ package controllers;
 import database.DatabaseConnection;
 import models.Modele;
 
-import javax.swing.JOptionPane;  // Pour afficher un message d'erreur sous forme de pop-up
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,6 +12,10 @@ import java.util.List;
  */
 public class ModeleController {
 
+    // Listing joint MODELE/MARQUE
+    private static final String SELECT_AVEC_MARQUE_QUERY = "SELECT m.id_modele, m.nom_modele, m.id_marque, ma.nom_marque " +
+            "FROM MODELE m JOIN MARQUE ma ON ma.id_marque = m.id_marque";
+
     // Récupère tous les modèles
     public List<Modele> getAllModeles() {
         List<Modele> modeles = new ArrayList<>();
@@ -33,46 +36,120 @@ public class ModeleController {
         return modeles;
     }
 
-    // Ajouter un modèle
-    public void addModele(String nomModele, String nomMarque) {
+    // Récupère tous les modèles avec le nom de leur marque, en une seule requête
+    public List<Modele> getAllModelesAvecMarque() {
+        List<Modele> modeles = new ArrayList<>();
+        String query = SELECT_AVEC_MARQUE_QUERY;
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+
+            while (rs.next()) {
+                modeles.add(new Modele(
+                        rs.getInt("id_modele"),
+                        rs.getString("nom_modele"),
+                        rs.getInt("id_marque"),
+                        rs.getString("nom_marque")
+                ));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return modeles;
+    }
+
+    // Compte les modèles
+    public int countModeles() {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM MODELE")) {
+
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    // Récupère une fenêtre de modèles (avec leur marque) triés par identifiant
+    public List<Modele> getModelesAvecMarquePage(int offset, int limit) {
+        return queryModelesAvecMarque(SELECT_AVEC_MARQUE_QUERY + " ORDER BY m.id_modele LIMIT ? OFFSET ?", limit, offset);
+    }
+
+    // Pagination par clé : les modèles (avec leur marque) d'identifiant supérieur à lastIdModele (0 pour commencer)
+    public List<Modele> getModelesAvecMarqueApres(int lastIdModele, int pageSize) {
+        return queryModelesAvecMarque(SELECT_AVEC_MARQUE_QUERY + " WHERE m.id_modele > ? ORDER BY m.id_modele LIMIT ?",
+                lastIdModele, pageSize);
+    }
+
+    // Exécute une requête du listing joint MODELE/MARQUE avec deux paramètres entiers
+    private List<Modele> queryModelesAvecMarque(String query, int param1, int param2) {
+        List<Modele> modeles = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            ps.setInt(1, param1);
+            ps.setInt(2, param2);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    modeles.add(new Modele(
+                            rs.getInt("id_modele"),
+                            rs.getString("nom_modele"),
+                            rs.getInt("id_marque"),
+                            rs.getString("nom_marque")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return modeles;
+    }
+
+    // Ajouter un modèle (retourne l'identifiant créé, ou -1 en cas d'échec)
+    public int addModele(String nomModele, String nomMarque) {
         int idMarque = getMarqueIdByName(nomMarque);  // Récupère l'ID de la marque à partir de son nom
         if (idMarque == -1) {
             // Si la marque n'existe pas, afficher un message d'erreur
-            JOptionPane.showMessageDialog(null, "Erreur : La marque '" + nomMarque + "' n'existe pas.", "Erreur", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Vérifie l'existence du modèle
-        if (existsModele(nomModele, idMarque)) {
-            JOptionPane.showMessageDialog(null, "Erreur : Un modèle avec ce nom existe déjà pour cette marque.", "Erreur", JOptionPane.ERROR_MESSAGE);
-            return;
+            Dialogues.erreur("Erreur : La marque '" + nomMarque + "' n'existe pas.");
+            return -1;
         }
 
+        // L'unicité du nom pour une marque est garantie par la contrainte uk_modele_nom_marque
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement("INSERT INTO MODELE (nom_modele, id_marque) VALUES (?, ?)")) {
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO MODELE (nom_modele, id_marque) VALUES (?, ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setString(1, nomModele);
             ps.setInt(2, idMarque);
             ps.executeUpdate();
 
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    return keys.getInt(1);
+                }
+            }
+
         } catch (SQLException e) {
+            if (SqlErrors.isDuplicateKey(e)) {
+                Dialogues.erreur("Erreur : Un modèle avec ce nom existe déjà pour cette marque.");
+                return -1;
+            }
             e.printStackTrace();
         }
+        return -1;
     }
 
     // Modifier un modèle
-    public void updateModele(int idModele, String newNom, String nomMarque) {
+    public boolean updateModele(int idModele, String newNom, String nomMarque) {
         int idMarque = getMarqueIdByName(nomMarque);  // Récupère l'ID de la marque à partir de son nom
         if (idMarque == -1) {
             // Si la marque n'existe pas, afficher un message d'erreur
-            JOptionPane.showMessageDialog(null, "Erreur : La marque '" + nomMarque + "' n'existe pas.", "Erreur", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Vérifie l'existence du modèle
-        if (existsModele(newNom, idMarque)) {
-            JOptionPane.showMessageDialog(null, "Erreur : Un modèle avec ce nom existe déjà pour cette marque.", "Erreur", JOptionPane.ERROR_MESSAGE);
-            return;
+            Dialogues.erreur("Erreur : La marque '" + nomMarque + "' n'existe pas.");
+            return false;
         }
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -81,48 +158,72 @@ public class ModeleController {
             ps.setString(1, newNom);
             ps.setInt(2, idMarque);
             ps.setInt(3, idModele);
-            ps.executeUpdate();
+            boolean updated = ps.executeUpdate() > 0;
+            if (updated) {
+                LookupCaches.invalidateModeles();
+            }
+            return updated;
 
         } catch (SQLException e) {
+            if (SqlErrors.isDuplicateKey(e)) {
+                Dialogues.erreur("Erreur : Un modèle avec ce nom existe déjà pour cette marque.");
+                return false;
+            }
             e.printStackTrace();
         }
+        return false;
     }
 
     // Supprimer un modèle
-    public void deleteModele(int idModele) {
+    public boolean deleteModele(int idModele) {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement("DELETE FROM MODELE WHERE id_modele = ?")) {
 
             ps.setInt(1, idModele);
-            ps.executeUpdate();
+            boolean deleted = ps.executeUpdate() > 0;
+            if (deleted) {
+                LookupCaches.invalidateModeles();  // Les véhicules du modèle sont supprimés en cascade
+                LookupCaches.invalidatePossessions();
+                MatriculeIndex.invalider();
+            }
+            return deleted;
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return false;
     }
 
-    // Vérifier si un modèle existe déjà pour une marque
-    private boolean existsModele(String nomModele, int idMarque) {
+    // Récupère un modèle avec le nom de sa marque (null s'il n'existe pas)
+    public Modele getModeleAvecMarqueById(int idModele) {
+        String query = SELECT_AVEC_MARQUE_QUERY + " WHERE m.id_modele = ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM MODELE WHERE nom_modele = ? AND id_marque = ?")) {
+             PreparedStatement ps = conn.prepareStatement(query)) {
 
-            ps.setString(1, nomModele);
-            ps.setInt(2, idMarque);
+            ps.setInt(1, idModele);
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                    return new Modele(
+                            rs.getInt("id_modele"),
+                            rs.getString("nom_modele"),
+                            rs.getInt("id_marque"),
+                            rs.getString("nom_marque"));
                 }
             }
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return false;
+        return null;
     }
 
     // Méthode pour récupérer le nom de la marque à partir de l'ID
 public String getNomMarqueById(int idMarque) {
+    return LookupCaches.MARQUE_NOM_PAR_ID.get(idMarque, this::loadNomMarqueById);
+}
+
+private String loadNomMarqueById(int idMarque) {
     String query = "SELECT nom_marque FROM marque WHERE id_marque = ?";
     try (Connection conn = DatabaseConnection.getConnection();
          PreparedStatement ps = conn.prepareStatement(query)) {
@@ -143,6 +244,11 @@ public String getNomMarqueById(int idMarque) {
 
     // Vérifie si une marque existe dans la base de données et retourne son ID
     private int getMarqueIdByName(String nomMarque) {
+        Integer idMarque = LookupCaches.MARQUE_ID_PAR_NOM.get(nomMarque, this::loadMarqueIdByName);
+        return idMarque != null ? idMarque : -1;
+    }
+
+    private Integer loadMarqueIdByName(String nomMarque) {
         String query = "SELECT id_marque FROM marque WHERE nom_marque = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(query)) {
@@ -153,13 +259,13 @@ public String getNomMarqueById(int idMarque) {
                 if (rs.next()) {
                     return rs.getInt("id_marque");  // Retourne l'ID de la marque
                 } else {
-                    return -1;  // Marque non trouvée
+                    return null;  // Marque non trouvée
                 }
             }
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return -1;
+        return null;
     }
 }
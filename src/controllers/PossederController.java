@@ -1,12 +1,22 @@
 package controllers;
 
 import models.Posseder;
+import models.PossederCritere;
+import models.PossederDetail;
+import models.ProprietairesActuels;
+import models.ResultatInsertion;
+import models.ResultatInsertion.Statut;
 import database.DatabaseConnection;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,13 +27,59 @@ import java.util.logging.Logger;
 public class PossederController {
     // Constantes pour les requêtes SQL
     private static final String SELECT_ALL_QUERY = "SELECT * FROM POSSEDER";
+    private static final String COUNT_QUERY = "SELECT COUNT(*) FROM POSSEDER";
+    private static final String SELECT_PAGE_AFTER_QUERY = "SELECT * FROM POSSEDER " +
+            "WHERE id_proprietaire > ? OR (id_proprietaire = ? AND id_vehicule > ?) " +
+            "ORDER BY id_proprietaire, id_vehicule LIMIT ?";
     private static final String INSERT_QUERY = "INSERT INTO POSSEDER (id_proprietaire, id_vehicule, date_debut_propriete, date_fin_propriete) VALUES (?, ?, ?, ?)";
     private static final String UPDATE_QUERY = "UPDATE POSSEDER SET date_debut_propriete = ?, date_fin_propriete = ? WHERE id_proprietaire = ? AND id_vehicule = ?";
+    private static final String UPDATE_CLE_QUERY = "UPDATE POSSEDER SET id_proprietaire = ?, id_vehicule = ?, date_debut_propriete = ?, date_fin_propriete = ? WHERE id_proprietaire = ? AND id_vehicule = ?";
     private static final String DELETE_QUERY = "DELETE FROM POSSEDER WHERE id_proprietaire = ? AND id_vehicule = ?";
+    // Clôture de la propriété du vendeur, si elle est en cours à la date de vente
+    private static final String CLOTURE_QUERY = "UPDATE POSSEDER SET date_fin_propriete = ? " +
+            "WHERE id_proprietaire = ? AND id_vehicule = ? AND date_debut_propriete <= ? " +
+            "AND (date_fin_propriete IS NULL OR date_fin_propriete > ?)";
+    // Ouverture de la propriété de l'acheteur ; la clé (propriétaire, véhicule) étant unique, un acheteur
+    // ayant déjà possédé le véhicule est refusé plutôt que d'écraser son ancienne propriété
+    private static final String OUVERTURE_QUERY = "INSERT INTO POSSEDER (id_proprietaire, id_vehicule, date_debut_propriete, date_fin_propriete) " +
+            "VALUES (?, ?, ?, NULL)";
+    private static final String HISTORIQUE_QUERY = "SELECT id_proprietaire, date_debut_propriete, date_fin_propriete " +
+            "FROM POSSEDER WHERE id_vehicule = ? ORDER BY date_debut_propriete, id_proprietaire";
+    // Dates converties en jours (epoch day) par le serveur : lues comme des entiers, sans objet Date par ligne
+    private static final String SELECT_JOURS_QUERY = "SELECT id_vehicule, id_proprietaire, " +
+            "TO_DAYS(date_debut_propriete) - TO_DAYS('1970-01-01'), TO_DAYS(date_fin_propriete) - TO_DAYS('1970-01-01') " +
+            "FROM POSSEDER";
+    private static final String MAX_VEHICULE_QUERY = "SELECT COALESCE(MAX(id_vehicule), 0) FROM VEHICULE";
+    private static final String GET_PROPRIETAIRE_ACTUEL_QUERY = "SELECT id_proprietaire FROM CURRENT_OWNER WHERE id_vehicule = ?";
     private static final String GET_PROPRIETAIRE_ID_QUERY = "SELECT id_proprietaire FROM PROPRIETAIRE WHERE nom = ?";
     private static final String GET_VEHICULE_ID_QUERY = "SELECT v.id_vehicule FROM VEHICULE v JOIN MODELE m ON v.id_modele = m.id_modele WHERE m.nom_modele = ?";
     private static final String GET_PROPRIETAIRE_NOM_QUERY = "SELECT nom FROM PROPRIETAIRE WHERE id_proprietaire = ?";
     private static final String GET_MODELE_NOM_QUERY = "SELECT m.nom_modele FROM MODELE m JOIN VEHICULE v ON m.id_modele = v.id_modele WHERE v.id_vehicule = ?";
+    private static final String SELECT_ALL_DETAILS_QUERY =
+            "SELECT p.id_proprietaire, pr.nom, pr.prenom, p.id_vehicule, v.matricule, m.nom_modele, " +
+            "p.date_debut_propriete, p.date_fin_propriete " +
+            "FROM POSSEDER p " +
+            "JOIN PROPRIETAIRE pr ON pr.id_proprietaire = p.id_proprietaire " +
+            "JOIN VEHICULE v ON v.id_vehicule = p.id_vehicule " +
+            "JOIN MODELE m ON m.id_modele = v.id_modele";
+    private static final String SELECT_REGISTRE_QUERY =
+            "SELECT p.id_proprietaire, pr.nom, pr.prenom, pr.adresse, pr.cp, pr.ville, " +
+            "p.id_vehicule, v.matricule, v.annee_sortie, v.poids, v.puissance_chevaux, v.puissance_fiscale, " +
+            "m.nom_modele, ma.nom_marque, p.date_debut_propriete, p.date_fin_propriete " +
+            "FROM POSSEDER p " +
+            "JOIN PROPRIETAIRE pr ON pr.id_proprietaire = p.id_proprietaire " +
+            "JOIN VEHICULE v ON v.id_vehicule = p.id_vehicule " +
+            "JOIN MODELE m ON m.id_modele = v.id_modele " +
+            "JOIN MARQUE ma ON ma.id_marque = m.id_marque";
+
+    /**
+     * Colonnes transmises par {@link #forEachLigneRegistre(Consumer)}, dans l'ordre.
+     */
+    public static final String[] COLONNES_REGISTRE = {
+            "id_proprietaire", "nom", "prenom", "adresse", "cp", "ville",
+            "id_vehicule", "matricule", "annee_sortie", "poids", "puissance_chevaux", "puissance_fiscale",
+            "nom_modele", "nom_marque", "date_debut_propriete", "date_fin_propriete"
+    };
     
     // Logger pour une gestion des erreurs plus professionnelle
     private static final Logger LOGGER = Logger.getLogger(PossederController.class.getName());
@@ -66,6 +122,269 @@ public class PossederController {
         return possederList;
     }
 
+    /**
+     * Pagination par clé sur la clé primaire (id_proprietaire, id_vehicule) : renvoie les relations
+     * situées strictement après le couple donné. Passer (0, 0) pour obtenir la première page.
+     * 
+     * @param lastIdProprietaire Identifiant propriétaire de la dernière relation déjà lue
+     * @param lastIdVehicule Identifiant véhicule de la dernière relation déjà lue
+     * @param pageSize Nombre maximal de relations renvoyées
+     * @return Liste des relations de possession suivantes
+     */
+    public List<Posseder> getPossederApres(int lastIdProprietaire, int lastIdVehicule, int pageSize) {
+        List<Posseder> possederList = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_PAGE_AFTER_QUERY)) {
+            
+            pstmt.setInt(1, lastIdProprietaire);
+            pstmt.setInt(2, lastIdProprietaire);
+            pstmt.setInt(3, lastIdVehicule);
+            pstmt.setInt(4, pageSize);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    possederList.add(new Posseder(
+                        rs.getInt("id_proprietaire"),
+                        rs.getInt("id_vehicule"),
+                        rs.getDate("date_debut_propriete"),
+                        rs.getDate("date_fin_propriete")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la lecture paginée des relations POSSEDER", e);
+            throw new RuntimeException("Impossible de récupérer les relations de possession", e);
+        }
+        
+        return possederList;
+    }
+
+    /**
+     * Récupère toutes les relations POSSEDER déjà jointes avec le propriétaire, le véhicule et son modèle,
+     * en une seule requête.
+     * 
+     * @return Liste des projections de possession
+     */
+    public List<PossederDetail> getAllPossederDetails() {
+        List<PossederDetail> details = new ArrayList<>();
+        forEachPossederDetail(details::add);
+        return details;
+    }
+
+    /**
+     * Parcourt toutes les relations POSSEDER jointes, ligne par ligne, sans les accumuler en mémoire.
+     * Le ResultSet est lu en flux (fetch size Integer.MIN_VALUE) : le consommateur reçoit chaque ligne
+     * dès sa réception et peut interrompre la lecture en levant une exception non vérifiée.
+     * 
+     * @param consumer Traitement appliqué à chaque projection
+     */
+    public void forEachPossederDetail(Consumer<PossederDetail> consumer) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery(SELECT_ALL_DETAILS_QUERY)) {
+                while (rs.next()) {
+                    consumer.accept(mapDetail(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération des relations POSSEDER détaillées", e);
+            throw new RuntimeException("Impossible de récupérer les relations de possession", e);
+        }
+    }
+
+    /**
+     * Parcourt le registre complet (possessions jointes avec propriétaire, véhicule, modèle et marque)
+     * en flux, pour l'export. Aucun objet n'est créé par ligne : le même tableau de valeurs, dans l'ordre
+     * de {@link #COLONNES_REGISTRE}, est rempli puis transmis pour chaque ligne ; le consommateur ne doit
+     * pas le conserver.
+     * 
+     * @param consumer Traitement appliqué à chaque ligne
+     */
+    public void forEachLigneRegistre(Consumer<Object[]> consumer) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery(SELECT_REGISTRE_QUERY)) {
+                Object[] valeurs = new Object[COLONNES_REGISTRE.length];
+                while (rs.next()) {
+                    valeurs[0] = rs.getInt("id_proprietaire");
+                    valeurs[1] = rs.getString("nom");
+                    valeurs[2] = rs.getString("prenom");
+                    valeurs[3] = rs.getString("adresse");
+                    valeurs[4] = rs.getString("cp");
+                    valeurs[5] = rs.getString("ville");
+                    valeurs[6] = rs.getInt("id_vehicule");
+                    valeurs[7] = rs.getString("matricule");
+                    valeurs[8] = rs.getInt("annee_sortie");
+                    valeurs[9] = rs.getInt("poids");
+                    valeurs[10] = rs.getInt("puissance_chevaux");
+                    valeurs[11] = rs.getInt("puissance_fiscale");
+                    valeurs[12] = rs.getString("nom_modele");
+                    valeurs[13] = rs.getString("nom_marque");
+                    valeurs[14] = rs.getDate("date_debut_propriete");
+                    valeurs[15] = rs.getDate("date_fin_propriete");
+                    consumer.accept(valeurs);
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la lecture du registre", e);
+            throw new RuntimeException("Impossible de lire le registre", e);
+        }
+    }
+
+    /**
+     * Détermine le propriétaire actuel de chaque véhicule en un seul parcours de POSSEDER.
+     * 
+     * @return Le propriétaire de chaque véhicule à la date du jour
+     * @see #getProprietairesALaDate(LocalDate)
+     */
+    public ProprietairesActuels getProprietairesActuels() {
+        return getProprietairesALaDate(LocalDate.now());
+    }
+
+    /**
+     * Détermine le propriétaire de chaque véhicule à une date, en un seul parcours de POSSEDER lu en flux.
+     * La date est convertie une fois en jour (epoch day) et chaque ligne est évaluée sur des entiers
+     * avec {@link Posseder#estEnCours}, sans objet créé par ligne : le parcours de toute la table reste
+     * sans effet notable sur le ramasse-miettes. Si plusieurs possessions d'un véhicule sont en cours
+     * (données incohérentes), la plus récente l'emporte.
+     * 
+     * @param date La date d'évaluation
+     * @return Le propriétaire de chaque véhicule à cette date
+     */
+    public ProprietairesActuels getProprietairesALaDate(LocalDate date) {
+        long jour = date.toEpochDay();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int borne;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(MAX_VEHICULE_QUERY)) {
+                borne = rs.next() ? rs.getInt(1) + 1 : 1;
+            }
+            int[] proprietaires = new int[borne];
+            int[] debuts = new int[borne];
+            int nombre = 0;
+            
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                try (ResultSet rs = stmt.executeQuery(SELECT_JOURS_QUERY)) {
+                    while (rs.next()) {
+                        int idVehicule = rs.getInt(1);
+                        int debut = rs.getInt(3);
+                        int fin = rs.getInt(4);
+                        if (!Posseder.estEnCours(debut, rs.wasNull() ? Long.MAX_VALUE : fin, jour)) {
+                            continue;
+                        }
+                        // Véhicule créé après la lecture de la borne
+                        if (idVehicule >= proprietaires.length) {
+                            proprietaires = Arrays.copyOf(proprietaires, Math.max(idVehicule + 1, proprietaires.length * 2));
+                            debuts = Arrays.copyOf(debuts, proprietaires.length);
+                        }
+                        if (proprietaires[idVehicule] == 0) {
+                            nombre++;
+                        } else if (debuts[idVehicule] > debut) {
+                            continue;
+                        }
+                        proprietaires[idVehicule] = rs.getInt(2);
+                        debuts[idVehicule] = debut;
+                    }
+                }
+            }
+            return new ProprietairesActuels(date, proprietaires, nombre);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors du calcul des propriétaires actuels", e);
+            throw new RuntimeException("Impossible de déterminer les propriétaires actuels", e);
+        }
+    }
+
+    /**
+     * Recherche des relations POSSEDER jointes selon des critères appliqués côté serveur :
+     * filtres dans le WHERE, tri dans l'ORDER BY et nombre maximal de lignes dans le LIMIT.
+     * Les lignes sont transmises au consommateur au fil de la lecture.
+     * 
+     * @param critere Critères de filtre, de tri et de limite
+     * @param consumer Traitement appliqué à chaque projection
+     */
+    public void searchPossederDetails(PossederCritere critere, Consumer<PossederDetail> consumer) {
+        StringBuilder queryBuilder = new StringBuilder(SELECT_ALL_DETAILS_QUERY).append(" WHERE 1=1");
+        List<Object> parameters = new ArrayList<>();
+        
+        if (critere.getPrefixeNom() != null && !critere.getPrefixeNom().trim().isEmpty()) {
+            queryBuilder.append(" AND pr.nom LIKE ?");
+            parameters.add(escapeLike(critere.getPrefixeNom().trim()) + "%");
+        }
+        
+        if (critere.getNomModele() != null && !critere.getNomModele().trim().isEmpty()) {
+            queryBuilder.append(" AND m.nom_modele = ?");
+            parameters.add(critere.getNomModele().trim());
+        }
+        
+        if (critere.getMatricule() != null && !critere.getMatricule().trim().isEmpty()) {
+            queryBuilder.append(" AND v.matricule = ?");
+            parameters.add(critere.getMatricule().trim());
+        }
+        
+        // Période : la propriété [début, fin[ doit chevaucher les jours [du, au] ; le jour de la fin
+        // appartient déjà à l'acheteur
+        if (critere.getDu() != null) {
+            queryBuilder.append(" AND (p.date_fin_propriete IS NULL OR p.date_fin_propriete > ?)");
+            parameters.add(new java.sql.Date(critere.getDu().getTime()));
+        }
+        
+        if (critere.getAu() != null) {
+            queryBuilder.append(" AND p.date_debut_propriete <= ?");
+            parameters.add(new java.sql.Date(critere.getAu().getTime()));
+        }
+        
+        if (critere.isActuelsSeulement()) {
+            queryBuilder.append(" AND p.date_debut_propriete <= CURDATE()")
+                        .append(" AND (p.date_fin_propriete IS NULL OR p.date_fin_propriete > CURDATE())");
+        }
+        
+        // Tri sur une colonne connue (jamais issue directement de la saisie), départagé par la clé primaire
+        String sens = critere.isCroissant() ? " ASC" : " DESC";
+        queryBuilder.append(" ORDER BY ").append(sortColumn(critere.getTri())).append(sens)
+                    .append(", p.id_proprietaire, p.id_vehicule LIMIT ?");
+        parameters.add(critere.getLimite());
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(queryBuilder.toString())) {
+            
+            for (int i = 0; i < parameters.size(); i++) {
+                pstmt.setObject(i + 1, parameters.get(i));
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapDetail(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la recherche filtrée de relations POSSEDER", e);
+            throw new RuntimeException("Impossible de rechercher les relations de possession", e);
+        }
+    }
+
+    /**
+     * Compte les relations POSSEDER.
+     * 
+     * @return Le nombre de relations de possession
+     */
+    public int countPosseder() {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(COUNT_QUERY)) {
+
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors du comptage des relations POSSEDER", e);
+            throw new RuntimeException("Impossible de compter les relations de possession", e);
+        }
+    }
+
     /**
      * Recherche des relations POSSEDER avec des filtres spécifiques.
      * 
@@ -129,26 +448,38 @@ public class PossederController {
             throw new IllegalArgumentException("L'objet Posseder ou sa date de début ne peut pas être null");
         }
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(INSERT_QUERY)) {
-            
-            pstmt.setInt(1, posseder.getIdProprietaire());
-            pstmt.setInt(2, posseder.getIdVehicule());
-            pstmt.setDate(3, new java.sql.Date(posseder.getDateDebutPropriete().getTime()));
-            
-            if (posseder.getDateFinPropriete() != null) {
-                pstmt.setDate(4, new java.sql.Date(posseder.getDateFinPropriete().getTime()));
-            } else {
-                pstmt.setNull(4, Types.DATE);
-            }
-            
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                LOGGER.log(Level.WARNING, "Échec de l'ajout de la relation POSSEDER, aucune ligne affectée");
-                return false;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_QUERY)) {
+                
+                pstmt.setInt(1, posseder.getIdProprietaire());
+                pstmt.setInt(2, posseder.getIdVehicule());
+                pstmt.setDate(3, new java.sql.Date(posseder.getDateDebutPropriete().getTime()));
+                
+                if (posseder.getDateFinPropriete() != null) {
+                    pstmt.setDate(4, new java.sql.Date(posseder.getDateFinPropriete().getTime()));
+                } else {
+                    pstmt.setNull(4, Types.DATE);
+                }
+                
+                int affectedRows = pstmt.executeUpdate();
+                
+                if (affectedRows == 0) {
+                    conn.rollback();
+                    LOGGER.log(Level.WARNING, "Échec de l'ajout de la relation POSSEDER, aucune ligne affectée");
+                    return false;
+                }
+                
+                CurrentOwnerProjection.actualiser(conn, posseder.getIdVehicule());
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
+            LookupCaches.invalidatePossessions(posseder.getIdVehicule());
             LOGGER.log(Level.INFO, "Relation POSSEDER ajoutée avec succès: {0}-{1}", 
                     new Object[]{posseder.getIdProprietaire(), posseder.getIdVehicule()});
             return true;
@@ -158,6 +489,117 @@ public class PossederController {
         }
     }
 
+    /**
+     * Ajoute un lot de relations POSSEDER en une seule transaction.
+     * Les relations déjà présentes sont recherchées en une requête par paquet de véhicules,
+     * puis les lignes retenues sont insérées par executeBatch. En cas d'erreur SQL, toute la
+     * transaction est annulée.
+     * 
+     * @param possessions Relations à ajouter (propriétaire et véhicule désignés par leur identifiant)
+     * @return Un résultat par relation, dans l'ordre du lot
+     */
+    public List<ResultatInsertion> addPossessions(List<Posseder> possessions) {
+        ResultatInsertion[] resultats = new ResultatInsertion[possessions.size()];
+        Set<Integer> vehicules = new HashSet<>();
+        for (int i = 0; i < possessions.size(); i++) {
+            Posseder p = possessions.get(i);
+            if (p.getIdProprietaire() <= 0 || p.getIdVehicule() <= 0 || p.getDateDebutPropriete() == null
+                    || (p.getDateFinPropriete() != null && p.getDateFinPropriete().before(p.getDateDebutPropriete()))) {
+                resultats[i] = new ResultatInsertion(i, Statut.INVALIDE, -1);
+            } else {
+                vehicules.add(p.getIdVehicule());
+            }
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Set<Long> existants = findCles(conn, vehicules);
+            List<Integer> aInserer = new ArrayList<>();
+            for (int i = 0; i < possessions.size(); i++) {
+                if (resultats[i] != null) {
+                    continue;
+                }
+                Posseder p = possessions.get(i);
+                if (!existants.add(cle(p.getIdProprietaire(), p.getIdVehicule()))) {
+                    resultats[i] = new ResultatInsertion(i, Statut.DOUBLON, -1);
+                } else {
+                    aInserer.add(i);
+                }
+            }
+
+            if (!aInserer.isEmpty()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try (PreparedStatement pstmt = conn.prepareStatement(INSERT_QUERY)) {
+                    for (List<Integer> paquet : BatchSupport.paquets(aInserer)) {
+                        for (int rang : paquet) {
+                            Posseder p = possessions.get(rang);
+                            pstmt.setInt(1, p.getIdProprietaire());
+                            pstmt.setInt(2, p.getIdVehicule());
+                            pstmt.setDate(3, new java.sql.Date(p.getDateDebutPropriete().getTime()));
+                            if (p.getDateFinPropriete() != null) {
+                                pstmt.setDate(4, new java.sql.Date(p.getDateFinPropriete().getTime()));
+                            } else {
+                                pstmt.setNull(4, Types.DATE);
+                            }
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                        for (int rang : paquet) {
+                            resultats[rang] = new ResultatInsertion(rang, Statut.INSERE, -1);
+                        }
+                    }
+                    Set<Integer> vehiculesModifies = new HashSet<>();
+                    for (int rang : aInserer) {
+                        vehiculesModifies.add(possessions.get(rang).getIdVehicule());
+                    }
+                    CurrentOwnerProjection.actualiser(conn, vehiculesModifies);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+                for (int rang : aInserer) {
+                    LookupCaches.invalidatePossessions(possessions.get(rang).getIdVehicule());
+                }
+            }
+            LOGGER.log(Level.INFO, "{0} relations POSSEDER ajoutées en lot", aInserer.size());
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de l'ajout d'un lot de relations POSSEDER, transaction annulée", e);
+            for (int i = 0; i < resultats.length; i++) {
+                if (resultats[i] == null || resultats[i].isInsere()) {
+                    resultats[i] = new ResultatInsertion(i, Statut.ERREUR, -1);
+                }
+            }
+        }
+        return Arrays.asList(resultats);
+    }
+
+    // Clés (propriétaire, véhicule) des relations existantes pour les véhicules donnés
+    private Set<Long> findCles(Connection conn, Set<Integer> vehicules) throws SQLException {
+        Set<Long> cles = new HashSet<>();
+        for (List<Integer> paquet : BatchSupport.paquets(vehicules)) {
+            String query = "SELECT id_proprietaire, id_vehicule FROM POSSEDER WHERE id_vehicule IN ("
+                    + BatchSupport.placeholders(paquet.size()) + ")";
+            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                for (int i = 0; i < paquet.size(); i++) {
+                    pstmt.setInt(i + 1, paquet.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        cles.add(cle(rs.getInt("id_proprietaire"), rs.getInt("id_vehicule")));
+                    }
+                }
+            }
+        }
+        return cles;
+    }
+
+    private static long cle(int idProprietaire, int idVehicule) {
+        return ((long) idProprietaire << 32) | (idVehicule & 0xFFFFFFFFL);
+    }
+
     /**
      * Met à jour une relation POSSEDER existante dans la base de données.
      * 
@@ -171,27 +613,39 @@ public class PossederController {
             throw new IllegalArgumentException("L'objet Posseder ou sa date de début ne peut pas être null");
         }
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(UPDATE_QUERY)) {
-            
-            pstmt.setDate(1, new java.sql.Date(posseder.getDateDebutPropriete().getTime()));
-            
-            if (posseder.getDateFinPropriete() != null) {
-                pstmt.setDate(2, new java.sql.Date(posseder.getDateFinPropriete().getTime()));
-            } else {
-                pstmt.setNull(2, Types.DATE);
-            }
-            
-            pstmt.setInt(3, posseder.getIdProprietaire());
-            pstmt.setInt(4, posseder.getIdVehicule());
-            
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                LOGGER.log(Level.WARNING, "Échec de la mise à jour de la relation POSSEDER, aucune ligne affectée");
-                return false;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_QUERY)) {
+                
+                pstmt.setDate(1, new java.sql.Date(posseder.getDateDebutPropriete().getTime()));
+                
+                if (posseder.getDateFinPropriete() != null) {
+                    pstmt.setDate(2, new java.sql.Date(posseder.getDateFinPropriete().getTime()));
+                } else {
+                    pstmt.setNull(2, Types.DATE);
+                }
+                
+                pstmt.setInt(3, posseder.getIdProprietaire());
+                pstmt.setInt(4, posseder.getIdVehicule());
+                
+                int affectedRows = pstmt.executeUpdate();
+                
+                if (affectedRows == 0) {
+                    conn.rollback();
+                    LOGGER.log(Level.WARNING, "Échec de la mise à jour de la relation POSSEDER, aucune ligne affectée");
+                    return false;
+                }
+                
+                CurrentOwnerProjection.actualiser(conn, posseder.getIdVehicule());
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
+            LookupCaches.invalidatePossessions(posseder.getIdVehicule());
             LOGGER.log(Level.INFO, "Relation POSSEDER mise à jour avec succès: {0}-{1}", 
                     new Object[]{posseder.getIdProprietaire(), posseder.getIdVehicule()});
             return true;
@@ -201,6 +655,131 @@ public class PossederController {
         }
     }
 
+    /**
+     * Modifie une relation POSSEDER, y compris son propriétaire ou son véhicule, en une seule
+     * instruction UPDATE : la relation n'est jamais absente de la base, même en cas d'échec.
+     * 
+     * @param idProprietaire L'identifiant actuel du propriétaire
+     * @param idVehicule L'identifiant actuel du véhicule
+     * @param posseder Les nouvelles valeurs de la relation
+     * @return true si la relation a été modifiée, false si elle n'existe pas
+     */
+    public boolean updatePosseder(int idProprietaire, int idVehicule, Posseder posseder) {
+        if (posseder == null || posseder.getDateDebutPropriete() == null) {
+            LOGGER.log(Level.WARNING, "Tentative de modification avec un objet Posseder invalide");
+            throw new IllegalArgumentException("L'objet Posseder ou sa date de début ne peut pas être null");
+        }
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean modifie;
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_CLE_QUERY)) {
+                
+                pstmt.setInt(1, posseder.getIdProprietaire());
+                pstmt.setInt(2, posseder.getIdVehicule());
+                pstmt.setDate(3, new java.sql.Date(posseder.getDateDebutPropriete().getTime()));
+                if (posseder.getDateFinPropriete() != null) {
+                    pstmt.setDate(4, new java.sql.Date(posseder.getDateFinPropriete().getTime()));
+                } else {
+                    pstmt.setNull(4, Types.DATE);
+                }
+                pstmt.setInt(5, idProprietaire);
+                pstmt.setInt(6, idVehicule);
+                
+                modifie = pstmt.executeUpdate() > 0;
+                if (modifie) {
+                    // La relation a pu changer de véhicule : l'ancien et le nouveau sont recalculés
+                    CurrentOwnerProjection.actualiser(conn, new HashSet<>(Arrays.asList(idVehicule, posseder.getIdVehicule())));
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+            if (modifie) {
+                LookupCaches.invalidatePossessions(idVehicule);
+                LookupCaches.invalidatePossessions(posseder.getIdVehicule());
+            } else {
+                LOGGER.log(Level.WARNING, "Relation POSSEDER non trouvée pour la modification: {0}-{1}",
+                        new Object[]{idProprietaire, idVehicule});
+            }
+            return modifie;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la modification d'une relation POSSEDER", e);
+            throw new RuntimeException("Impossible de modifier la relation de possession", e);
+        }
+    }
+
+    /**
+     * Transfère un véhicule de son propriétaire actuel à un acheteur, en une seule transaction :
+     * la propriété du vendeur est close à la date de vente et celle de l'acheteur ouverte à la même
+     * date. Si l'une des deux opérations échoue, aucune n'est appliquée.
+     * 
+     * @param idVehicule L'identifiant du véhicule vendu
+     * @param idVendeur L'identifiant du propriétaire actuel
+     * @param idAcheteur L'identifiant du nouveau propriétaire
+     * @param dateVente La date de la vente
+     * @throws IllegalStateException Si le vendeur n'est pas propriétaire du véhicule à la date de vente, ou si
+     *                               l'acheteur a déjà possédé ce véhicule (le registre ne garde qu'une possession
+     *                               par propriétaire et véhicule)
+     */
+    public void transfererVehicule(int idVehicule, int idVendeur, int idAcheteur, java.util.Date dateVente) {
+        if (idVehicule <= 0 || idVendeur <= 0 || idAcheteur <= 0 || dateVente == null) {
+            throw new IllegalArgumentException("Le véhicule, le vendeur, l'acheteur et la date de vente sont obligatoires");
+        }
+        if (idVendeur == idAcheteur) {
+            throw new IllegalArgumentException("L'acheteur doit être différent du vendeur");
+        }
+        java.sql.Date date = new java.sql.Date(dateVente.getTime());
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement cloture = conn.prepareStatement(CLOTURE_QUERY);
+                 PreparedStatement ouverture = conn.prepareStatement(OUVERTURE_QUERY)) {
+                
+                cloture.setDate(1, date);
+                cloture.setInt(2, idVendeur);
+                cloture.setInt(3, idVehicule);
+                cloture.setDate(4, date);
+                cloture.setDate(5, date);
+                if (cloture.executeUpdate() == 0) {
+                    throw new IllegalStateException("Le vendeur n'est pas propriétaire de ce véhicule à la date de vente");
+                }
+                
+                ouverture.setInt(1, idAcheteur);
+                ouverture.setInt(2, idVehicule);
+                ouverture.setDate(3, date);
+                try {
+                    ouverture.executeUpdate();
+                } catch (SQLException e) {
+                    if (SqlErrors.isDuplicateKey(e)) {
+                        throw new IllegalStateException("L'acheteur a déjà possédé ce véhicule : "
+                                + "une seconde possession ne peut pas être enregistrée", e);
+                    }
+                    throw e;
+                }
+                
+                CurrentOwnerProjection.actualiser(conn, idVehicule);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+            LookupCaches.invalidatePossessions(idVehicule);
+            LOGGER.log(Level.INFO, "Véhicule {0} transféré du propriétaire {1} au propriétaire {2}",
+                    new Object[]{idVehicule, idVendeur, idAcheteur});
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors du transfert d'un véhicule, transaction annulée", e);
+            throw new RuntimeException("Impossible de transférer le véhicule", e);
+        }
+    }
+
     /**
      * Supprime une relation POSSEDER de la base de données.
      * 
@@ -216,20 +795,32 @@ public class PossederController {
             throw new IllegalArgumentException("Les identifiants doivent être positifs");
         }
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(DELETE_QUERY)) {
-            
-            pstmt.setInt(1, idProprietaire);
-            pstmt.setInt(2, idVehicule);
-            
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                LOGGER.log(Level.WARNING, "Relation POSSEDER non trouvée pour la suppression: {0}-{1}", 
-                        new Object[]{idProprietaire, idVehicule});
-                return false;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(DELETE_QUERY)) {
+                
+                pstmt.setInt(1, idProprietaire);
+                pstmt.setInt(2, idVehicule);
+                
+                int affectedRows = pstmt.executeUpdate();
+                
+                if (affectedRows == 0) {
+                    conn.rollback();
+                    LOGGER.log(Level.WARNING, "Relation POSSEDER non trouvée pour la suppression: {0}-{1}", 
+                            new Object[]{idProprietaire, idVehicule});
+                    return false;
+                }
+                
+                CurrentOwnerProjection.actualiser(conn, idVehicule);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
+            LookupCaches.invalidatePossessions(idVehicule);
             LOGGER.log(Level.INFO, "Relation POSSEDER supprimée avec succès: {0}-{1}", 
                     new Object[]{idProprietaire, idVehicule});
             return true;
@@ -239,6 +830,137 @@ public class PossederController {
         }
     }
 
+    /**
+     * Récupère le propriétaire actuel d'un véhicule par une lecture sur clé primaire de la projection
+     * CURRENT_OWNER, tenue à jour à chaque écriture sur POSSEDER et réconciliée chaque nuit.
+     * 
+     * @param idVehicule L'identifiant du véhicule
+     * @return L'identifiant du propriétaire actuel, ou -1 si le véhicule n'en a pas
+     */
+    public int getIdProprietaireActuel(int idVehicule) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(GET_PROPRIETAIRE_ACTUEL_QUERY)) {
+            
+            pstmt.setInt(1, idVehicule);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt("id_proprietaire") : -1;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération du propriétaire actuel", e);
+            throw new RuntimeException("Impossible de récupérer le propriétaire actuel", e);
+        }
+    }
+
+    /**
+     * Recherche le ou les propriétaires d'un véhicule à une date donnée. Le jour d'une vente, le véhicule
+     * appartient à l'acheteur. L'historique du véhicule est lu en base au premier appel puis gardé en cache
+     * jusqu'à la prochaine écriture sur ses possessions ; la recherche se fait ensuite en mémoire, en O(log n).
+     * 
+     * @param idVehicule L'identifiant du véhicule
+     * @param date La date recherchée
+     * @return Les possessions en cours à cette date (en principe une seule), par date de début
+     */
+    public List<Posseder> getPossessionsALaDate(int idVehicule, java.util.Date date) {
+        if (date == null) {
+            throw new IllegalArgumentException("La date ne peut pas être null");
+        }
+        HistoriquePossession historique = getHistorique(idVehicule);
+        return toPossessions(idVehicule, historique, historique.aLaDate(jour(date)));
+    }
+
+    /**
+     * Recherche les possessions d'un véhicule couvrant au moins un jour d'une période, comme
+     * {@link #getPossessionsALaDate} : en mémoire, après une première lecture de l'historique en base.
+     * 
+     * @param idVehicule L'identifiant du véhicule
+     * @param du Premier jour de la période
+     * @param au Dernier jour de la période (inclus)
+     * @return Les possessions qui chevauchent la période, par date de début
+     */
+    public List<Posseder> getPossessionsSurPeriode(int idVehicule, java.util.Date du, java.util.Date au) {
+        if (du == null || au == null) {
+            throw new IllegalArgumentException("Les dates de la période ne peuvent pas être null");
+        }
+        HistoriquePossession historique = getHistorique(idVehicule);
+        return toPossessions(idVehicule, historique, historique.surPeriode(jour(du), jour(au)));
+    }
+
+    /**
+     * Récupère toutes les possessions d'un véhicule, par date de début.
+     * 
+     * @param idVehicule L'identifiant du véhicule
+     * @return L'historique des possessions du véhicule (vide s'il n'en a aucune)
+     */
+    public List<Posseder> getHistoriqueVehicule(int idVehicule) {
+        HistoriquePossession historique = getHistorique(idVehicule);
+        int[] rangs = new int[historique.taille()];
+        for (int i = 0; i < rangs.length; i++) {
+            rangs[i] = i;
+        }
+        return toPossessions(idVehicule, historique, rangs);
+    }
+
+    private HistoriquePossession getHistorique(int idVehicule) {
+        if (idVehicule <= 0) {
+            LOGGER.log(Level.WARNING, "Recherche d'historique avec un ID de véhicule invalide: {0}", idVehicule);
+            throw new IllegalArgumentException("L'identifiant du véhicule doit être positif");
+        }
+        return LookupCaches.HISTORIQUE_PAR_VEHICULE.get(idVehicule, this::loadHistorique);
+    }
+
+    // Lecture en base de l'historique d'un véhicule, trié par date de début
+    private HistoriquePossession loadHistorique(int idVehicule) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(HISTORIQUE_QUERY)) {
+            
+            pstmt.setInt(1, idVehicule);
+            
+            int[] proprietaires = new int[4];
+            int[] debuts = new int[4];
+            int[] fins = new int[4];
+            int n = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (n == debuts.length) {
+                        proprietaires = Arrays.copyOf(proprietaires, n * 2);
+                        debuts = Arrays.copyOf(debuts, n * 2);
+                        fins = Arrays.copyOf(fins, n * 2);
+                    }
+                    Date fin = rs.getDate("date_fin_propriete");
+                    proprietaires[n] = rs.getInt("id_proprietaire");
+                    debuts[n] = (int) rs.getDate("date_debut_propriete").toLocalDate().toEpochDay();
+                    fins[n] = fin != null ? (int) fin.toLocalDate().toEpochDay() : HistoriquePossession.OUVERTE;
+                    n++;
+                }
+            }
+            return new HistoriquePossession(Arrays.copyOf(proprietaires, n), Arrays.copyOf(debuts, n),
+                    Arrays.copyOf(fins, n));
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la lecture de l'historique des possessions d'un véhicule", e);
+            throw new RuntimeException("Impossible de récupérer l'historique des possessions", e);
+        }
+    }
+
+    private List<Posseder> toPossessions(int idVehicule, HistoriquePossession historique, int[] rangs) {
+        List<Posseder> possederList = new ArrayList<>(rangs.length);
+        for (int rang : rangs) {
+            int fin = historique.fin(rang);
+            possederList.add(new Posseder(
+                historique.proprietaire(rang),
+                idVehicule,
+                Date.valueOf(LocalDate.ofEpochDay(historique.debut(rang))),
+                fin != HistoriquePossession.OUVERTE ? Date.valueOf(LocalDate.ofEpochDay(fin)) : null
+            ));
+        }
+        return possederList;
+    }
+
+    // Jour (epoch day) d'une date, dans le fuseau local comme à l'écriture en base
+    private static int jour(java.util.Date date) {
+        return (int) new Date(date.getTime()).toLocalDate().toEpochDay();
+    }
+
     /**
      * Récupère l'identifiant d'un propriétaire à partir de son nom.
      * 
@@ -251,17 +973,23 @@ public class PossederController {
             return -1;
         }
         
+        Integer id = LookupCaches.PROPRIETAIRE_ID_PAR_NOM.get(nomProprietaire.trim(), this::loadIdProprietaire);
+        return id != null ? id : -1;
+    }
+
+    // Lecture en base de l'identifiant d'un propriétaire (null si non trouvé)
+    private Integer loadIdProprietaire(String nomProprietaire) {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(GET_PROPRIETAIRE_ID_QUERY)) {
             
-            pstmt.setString(1, nomProprietaire.trim());
+            pstmt.setString(1, nomProprietaire);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     return rs.getInt("id_proprietaire");
                 } else {
                     LOGGER.log(Level.INFO, "Aucun propriétaire trouvé avec le nom: {0}", nomProprietaire);
-                    return -1;
+                    return null;
                 }
             }
         } catch (SQLException e) {
@@ -282,17 +1010,23 @@ public class PossederController {
             return -1;
         }
         
+        Integer id = LookupCaches.VEHICULE_ID_PAR_MODELE.get(nomModele.trim(), this::loadIdVehiculeParModele);
+        return id != null ? id : -1;
+    }
+
+    // Lecture en base de l'identifiant d'un véhicule du modèle (null si non trouvé)
+    private Integer loadIdVehiculeParModele(String nomModele) {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(GET_VEHICULE_ID_QUERY)) {
             
-            pstmt.setString(1, nomModele.trim());
+            pstmt.setString(1, nomModele);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     return rs.getInt("id_vehicule");
                 } else {
                     LOGGER.log(Level.INFO, "Aucun véhicule trouvé avec le modèle: {0}", nomModele);
-                    return -1;
+                    return null;
                 }
             }
         } catch (SQLException e) {
@@ -313,6 +1047,16 @@ public class PossederController {
             return "Inconnu";
         }
         
+        try {
+            String nom = LookupCaches.PROPRIETAIRE_NOM_PAR_ID.get(idProprietaire, this::loadNomProprietaire);
+            return nom != null ? nom : "Inconnu";
+        } catch (RuntimeException e) {
+            return "Erreur";
+        }
+    }
+
+    // Lecture en base du nom d'un propriétaire (null si non trouvé)
+    private String loadNomProprietaire(int idProprietaire) {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(GET_PROPRIETAIRE_NOM_QUERY)) {
             
@@ -323,12 +1067,12 @@ public class PossederController {
                     return rs.getString("nom");
                 } else {
                     LOGGER.log(Level.INFO, "Aucun propriétaire trouvé avec l'ID: {0}", idProprietaire);
-                    return "Inconnu";
+                    return null;
                 }
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de la récupération du nom du propriétaire", e);
-            return "Erreur";
+            throw new RuntimeException("Impossible de récupérer le nom du propriétaire", e);
         }
     }
 
@@ -344,6 +1088,16 @@ public class PossederController {
             return "Inconnu";
         }
         
+        try {
+            String nom = LookupCaches.MODELE_NOM_PAR_VEHICULE.get(idVehicule, this::loadNomModele);
+            return nom != null ? nom : "Inconnu";
+        } catch (RuntimeException e) {
+            return "Erreur";
+        }
+    }
+
+    // Lecture en base du nom du modèle d'un véhicule (null si non trouvé)
+    private String loadNomModele(int idVehicule) {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(GET_MODELE_NOM_QUERY)) {
             
@@ -354,12 +1108,12 @@ public class PossederController {
                     return rs.getString("nom_modele");
                 } else {
                     LOGGER.log(Level.INFO, "Aucun modèle trouvé pour le véhicule avec l'ID: {0}", idVehicule);
-                    return "Inconnu";
+                    return null;
                 }
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de la récupération du nom du modèle", e);
-            return "Erreur";
+            throw new RuntimeException("Impossible de récupérer le nom du modèle", e);
         }
     }
 
@@ -422,4 +1176,44 @@ public class PossederController {
             throw new RuntimeException("Impossible de récupérer la relation de possession", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Construit une projection à partir de la ligne courante d'un ResultSet joint.
+     */
+    private PossederDetail mapDetail(ResultSet rs) throws SQLException {
+        return new PossederDetail(
+            rs.getInt("id_proprietaire"),
+            rs.getString("nom"),
+            rs.getString("prenom"),
+            rs.getInt("id_vehicule"),
+            rs.getString("matricule"),
+            rs.getString("nom_modele"),
+            rs.getDate("date_debut_propriete"),
+            rs.getDate("date_fin_propriete")
+        );
+    }
+
+    /**
+     * Colonne SQL correspondant à un critère de tri.
+     */
+    private String sortColumn(PossederCritere.Tri tri) {
+        switch (tri) {
+            case MODELE:
+                return "m.nom_modele";
+            case DATE_DEBUT:
+                return "p.date_debut_propriete";
+            case DATE_FIN:
+                return "p.date_fin_propriete";
+            case NOM:
+            default:
+                return "pr.nom";
+        }
+    }
+
+    /**
+     * Neutralise les caractères spéciaux de LIKE dans une saisie utilisateur.
+     */
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
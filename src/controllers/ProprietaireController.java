@@ -2,11 +2,19 @@ package controllers;
 
 import database.DatabaseConnection;
 import models.Proprietaire;
+import models.ResultatInsertion;
+import models.ResultatInsertion.Statut;
 
 import javax.swing.*;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ProprietaireController {
 
@@ -32,18 +40,112 @@ public class ProprietaireController {
         return proprietaires;
     }
 
-    // Ajouter un propriétaire
-    public void addProprietaire(String nom, String prenom, String adresse, String cp, String ville) {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            // Vérifier les doublons
-            if (isDuplicate(conn, nom, prenom, adresse, cp, ville)) {
-                showAlert("Erreur", "Ce propriétaire existe déjà en base de données.");
-                return;
+    // Compter les propriétaires
+    public int countProprietaires() {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM PROPRIETAIRE")) {
+
+            if (rs.next()) {
+                return rs.getInt(1);
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    // Récupérer une fenêtre de propriétaires triés par identifiant
+    public List<Proprietaire> getProprietairesPage(int offset, int limit) {
+        return queryProprietaires("SELECT * FROM PROPRIETAIRE ORDER BY id_proprietaire LIMIT ? OFFSET ?", limit, offset);
+    }
+
+    // Pagination par clé : les propriétaires d'identifiant supérieur à lastIdProprietaire (0 pour commencer)
+    public List<Proprietaire> getProprietairesApres(int lastIdProprietaire, int pageSize) {
+        return queryProprietaires("SELECT * FROM PROPRIETAIRE WHERE id_proprietaire > ? ORDER BY id_proprietaire LIMIT ?",
+                lastIdProprietaire, pageSize);
+    }
+
+    // Rechercher les propriétaires dont le nom commence par un préfixe, triés par nom et prénom (index idx_proprietaire_nom_prenom)
+    public List<Proprietaire> searchProprietaires(String prefixeNom, int limite) {
+        List<Proprietaire> proprietaires = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT * FROM PROPRIETAIRE WHERE nom LIKE ? ORDER BY nom, prenom, id_proprietaire LIMIT ?")) {
+            ps.setString(1, prefixeNom.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+            ps.setInt(2, limite);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    proprietaires.add(mapProprietaire(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return proprietaires;
+    }
+
+    // Récupérer un propriétaire par son identifiant (null s'il n'existe pas)
+    public Proprietaire getProprietaireById(int idProprietaire) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT * FROM PROPRIETAIRE WHERE id_proprietaire = ?")) {
+            ps.setInt(1, idProprietaire);
 
-            // Insérer un nouveau propriétaire
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapProprietaire(rs);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private Proprietaire mapProprietaire(ResultSet rs) throws SQLException {
+        return new Proprietaire(
+                rs.getInt("id_proprietaire"),
+                rs.getString("nom"),
+                rs.getString("prenom"),
+                rs.getString("adresse"),
+                rs.getString("cp"),
+                rs.getString("ville"));
+    }
+
+    // Exécuter une requête de listing des propriétaires avec deux paramètres entiers
+    private List<Proprietaire> queryProprietaires(String query, int param1, int param2) {
+        List<Proprietaire> proprietaires = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setInt(1, param1);
+            ps.setInt(2, param2);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    proprietaires.add(new Proprietaire(
+                            rs.getInt("id_proprietaire"),
+                            rs.getString("nom"),
+                            rs.getString("prenom"),
+                            rs.getString("adresse"),
+                            rs.getString("cp"),
+                            rs.getString("ville")));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return proprietaires;
+    }
+
+    // Ajouter un propriétaire
+    // Retourne l'identifiant du propriétaire créé, ou -1 s'il n'a pas été ajouté
+    public int addProprietaire(String nom, String prenom, String adresse, String cp, String ville) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // Insérer un nouveau propriétaire (les doublons sont rejetés par la contrainte uk_proprietaire_identite)
             try (PreparedStatement ps = conn.prepareStatement(
-                    "INSERT INTO PROPRIETAIRE (nom, prenom, adresse, cp, ville) VALUES (?, ?, ?, ?, ?)")) {
+                    "INSERT INTO PROPRIETAIRE (nom, prenom, adresse, cp, ville) VALUES (?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
                 ps.setString(1, nom);
                 ps.setString(2, prenom);
                 ps.setString(3, adresse);
@@ -51,23 +153,187 @@ public class ProprietaireController {
                 ps.setString(5, ville);
                 ps.executeUpdate();
                 showAlert("Succès", "Le propriétaire '" + nom + " " + prenom + "' a été ajouté avec succès !");
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    return keys.next() ? keys.getInt(1) : -1;
+                }
             }
         } catch (SQLException e) {
+            if (SqlErrors.isDuplicateKey(e)) {
+                showAlert("Erreur", "Ce propriétaire existe déjà en base de données.");
+                return -1;
+            }
             e.printStackTrace();
             showAlert("Erreur", "Une erreur s'est produite lors de l'ajout du propriétaire.");
         }
+        return -1;
     }
 
-    // Mettre à jour un propriétaire
-    public void updateProprietaire(int idProprietaire, String nom, String prenom, String adresse, String cp, String ville) {
+    /**
+     * Enregistre un lot de propriétaires en une seule transaction, sans boîte de dialogue.
+     * Les doublons (même nom, prénom, adresse, code postal et ville) sont recherchés en une requête
+     * par paquet de noms, puis les lignes retenues sont insérées par executeBatch.
+     * En cas d'erreur SQL, toute la transaction est annulée.
+     *
+     * @return Un résultat par propriétaire, dans l'ordre du lot
+     */
+    public List<ResultatInsertion> addProprietaires(List<Proprietaire> proprietaires) {
+        ResultatInsertion[] resultats = new ResultatInsertion[proprietaires.size()];
+        Set<String> noms = new HashSet<>();
+        for (int i = 0; i < proprietaires.size(); i++) {
+            Proprietaire p = proprietaires.get(i);
+            if (BatchSupport.isBlank(p.getNom()) || BatchSupport.isBlank(p.getPrenom()) || BatchSupport.isBlank(p.getAdresse())
+                    || BatchSupport.isBlank(p.getCp()) || BatchSupport.isBlank(p.getVille())) {
+                resultats[i] = new ResultatInsertion(i, Statut.INVALIDE, -1);
+            } else {
+                noms.add(p.getNom());
+            }
+        }
+
         try (Connection conn = DatabaseConnection.getConnection()) {
-            // Vérifier les doublons
-            if (isDuplicate(conn, nom, prenom, adresse, cp, ville)) {
-                showAlert("Erreur", "Ce propriétaire existe déjà en base de données.");
-                return;
+            Set<List<String>> existants = findIdentites(conn, noms);
+            List<Integer> aInserer = new ArrayList<>();
+            for (int i = 0; i < proprietaires.size(); i++) {
+                if (resultats[i] != null) {
+                    continue;
+                }
+                // add() échoue si l'identité est déjà en base ou plus haut dans le lot
+                if (!existants.add(identite(proprietaires.get(i)))) {
+                    resultats[i] = new ResultatInsertion(i, Statut.DOUBLON, -1);
+                } else {
+                    aInserer.add(i);
+                }
+            }
+
+            if (!aInserer.isEmpty()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO PROPRIETAIRE (nom, prenom, adresse, cp, ville) VALUES (?, ?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    for (List<Integer> paquet : BatchSupport.paquets(aInserer)) {
+                        for (int rang : paquet) {
+                            Proprietaire p = proprietaires.get(rang);
+                            ps.setString(1, p.getNom());
+                            ps.setString(2, p.getPrenom());
+                            ps.setString(3, p.getAdresse());
+                            ps.setString(4, p.getCp());
+                            ps.setString(5, p.getVille());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                            for (int rang : paquet) {
+                                int id = keys.next() ? keys.getInt(1) : -1;
+                                resultats[rang] = new ResultatInsertion(rang, Statut.INSERE, id);
+                            }
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            for (int i = 0; i < resultats.length; i++) {
+                if (resultats[i] == null || resultats[i].isInsere()) {
+                    resultats[i] = new ResultatInsertion(i, Statut.ERREUR, -1);
+                }
+            }
+        }
+        return Arrays.asList(resultats);
+    }
+
+    /**
+     * Recherche des propriétaires par couple (nom, prénom), en une requête par paquet de noms.
+     * Si plusieurs propriétaires portent le même nom et prénom, le plus ancien l'emporte.
+     * Les noms et prénoms sont comparés sans tenir compte de la casse ni des accents, comme en base.
+     *
+     * @param nomsPrenoms Couples [nom, prénom] recherchés
+     * @return Les identifiants trouvés, par couple tel qu'il a été demandé ; les couples inconnus sont absents
+     */
+    public Map<List<String>, Integer> getIdsByNomPrenom(Collection<List<String>> nomsPrenoms) {
+        Map<List<String>, Integer> trouves = new HashMap<>();
+        Set<List<String>> recherches = new HashSet<>();
+        Set<String> noms = new HashSet<>();
+        for (List<String> nomPrenom : nomsPrenoms) {
+            recherches.add(identite(nomPrenom.get(0), nomPrenom.get(1)));
+            noms.add(nomPrenom.get(0));
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (List<String> paquet : BatchSupport.paquets(noms)) {
+                String query = "SELECT id_proprietaire, nom, prenom FROM PROPRIETAIRE WHERE nom IN ("
+                        + BatchSupport.placeholders(paquet.size()) + ") ORDER BY id_proprietaire";
+                try (PreparedStatement ps = conn.prepareStatement(query)) {
+                    for (int i = 0; i < paquet.size(); i++) {
+                        ps.setString(i + 1, paquet.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            List<String> nomPrenom = identite(rs.getString("nom"), rs.getString("prenom"));
+                            if (recherches.contains(nomPrenom)) {
+                                trouves.putIfAbsent(nomPrenom, rs.getInt("id_proprietaire"));
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        Map<List<String>, Integer> ids = new HashMap<>();
+        for (List<String> nomPrenom : nomsPrenoms) {
+            Integer id = trouves.get(identite(nomPrenom.get(0), nomPrenom.get(1)));
+            if (id != null) {
+                ids.put(nomPrenom, id);
             }
+        }
+        return ids;
+    }
+
+    // Identités complètes des propriétaires existants portant l'un des noms donnés
+    private Set<List<String>> findIdentites(Connection conn, Collection<String> noms) throws SQLException {
+        Set<List<String>> identites = new HashSet<>();
+        for (List<String> paquet : BatchSupport.paquets(noms)) {
+            String query = "SELECT nom, prenom, adresse, cp, ville FROM PROPRIETAIRE WHERE nom IN ("
+                    + BatchSupport.placeholders(paquet.size()) + ")";
+            try (PreparedStatement ps = conn.prepareStatement(query)) {
+                for (int i = 0; i < paquet.size(); i++) {
+                    ps.setString(i + 1, paquet.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        identites.add(identite(rs.getString("nom"), rs.getString("prenom"),
+                                rs.getString("adresse"), rs.getString("cp"), rs.getString("ville")));
+                    }
+                }
+            }
+        }
+        return identites;
+    }
+
+    private static List<String> identite(Proprietaire p) {
+        return identite(p.getNom(), p.getPrenom(), p.getAdresse(), p.getCp(), p.getVille());
+    }
 
-            // Mettre à jour le propriétaire
+    // Identité comparée sans tenir compte de la casse ni des accents, comme la collation sur laquelle repose
+    // la contrainte uk_proprietaire_identite (les rares équivalences propres à la collation, ß = ss par
+    // exemple, restent arbitrées par la contrainte)
+    private static List<String> identite(String... champs) {
+        List<String> identite = new ArrayList<>(champs.length);
+        for (String champ : champs) {
+            identite.add(BatchSupport.sansCasseNiAccents(champ));
+        }
+        return identite;
+    }
+
+    // Mettre à jour un propriétaire
+    public boolean updateProprietaire(int idProprietaire, String nom, String prenom, String adresse, String cp, String ville) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // Mettre à jour le propriétaire (les doublons sont rejetés par la contrainte uk_proprietaire_identite)
             try (PreparedStatement ps = conn.prepareStatement(
                     "UPDATE PROPRIETAIRE SET nom = ?, prenom = ?, adresse = ?, cp = ?, ville = ? WHERE id_proprietaire = ?")) {
                 ps.setString(1, nom);
@@ -77,21 +343,28 @@ public class ProprietaireController {
                 ps.setString(5, ville);
                 ps.setInt(6, idProprietaire);
                 ps.executeUpdate();
+                LookupCaches.invalidateProprietaires();
                 showAlert("Succès", "Le propriétaire a été mis à jour avec succès !");
+                return true;
             }
         } catch (SQLException e) {
+            if (SqlErrors.isDuplicateKey(e)) {
+                showAlert("Erreur", "Ce propriétaire existe déjà en base de données.");
+                return false;
+            }
             e.printStackTrace();
             showAlert("Erreur", "Une erreur s'est produite lors de la mise à jour du propriétaire.");
         }
+        return false;
     }
 
     // Supprimer un propriétaire
-    public void deleteProprietaire(int idProprietaire) {
+    public boolean deleteProprietaire(int idProprietaire) {
         try (Connection conn = DatabaseConnection.getConnection()) {
             String nomProprietaire = getProprietaireNameById(conn, idProprietaire);
             if (nomProprietaire == null) {
                 showAlert("Erreur", "Le propriétaire à supprimer n'existe pas.");
-                return;
+                return false;
             }
 
             int confirmation = showConfirmation("Confirmation de suppression",
@@ -102,7 +375,10 @@ public class ProprietaireController {
                         "DELETE FROM PROPRIETAIRE WHERE id_proprietaire = ?")) {
                     ps.setInt(1, idProprietaire);
                     ps.executeUpdate();
+                    LookupCaches.invalidateProprietaires();
+                    LookupCaches.invalidatePossessions();  // Possessions supprimées en cascade
                     showAlert("Succès", "Le propriétaire '" + nomProprietaire + "' a été supprimé avec succès !");
+                    return true;
                 }
             } else {
                 showAlert("Annulé", "La suppression a été annulée.");
@@ -111,26 +387,6 @@ public class ProprietaireController {
             e.printStackTrace();
             showAlert("Erreur", "Une erreur s'est produite lors de la suppression du propriétaire.");
         }
-    }
-
-    // Vérifie si un enregistrement est un doublon
-    private boolean isDuplicate(Connection conn, String nom, String prenom, String adresse, String cp, String ville) {
-        String query = "SELECT COUNT(*) FROM PROPRIETAIRE WHERE nom = ? AND prenom = ? AND adresse = ? AND cp = ? AND ville = ?";
-        try (PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, nom);
-            ps.setString(2, prenom);
-            ps.setString(3, adresse);
-            ps.setString(4, cp);
-            ps.setString(5, ville);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0; // Retourne true si un doublon existe
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
         return false;
     }
 
@@ -150,11 +406,11 @@ public class ProprietaireController {
 
     // Afficher une alerte
     private void showAlert(String title, String message) {
-        JOptionPane.showMessageDialog(null, message, title, JOptionPane.INFORMATION_MESSAGE);
+        Dialogues.information(title, message);
     }
 
     // Afficher une boîte de confirmation
     private int showConfirmation(String title, String message) {
-        return JOptionPane.showConfirmDialog(null, message, title, JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        return Dialogues.confirmation(title, message);
     }
 }
@@ -0,0 +1,29 @@
+package controllers;
+
+import java.sql.SQLException;
+
+/**
+ * Reconnaissance des erreurs SQL traitées par les contrôleurs.
+ */
+final class SqlErrors {
+    private static final String INTEGRITY_SQL_STATE = "23000";
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
+    private SqlErrors() {
+    }
+
+    /**
+     * @return true si l'erreur (ou l'une de ses causes) est une violation de contrainte d'unicité
+     */
+    static boolean isDuplicateKey(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                SQLException sql = (SQLException) t;
+                if (INTEGRITY_SQL_STATE.equals(sql.getSQLState()) && sql.getErrorCode() == MYSQL_DUPLICATE_ENTRY) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
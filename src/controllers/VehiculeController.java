@@ -1,18 +1,31 @@
 package controllers;
 
 import database.DatabaseConnection;
+import models.ResultatInsertion;
+import models.ResultatInsertion.Statut;
 import models.Vehicule;
 
-import javax.swing.JOptionPane; // Pour afficher des messages d'erreur sous forme de pop-up
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Contrôleur pour gérer les véhicules dans la base de données.
  */
 public class VehiculeController {
 
+    private static final String INSERT_QUERY =
+            "INSERT INTO VEHICULE (matricule, annee_sortie, poids, puissance_chevaux, puissance_fiscale, id_modele) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
     // Récupère tous les véhicules
     public List<Vehicule> getAllVehicules() {
         List<Vehicule> vehicules = new ArrayList<>();
@@ -36,27 +49,117 @@ public class VehiculeController {
         return vehicules;
     }
 
-    // Ajouter un véhicule
-    public void addVehicule(String matricule, int anneeSortie, double poids, int puissanceChevaux, int puissanceFiscale,
+    // Requête du listing joint avec le modèle et la marque
+    private static final String SELECT_DETAILS_QUERY =
+            "SELECT v.id_vehicule, v.matricule, v.annee_sortie, v.poids, v.puissance_chevaux, v.puissance_fiscale, " +
+            "v.id_modele, m.nom_modele, ma.nom_marque " +
+            "FROM VEHICULE v " +
+            "JOIN MODELE m ON m.id_modele = v.id_modele " +
+            "JOIN MARQUE ma ON ma.id_marque = m.id_marque";
+
+    /**
+     * Parcourt tous les véhicules joints avec leur modèle et leur marque, en une seule requête.
+     * Le ResultSet est ouvert en lecture seule, avance uniquement, avec une taille de fetch
+     * Integer.MIN_VALUE : le pilote MySQL transmet alors les lignes une par une au lieu de
+     * charger tout le résultat en mémoire.
+     *
+     * @param consumer Traitement appliqué à chaque véhicule, au fil de la lecture
+     */
+    public void forEachVehiculeDetaille(Consumer<Vehicule> consumer) {
+        try (Connection conn = DatabaseConnection.getConnection();
+                Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery(SELECT_DETAILS_QUERY)) {
+                while (rs.next()) {
+                    consumer.accept(mapVehiculeDetaille(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Récupère tous les véhicules avec le nom de leur modèle et de leur marque
+    public List<Vehicule> getAllVehiculesDetailles() {
+        List<Vehicule> vehicules = new ArrayList<>();
+        forEachVehiculeDetaille(vehicules::add);
+        return vehicules;
+    }
+
+    // Compte les véhicules
+    public int countVehicules() {
+        try (Connection conn = DatabaseConnection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM VEHICULE")) {
+
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    // Récupère une fenêtre de véhicules (avec modèle et marque) triés par identifiant
+    public List<Vehicule> getVehiculesDetaillesPage(int offset, int limit) {
+        return queryVehiculesDetailles(SELECT_DETAILS_QUERY + " ORDER BY v.id_vehicule LIMIT ? OFFSET ?", limit, offset);
+    }
+
+    // Pagination par clé : les véhicules (avec modèle et marque) d'identifiant supérieur à lastIdVehicule (0 pour commencer)
+    public List<Vehicule> getVehiculesDetaillesApres(int lastIdVehicule, int pageSize) {
+        return queryVehiculesDetailles(SELECT_DETAILS_QUERY + " WHERE v.id_vehicule > ? ORDER BY v.id_vehicule LIMIT ?",
+                lastIdVehicule, pageSize);
+    }
+
+    // Exécute une requête du listing joint avec deux paramètres entiers
+    private List<Vehicule> queryVehiculesDetailles(String query, int param1, int param2) {
+        List<Vehicule> vehicules = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(query)) {
+
+            ps.setInt(1, param1);
+            ps.setInt(2, param2);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    vehicules.add(mapVehiculeDetaille(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return vehicules;
+    }
+
+    // Construit un véhicule à partir d'une ligne du listing joint
+    private Vehicule mapVehiculeDetaille(ResultSet rs) throws SQLException {
+        return new Vehicule(
+                rs.getInt("id_vehicule"),
+                rs.getString("matricule"),
+                rs.getInt("annee_sortie"),
+                rs.getDouble("poids"),
+                rs.getInt("puissance_chevaux"),
+                rs.getInt("puissance_fiscale"),
+                rs.getInt("id_modele"),
+                rs.getString("nom_modele"),
+                rs.getString("nom_marque"));
+    }
+
+    // Ajouter un véhicule (retourne l'identifiant créé, ou -1 en cas d'échec)
+    public int addVehicule(String matricule, int anneeSortie, double poids, int puissanceChevaux, int puissanceFiscale,
             String nomModele) {
         int idModele = getModeleIdByName(nomModele);
 
         if (idModele == -1) {
-            JOptionPane.showMessageDialog(null, "Erreur : Modèle invalide.", "Erreur", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        if (existsVehicule(matricule)) {
-            JOptionPane.showMessageDialog(null, "Erreur : Un véhicule avec ce matricule existe déjà.", "Erreur",
-                    JOptionPane.ERROR_MESSAGE);
-            return;
+            Dialogues.erreur("Erreur : Modèle invalide.");
+            return -1;
         }
 
+        // L'unicité du matricule est garantie par la contrainte uk_vehicule_matricule
         try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement(
-                        "INSERT INTO VEHICULE (matricule, annee_sortie, poids, puissance_chevaux, puissance_fiscale, id_modele) "
-                                +
-                                "VALUES (?, ?, ?, ?, ?, ?)")) { // Ajout de l'id_marque dans l'insertion
+                PreparedStatement ps = conn.prepareStatement(INSERT_QUERY, Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setString(1, matricule);
             ps.setInt(2, anneeSortie);
@@ -66,19 +169,249 @@ public class VehiculeController {
             ps.setInt(6, idModele);
             ps.executeUpdate();
 
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    int idVehicule = keys.getInt(1);
+                    MatriculeIndex.ajouter(idVehicule, matricule);
+                    return idVehicule;
+                }
+            }
+
+        } catch (SQLException e) {
+            if (SqlErrors.isDuplicateKey(e)) {
+                Dialogues.erreur("Erreur : Un véhicule avec ce matricule existe déjà.");
+                return -1;
+            }
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Enregistre un lot de véhicules en une seule transaction.
+     * Les modèles sont résolus une fois par nom distinct et les matricules déjà en base sont recherchés
+     * en une requête par paquet, puis les lignes valides sont insérées par executeBatch.
+     * En cas d'erreur SQL, toute la transaction est annulée et aucune ligne n'est insérée.
+     *
+     * @param vehicules Véhicules à insérer ; le modèle est désigné par son identifiant (getIdModele) s'il est
+     *                  renseigné, sinon par son nom (getNomModele)
+     * @return Un résultat par véhicule, dans l'ordre du lot
+     */
+    public List<ResultatInsertion> addVehicules(List<Vehicule> vehicules) {
+        ResultatInsertion[] resultats = new ResultatInsertion[vehicules.size()];
+        Set<String> nomsModeles = new HashSet<>();
+        Set<String> matricules = new HashSet<>();
+        for (int i = 0; i < vehicules.size(); i++) {
+            Vehicule v = vehicules.get(i);
+            if (BatchSupport.isBlank(v.getMatricule()) || (v.getIdModele() <= 0 && BatchSupport.isBlank(v.getNomModele()))) {
+                resultats[i] = new ResultatInsertion(i, Statut.INVALIDE, -1);
+            } else {
+                if (v.getIdModele() <= 0) {
+                    nomsModeles.add(v.getNomModele());
+                }
+                matricules.add(v.getMatricule());
+            }
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Map<String, Integer> idsModeles = findModeleIds(conn, nomsModeles);
+            // Matricules comparés comme par uk_vehicule_matricule (casse et accents indifférents)
+            Set<String> existants = new HashSet<>();
+            for (String matricule : findIdsByMatricules(conn, matricules).keySet()) {
+                existants.add(MatriculeIndex.normaliser(matricule));
+            }
+
+            List<Integer> aInserer = new ArrayList<>();
+            int[] idsModele = new int[vehicules.size()];
+            Set<String> vus = new HashSet<>();
+            for (int i = 0; i < vehicules.size(); i++) {
+                if (resultats[i] != null) {
+                    continue;
+                }
+                Vehicule v = vehicules.get(i);
+                Integer idModele = v.getIdModele() > 0 ? Integer.valueOf(v.getIdModele()) : idsModeles.get(v.getNomModele());
+                if (idModele == null) {
+                    resultats[i] = new ResultatInsertion(i, Statut.MODELE_INCONNU, -1);
+                } else if (existants.contains(MatriculeIndex.normaliser(v.getMatricule()))) {
+                    resultats[i] = new ResultatInsertion(i, Statut.MATRICULE_EXISTANT, -1);
+                } else if (!vus.add(MatriculeIndex.normaliser(v.getMatricule()))) {
+                    resultats[i] = new ResultatInsertion(i, Statut.MATRICULE_EN_DOUBLE, -1);
+                } else {
+                    idsModele[i] = idModele;
+                    aInserer.add(i);
+                }
+            }
+
+            insertBatch(conn, vehicules, aInserer, idsModele, resultats);
+
         } catch (SQLException e) {
             e.printStackTrace();
+            // La transaction a été annulée : aucune des lignes retenues n'a été insérée
+            for (int i = 0; i < resultats.length; i++) {
+                if (resultats[i] == null || resultats[i].isInsere()) {
+                    resultats[i] = new ResultatInsertion(i, Statut.ERREUR, -1);
+                }
+            }
+        }
+        return Arrays.asList(resultats);
+    }
+
+    // Insère les lignes retenues par paquets, dans une transaction unique
+    private void insertBatch(Connection conn, List<Vehicule> vehicules, List<Integer> rangs, int[] idsModele,
+            ResultatInsertion[] resultats) throws SQLException {
+        if (rangs.isEmpty()) {
+            return;
+        }
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_QUERY, Statement.RETURN_GENERATED_KEYS)) {
+            for (List<Integer> paquet : BatchSupport.paquets(rangs)) {
+                for (int rang : paquet) {
+                    Vehicule v = vehicules.get(rang);
+                    ps.setString(1, v.getMatricule());
+                    ps.setInt(2, v.getAnneeSortie());
+                    ps.setDouble(3, v.getPoids());
+                    ps.setInt(4, v.getPuissanceChevaux());
+                    ps.setInt(5, v.getPuissanceFiscale());
+                    ps.setInt(6, idsModele[rang]);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                // Les clés générées sont renvoyées dans l'ordre des lignes du paquet
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (int rang : paquet) {
+                        int id = keys.next() ? keys.getInt(1) : -1;
+                        resultats[rang] = new ResultatInsertion(rang, Statut.INSERE, id);
+                    }
+                }
+            }
+            conn.commit();
+            for (int rang : rangs) {
+                if (resultats[rang].getId() > 0) {
+                    MatriculeIndex.ajouter(resultats[rang].getId(), vehicules.get(rang).getMatricule());
+                }
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
         }
     }
 
+    /**
+     * Résout un ensemble de noms de modèles en une requête par paquet.
+     *
+     * @return Les identifiants trouvés, par nom tel qu'il a été demandé ; les noms inconnus sont absents
+     */
+    public Map<String, Integer> getModeleIdsByNames(Collection<String> nomsModeles) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return findModeleIds(conn, nomsModeles);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new HashMap<>();
+    }
+
+    /**
+     * Recherche un ensemble de matricules en une requête par paquet.
+     *
+     * @return Les identifiants des véhicules trouvés, par matricule tel qu'il a été demandé ; les matricules
+     * inconnus sont absents
+     */
+    public Map<String, Integer> getIdsByMatricules(Collection<String> matricules) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return findIdsByMatricules(conn, matricules);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new HashMap<>();
+    }
+
+    /**
+     * Recherche un véhicule par matricule dans l'index en mémoire, ou en base tant que l'index n'est pas chargé.
+     *
+     * @return L'identifiant du véhicule, ou -1 s'il n'existe pas
+     */
+    public int getIdByMatricule(String matricule) {
+        int idVehicule = MatriculeIndex.chercher(matricule);
+        if (idVehicule != MatriculeIndex.INCONNU) {
+            return idVehicule;
+        }
+        Integer id = getIdsByMatricules(Collections.singletonList(matricule)).get(matricule);
+        return id != null ? id : -1;
+    }
+
+    // Vérifie l'existence d'un matricule sans requête SQL lorsque l'index est chargé
+    public boolean existsMatricule(String matricule) {
+        return getIdByMatricule(matricule) != -1;
+    }
+
+    // Le premier modèle d'un nom l'emporte, comme dans getModeleIdByName. Les noms sont comparés sans tenir
+    // compte de la casse ni des accents, comme en base, et les résultats rangés sous l'orthographe demandée
+    private Map<String, Integer> findModeleIds(Connection conn, Collection<String> noms) throws SQLException {
+        Map<String, Integer> trouves = new HashMap<>();
+        for (List<String> paquet : BatchSupport.paquets(noms)) {
+            String query = "SELECT id_modele, nom_modele FROM MODELE WHERE nom_modele IN ("
+                    + BatchSupport.placeholders(paquet.size()) + ") ORDER BY id_modele";
+            try (PreparedStatement ps = conn.prepareStatement(query)) {
+                for (int i = 0; i < paquet.size(); i++) {
+                    ps.setString(i + 1, paquet.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        trouves.putIfAbsent(BatchSupport.sansCasseNiAccents(rs.getString("nom_modele")),
+                                rs.getInt("id_modele"));
+                    }
+                }
+            }
+        }
+        Map<String, Integer> ids = new HashMap<>();
+        for (String nom : noms) {
+            Integer id = trouves.get(BatchSupport.sansCasseNiAccents(nom));
+            if (id != null) {
+                ids.put(nom, id);
+            }
+        }
+        return ids;
+    }
+
+    // Les résultats sont rangés sous l'orthographe demandée : la base compare les matricules sans tenir compte
+    // de la casse ni des accents et peut renvoyer « AB-123-CD » pour « ab-123-cd »
+    private Map<String, Integer> findIdsByMatricules(Connection conn, Collection<String> matricules) throws SQLException {
+        Map<String, Integer> trouves = new HashMap<>();
+        for (List<String> paquet : BatchSupport.paquets(matricules)) {
+            String query = "SELECT id_vehicule, matricule FROM VEHICULE WHERE matricule IN ("
+                    + BatchSupport.placeholders(paquet.size()) + ")";
+            try (PreparedStatement ps = conn.prepareStatement(query)) {
+                for (int i = 0; i < paquet.size(); i++) {
+                    ps.setString(i + 1, paquet.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        trouves.putIfAbsent(MatriculeIndex.normaliser(rs.getString("matricule")), rs.getInt("id_vehicule"));
+                    }
+                }
+            }
+        }
+        Map<String, Integer> ids = new HashMap<>();
+        for (String matricule : matricules) {
+            Integer id = trouves.get(MatriculeIndex.normaliser(matricule));
+            if (id != null) {
+                ids.put(matricule, id);
+            }
+        }
+        return ids;
+    }
+
     // Modifier un véhicule
-    public void updateVehicule(int idVehicule, String newMatricule, int anneeSortie, double poids, int puissanceChevaux,
+    public boolean updateVehicule(int idVehicule, String newMatricule, int anneeSortie, double poids, int puissanceChevaux,
             int puissanceFiscale, String nomModele) {
         int idModele = getModeleIdByName(nomModele);
         if (idModele == -1) {
-            JOptionPane.showMessageDialog(null, "Erreur : Le modèle '" + nomModele + "' n'existe pas.", "Erreur",
-                    JOptionPane.ERROR_MESSAGE);
-            return;
+            Dialogues.erreur("Erreur : Le modèle '" + nomModele + "' n'existe pas.");
+            return false;
         }
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -94,47 +427,68 @@ public class VehiculeController {
             ps.setInt(5, puissanceFiscale);
             ps.setInt(6, idModele);
             ps.setInt(7, idVehicule);
-            ps.executeUpdate();
+            boolean updated = ps.executeUpdate() > 0;
+            if (updated) {
+                LookupCaches.invalidateVehicules();
+                MatriculeIndex.ajouter(idVehicule, newMatricule);
+            }
+            return updated;
 
         } catch (SQLException e) {
+            if (SqlErrors.isDuplicateKey(e)) {
+                Dialogues.erreur("Erreur : Un véhicule avec ce matricule existe déjà.");
+                return false;
+            }
             e.printStackTrace();
         }
+        return false;
     }
 
     // Supprimer un véhicule
-    public void deleteVehicule(int idVehicule) {
+    public boolean deleteVehicule(int idVehicule) {
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement ps = conn.prepareStatement("DELETE FROM VEHICULE WHERE id_vehicule = ?")) {
 
             ps.setInt(1, idVehicule);
-            ps.executeUpdate();
+            boolean deleted = ps.executeUpdate() > 0;
+            if (deleted) {
+                LookupCaches.invalidateVehicules();
+                LookupCaches.invalidatePossessions(idVehicule);  // Possessions supprimées en cascade
+                MatriculeIndex.retirer(idVehicule);
+            }
+            return deleted;
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return false;
     }
 
-    // Vérifie si un véhicule existe déjà (par matricule)
-    private boolean existsVehicule(String matricule) {
+    // Récupère un véhicule avec le nom de son modèle et de sa marque (null s'il n'existe pas)
+    public Vehicule getVehiculeDetailleById(int idVehicule) {
         try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM VEHICULE WHERE matricule = ?")) {
+                PreparedStatement ps = conn.prepareStatement(SELECT_DETAILS_QUERY + " WHERE v.id_vehicule = ?")) {
 
-            ps.setString(1, matricule);
+            ps.setInt(1, idVehicule);
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                    return mapVehiculeDetaille(rs);
                 }
             }
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return false;
+        return null;
     }
 
     // Récupérer le nom d'un modèle à partir de son ID
     public String getModeleNameById(int idModele) {
+        return LookupCaches.MODELE_NOM_PAR_ID.get(idModele, this::loadModeleNameById);
+    }
+
+    private String loadModeleNameById(int idModele) {
         String query = "SELECT nom_modele FROM MODELE WHERE id_modele = ?";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement ps = conn.prepareStatement(query)) {
@@ -155,6 +509,11 @@ public class VehiculeController {
 
     // Récupérer l'ID d'un modèle à partir de son nom
     private int getModeleIdByName(String nomModele) {
+        Integer idModele = LookupCaches.MODELE_ID_PAR_NOM.get(nomModele, this::loadModeleIdByName);
+        return idModele != null ? idModele : -1;
+    }
+
+    private Integer loadModeleIdByName(String nomModele) {
         String query = "SELECT id_modele FROM MODELE WHERE nom_modele = ?";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement ps = conn.prepareStatement(query)) {
@@ -170,11 +529,16 @@ public class VehiculeController {
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return -1;
+        return null;
     }
 
     // Récupérer l'ID d'une marque à partir de son nom
     public int getMarqueIdByNom(String nomMarque) {
+        Integer idMarque = LookupCaches.MARQUE_ID_PAR_NOM.get(nomMarque, this::loadMarqueIdByNom);
+        return idMarque != null ? idMarque : -1;
+    }
+
+    private Integer loadMarqueIdByNom(String nomMarque) {
         String query = "SELECT id_marque FROM MARQUE WHERE nom_marque = ?";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement ps = conn.prepareStatement(query)) {
@@ -190,11 +554,15 @@ public class VehiculeController {
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return -1;
+        return null;
     }
 
     // Récupérer le nom de la marque à partir de l'ID du modèle
     public String getMarqueNameByModeleId(int idModele) {
+        return LookupCaches.MARQUE_NOM_PAR_MODELE.get(idModele, this::loadMarqueNameByModeleId);
+    }
+
+    private String loadMarqueNameByModeleId(int idModele) {
         String query = "SELECT MARQUE.nom_marque FROM MARQUE " +
                 "JOIN MODELE ON MARQUE.id_marque = MODELE.id_marque " +
                 "WHERE MODELE.id_modele = ?";
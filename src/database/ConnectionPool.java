@@ -0,0 +1,602 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool borné de connexions JDBC.
+ * Les connexions physiques sont ouvertes à la demande jusqu'à {@code maxSize}, conservées au repos
+ * puis fermées par un balayage périodique lorsqu'elles restent inutilisées au-delà de {@code idleTimeoutMs}
+ * (sans jamais descendre sous {@code minSize}). Chaque emprunt valide la connexion avant de la rendre.
+ * Les connexions rendues à l'appelant sont des proxys : {@code close()} les restitue au pool.
+ * <p>
+ * Chaque connexion physique garde aussi un cache LRU de requêtes préparées, indexé par le texte SQL
+ * (au plus {@code statementCacheSize} par connexion, 0 pour le désactiver) : {@code close()} sur une
+ * requête obtenue par {@code prepareStatement} la remet dans ce cache au lieu de la fermer, et l'appel
+ * suivant avec le même SQL sur la même connexion la réutilise sans nouvelle préparation.
+ * <p>
+ * Si un {@link QueryMetrics} est fourni, chaque exécution de requête (durée, lignes, erreurs) et chaque
+ * emprunt de connexion y sont mesurés.
+ */
+public class ConnectionPool {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long maxWaitMs;
+    private final int validationTimeoutSec;
+    private final int statementCacheSize;
+    private final QueryMetrics metrics;
+
+    // Connexions physiques au repos, la plus récemment rendue en tête
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private int totalConnections;
+    private boolean closed;
+
+    // Métriques d'attente
+    private long borrowCount;
+    private long waitCount;
+    private long timeoutCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    // Métriques du cache de requêtes préparées
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long idleTimeoutMs, long maxWaitMs, int validationTimeoutSec, int statementCacheSize,
+                          QueryMetrics metrics) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Taille de pool invalide : min=" + minSize + ", max=" + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Taille de cache de requêtes invalide : " + statementCacheSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxWaitMs = maxWaitMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.statementCacheSize = statementCacheSize;
+        this.metrics = metrics;
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, idleTimeoutMs / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Emprunte une connexion au pool, en attendant au plus {@code maxWaitMs} si le pool est saturé.
+     *
+     * @return Une connexion dont la méthode close() la restitue au pool
+     * @throws SQLException Si aucune connexion n'a pu être obtenue
+     */
+    public Connection borrow() throws SQLException {
+        if (metrics == null) {
+            return acquire();
+        }
+        long start = System.nanoTime();
+        try {
+            Connection conn = acquire();
+            metrics.recordAcquire(System.nanoTime() - start, false);
+            return conn;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordAcquire(0, true);
+            throw e;
+        }
+    }
+
+    private Connection acquire() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        boolean waited = false;
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+
+            synchronized (this) {
+                while (!closed && idle.isEmpty() && totalConnections >= maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount++;
+                        throw new SQLException("Délai d'attente dépassé pour obtenir une connexion (" + maxWaitMs + " ms)");
+                    }
+                    waited = true;
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Attente de connexion interrompue", e);
+                    }
+                }
+                if (closed) {
+                    throw new SQLException("Le pool de connexions est fermé");
+                }
+                if (!idle.isEmpty()) {
+                    candidate = idle.pollFirst();
+                } else {
+                    totalConnections++;
+                    create = true;
+                }
+            }
+
+            if (create) {
+                try {
+                    candidate = new PooledConnection(DriverManager.getConnection(url, user, password));
+                } catch (SQLException e) {
+                    discarded();
+                    throw e;
+                }
+            } else if (!isValid(candidate)) {
+                // Validation à l'emprunt : la connexion au repos a été coupée par le serveur
+                candidate.close();
+                discarded();
+                continue;
+            }
+
+            recordBorrow(System.nanoTime() - start, waited);
+            return candidate.lease();
+        }
+    }
+
+    /**
+     * Ferme toutes les connexions au repos et refuse les emprunts suivants.
+     */
+    public void shutdown() {
+        evictor.shutdownNow();
+        synchronized (this) {
+            closed = true;
+            for (PooledConnection pc : idle) {
+                pc.close();
+                totalConnections--;
+            }
+            idle.clear();
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return Un instantané des métriques du pool
+     */
+    public synchronized Stats getStats() {
+        return new Stats(totalConnections, idle.size(), borrowCount, waitCount, timeoutCount,
+                TimeUnit.NANOSECONDS.toMillis(totalWaitNanos), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos),
+                statementHits.get(), statementMisses.get(), statementEvictions.get());
+    }
+
+    private boolean isValid(PooledConnection pc) {
+        try {
+            return !pc.physical.isClosed() && pc.physical.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private synchronized void recordBorrow(long waitNanos, boolean waited) {
+        borrowCount++;
+        if (waited) {
+            waitCount++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        }
+    }
+
+    private synchronized void discarded() {
+        totalConnections--;
+        notifyAll();
+    }
+
+    private void release(PooledConnection pc) {
+        boolean reusable;
+        try {
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            reusable = !pc.physical.isClosed();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Connexion rendue dans un état invalide, elle est abandonnée", e);
+            reusable = false;
+        }
+
+        synchronized (this) {
+            if (reusable && !closed) {
+                pc.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pc);
+                notifyAll();
+                return;
+            }
+        }
+        pc.close();
+        discarded();
+    }
+
+    // Ferme les connexions restées trop longtemps au repos, dans la limite de minSize
+    private void evictIdle() {
+        long limit = System.currentTimeMillis() - idleTimeoutMs;
+        Deque<PooledConnection> toClose = new ArrayDeque<>();
+        synchronized (this) {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalConnections > minSize) {
+                PooledConnection pc = it.next();
+                if (pc.lastUsed < limit) {
+                    it.remove();
+                    totalConnections--;
+                    toClose.add(pc);
+                }
+            }
+        }
+        for (PooledConnection pc : toClose) {
+            pc.close();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Erreur lors de la fermeture d'une ressource JDBC", e);
+        }
+    }
+
+    // Clé de cache d'un appel à prepareStatement, ou null pour les variantes non mises en cache
+    private static String statementKey(Object[] args) {
+        if (args.length == 1) {
+            return (String) args[0];
+        }
+        if (args.length == 2 && args[1] instanceof Integer) {
+            // prepareStatement(sql, autoGeneratedKeys)
+            return args[1] + ":" + args[0];
+        }
+        return null;
+    }
+
+    /**
+     * Connexion physique gérée par le pool, avec son cache de requêtes préparées au repos.
+     * Le cache n'est manipulé que par le détenteur de la connexion, ou par le pool quand elle est au repos.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final Map<String, PreparedStatement> statements;
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= statementCacheSize) {
+                        return false;
+                    }
+                    statementEvictions.incrementAndGet();
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+        }
+
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease(this));
+        }
+
+        // Retire du cache une requête préparée au repos pour ce SQL, ou null
+        private PreparedStatement take(String key) throws SQLException {
+            PreparedStatement ps = statements.remove(key);
+            if (ps != null && ps.isClosed()) {
+                return null;
+            }
+            return ps;
+        }
+
+        // Remet une requête préparée au repos ; une requête identique déjà présente est fermée
+        private void giveBack(String key, PreparedStatement ps) {
+            PreparedStatement previous = statements.put(key, ps);
+            if (previous != null && previous != ps) {
+                closeQuietly(previous);
+            }
+        }
+
+        private void close() {
+            // Les requêtes préparées sont libérées par le serveur avec la connexion
+            statements.clear();
+            closeQuietly(physical);
+        }
+    }
+
+    /**
+     * Vue d'une connexion empruntée : close() restitue la connexion au lieu de la fermer.
+     */
+    private final class Lease implements InvocationHandler {
+        private PooledConnection target;
+
+        private Lease(PooledConnection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                PooledConnection pc = target;
+                target = null;
+                if (pc != null) {
+                    release(pc);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return target == null || target.physical.isClosed();
+            }
+            if (target == null) {
+                throw new SQLException("La connexion a déjà été rendue au pool");
+            }
+            if (name.equals("prepareStatement")) {
+                String key = statementCacheSize > 0 ? statementKey(args) : null;
+                if (key != null || metrics != null) {
+                    return prepare((Connection) proxy, key, method, args);
+                }
+            }
+            if (name.equals("createStatement") && metrics != null) {
+                Statement stmt = (Statement) invokePhysical(method, args);
+                return Proxy.newProxyInstance(
+                        Statement.class.getClassLoader(),
+                        new Class<?>[]{Statement.class},
+                        new TrackedStatement(this, target, null, null, null, stmt, (Connection) proxy));
+            }
+            return invokePhysical(method, args);
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // Requête préparée prise dans le cache si key n'est pas null, sinon préparée à chaque fois
+        private PreparedStatement prepare(Connection proxy, String key, Method method, Object[] args) throws Throwable {
+            PooledConnection pc = target;
+            PreparedStatement ps = null;
+            if (key != null) {
+                ps = pc.take(key);
+                if (ps != null) {
+                    statementHits.incrementAndGet();
+                } else {
+                    statementMisses.incrementAndGet();
+                }
+            }
+            if (ps == null) {
+                ps = (PreparedStatement) invokePhysical(method, args);
+            }
+            String sql = (String) args[0];
+            QueryMetrics.Query query = metrics != null ? metrics.query() : null;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new TrackedStatement(this, pc, key, sql, query, ps, proxy));
+        }
+    }
+
+    /**
+     * Vue d'une requête obtenue par la connexion empruntée. Les exécutions sont mesurées si le pool a des
+     * métriques. Pour une requête préparée issue du cache (key non null), close() la remet au repos sur sa
+     * connexion physique ; si la connexion a déjà été rendue au pool entre-temps, elle est réellement fermée.
+     */
+    private final class TrackedStatement implements InvocationHandler {
+        private final Lease lease;
+        private final PooledConnection owner;
+        private final String key;
+        private final String sql;
+        private final QueryMetrics.Query query;
+        private final Statement physical;
+        private final Connection connection;
+        private QueryMetrics.Query current;
+        private boolean closed;
+
+        private TrackedStatement(Lease lease, PooledConnection owner, String key, String sql, QueryMetrics.Query query,
+                                 Statement physical, Connection connection) {
+            this.lease = lease;
+            this.owner = owner;
+            this.key = key;
+            this.sql = sql;
+            this.query = query;
+            this.physical = physical;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (!closed) {
+                    closed = true;
+                    if (key != null) {
+                        recycle();
+                    } else {
+                        physical.close();
+                    }
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return closed || physical.isClosed();
+            }
+            if (name.equals("getConnection")) {
+                // Jamais la connexion physique : l'appelant ne doit pouvoir que la rendre
+                return connection;
+            }
+            if (closed) {
+                throw new SQLException("La requête a déjà été fermée");
+            }
+            if (metrics != null && name.startsWith("execute")) {
+                return execute(proxy, method, args);
+            }
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (name.equals("getResultSet") && result != null && current != null) {
+                return countRows((ResultSet) result, proxy, current);
+            }
+            return result;
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            String text = sql;
+            if (text == null) {
+                // Statement simple : le SQL est passé à l'exécution, sauf pour executeBatch()
+                text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : "(lot)";
+            }
+            QueryMetrics.Query q = query != null ? query : metrics.query();
+            current = q;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                q.failed();
+                throw e.getCause();
+            }
+            metrics.recordExecution(q, text, System.nanoTime() - start, rowCount(result));
+            if (result instanceof ResultSet) {
+                return countRows((ResultSet) result, proxy, q);
+            }
+            return result;
+        }
+
+        // Remet la requête dans l'état d'une requête neuve avant de la mettre au repos
+        private void recycle() {
+            PreparedStatement ps = (PreparedStatement) physical;
+            if (lease.target != owner) {
+                closeQuietly(ps);
+                return;
+            }
+            try {
+                ResultSet rs = ps.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                ps.clearParameters();
+                ps.clearBatch();
+                ps.clearWarnings();
+                ps.setFetchSize(0);
+                ps.setFetchDirection(ResultSet.FETCH_FORWARD);
+                ps.setMaxRows(0);
+                ps.setQueryTimeout(0);
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Requête préparée non réutilisable, elle est fermée", e);
+                closeQuietly(ps);
+                return;
+            }
+            owner.giveBack(key, ps);
+        }
+    }
+
+    // Lignes modifiées d'après le résultat d'une exécution (les lignes lues sont comptées par CountingResultSet)
+    private static long rowCount(Object result) {
+        if (result instanceof Number) {
+            return Math.max(((Number) result).longValue(), 0);
+        }
+        long rows = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+        }
+        return rows;
+    }
+
+    private static ResultSet countRows(ResultSet rs, Object statement, QueryMetrics.Query query) {
+        return new CountingResultSet(rs, (Statement) statement, query);
+    }
+
+    /**
+     * Instantané des métriques du pool.
+     */
+    public static final class Stats {
+        public final int total;
+        public final int idle;
+        public final long borrows;
+        public final long waits;
+        public final long timeouts;
+        public final long totalWaitMs;
+        public final long maxWaitMs;
+        public final long statementHits;
+        public final long statementMisses;
+        public final long statementEvictions;
+
+        Stats(int total, int idle, long borrows, long waits, long timeouts, long totalWaitMs, long maxWaitMs,
+              long statementHits, long statementMisses, long statementEvictions) {
+            this.total = total;
+            this.idle = idle;
+            this.borrows = borrows;
+            this.waits = waits;
+            this.timeouts = timeouts;
+            this.totalWaitMs = totalWaitMs;
+            this.maxWaitMs = maxWaitMs;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+            this.statementEvictions = statementEvictions;
+        }
+
+        /**
+         * @return La part des appels à prepareStatement servis par le cache (0 si aucun appel)
+         */
+        public double getStatementHitRatio() {
+            long requests = statementHits + statementMisses;
+            return requests == 0 ? 0.0 : (double) statementHits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Pool[total=" + total + ", idle=" + idle + ", emprunts=" + borrows + ", attentes=" + waits
+                    + ", timeouts=" + timeouts + ", attenteTotale=" + totalWaitMs + "ms, attenteMax=" + maxWaitMs + "ms"
+                    + ", cacheRequêtes=" + statementHits + "/" + (statementHits + statementMisses)
+                    + String.format(" (%.1f %%)", getStatementHitRatio() * 100) + ", évictions=" + statementEvictions + "]";
+        }
+    }
+}
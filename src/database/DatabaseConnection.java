@@ -1,33 +1,86 @@
 package database;
 
+import controllers.Dialogues;
+
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import javax.swing.JOptionPane;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/carte_grise";
-    private static final String USER = "root"; // Remplacer par votre utilisateur MySQL
-    private static final String PASSWORD = "root"; // Remplacer par votre mot de passe MySQL
+    private static final Logger LOGGER = Logger.getLogger(DatabaseConnection.class.getName());
+
+    // rewriteBatchedStatements : les lots d'INSERT (executeBatch) partent en une seule requête multi-lignes
+    // useServerPrepStmts : les requêtes sont préparées par le serveur, une fois par connexion grâce au cache du pool
+    // Surchargeables par propriétés système (-Dcartegrise.db.url=...), par exemple pour viser une base de mesure
+    private static final String URL = System.getProperty("cartegrise.db.url",
+            "jdbc:mysql://localhost:3306/carte_grise?rewriteBatchedStatements=true&useServerPrepStmts=true");
+    private static final String USER = System.getProperty("cartegrise.db.user", "root"); // Remplacer par votre utilisateur MySQL
+    private static final String PASSWORD = System.getProperty("cartegrise.db.password", "root"); // Remplacer par votre mot de passe MySQL
+
+    // Paramètres du pool, surchargeables par propriétés système (-Dcartegrise.pool.max=20 ...)
+    private static final int POOL_MIN = Integer.getInteger("cartegrise.pool.min", 1);
+    private static final int POOL_MAX = Integer.getInteger("cartegrise.pool.max", 10);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("cartegrise.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_MAX_WAIT_MS = Long.getLong("cartegrise.pool.maxWaitMs", 10_000L);
+    private static final int POOL_VALIDATION_TIMEOUT_S = Integer.getInteger("cartegrise.pool.validationTimeoutS", 2);
+    private static final int POOL_STATEMENT_CACHE_SIZE = Integer.getInteger("cartegrise.pool.statementCacheSize", 64);
+
+    // Seuil du journal des requêtes lentes (logger database.SlowQueries), modifiable aussi par JMX
+    private static final long SLOW_QUERY_MS = Long.getLong("cartegrise.metrics.slowQueryMs", 500L);
+
+    private static final QueryMetrics METRICS = new QueryMetrics(SLOW_QUERY_MS);
+    private static final ConnectionPool POOL;
 
     static {
         try {
             // Charger le driver MySQL
             Class.forName("com.mysql.cj.jdbc.Driver");
         } catch (ClassNotFoundException e) {
-            // Affichage d'une alerte en pop-up
-            JOptionPane.showMessageDialog(null, "Erreur : Le driver MySQL n'a pas pu être chargé.", "Erreur", JOptionPane.ERROR_MESSAGE);
+            // Affichage d'une alerte en pop-up (journalisée sans interface)
+            Dialogues.erreur("Erreur : Le driver MySQL n'a pas pu être chargé.");
             throw new RuntimeException("Driver MySQL introuvable.", e);
         }
+
+        POOL = new ConnectionPool(URL, USER, PASSWORD, POOL_MIN, POOL_MAX,
+                POOL_IDLE_TIMEOUT_MS, POOL_MAX_WAIT_MS, POOL_VALIDATION_TIMEOUT_S, POOL_STATEMENT_CACHE_SIZE, METRICS);
+        Runtime.getRuntime().addShutdownHook(new Thread(POOL::shutdown, "connection-pool-shutdown"));
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new DatabaseMonitor(POOL, METRICS),
+                    new ObjectName("carte_grise:type=Database"));
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Les mesures de la base ne sont pas exposées par JMX", e);
+        }
     }
 
+    /**
+     * Emprunte une connexion au pool. L'appelant doit la fermer (try-with-resources) pour la restituer.
+     */
     public static Connection getConnection() throws SQLException {
         try {
-            return DriverManager.getConnection(URL, USER, PASSWORD);
+            return POOL.borrow();
         } catch (SQLException e) {
-            // Affichage d'une alerte en pop-up
-            JOptionPane.showMessageDialog(null, "Erreur : Impossible de se connecter à la base de données.\nVérifiez vos identifiants ou l'état du serveur MySQL.", "Erreur", JOptionPane.ERROR_MESSAGE);
+            // Affichage d'une alerte en pop-up (journalisée sans interface)
+            Dialogues.erreur("Erreur : Impossible de se connecter à la base de données.\nVérifiez vos identifiants ou l'état du serveur MySQL.");
             throw e;
         }
     }
+
+    /**
+     * @return Les métriques courantes du pool de connexions et de son cache de requêtes préparées
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    /**
+     * @return Les mesures des requêtes exécutées au travers du pool
+     */
+    public static QueryMetrics getQueryMetrics() {
+        return METRICS;
+    }
 }
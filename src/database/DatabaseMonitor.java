@@ -0,0 +1,76 @@
+package database;
+
+import java.util.List;
+
+/**
+ * Implémentation JMX de {@link DatabaseMonitorMXBean}, à partir du pool et de ses mesures.
+ */
+public class DatabaseMonitor implements DatabaseMonitorMXBean {
+    private final ConnectionPool pool;
+    private final QueryMetrics metrics;
+
+    public DatabaseMonitor(ConnectionPool pool, QueryMetrics metrics) {
+        this.pool = pool;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<QueryMetrics.Snapshot> getQueries() {
+        return metrics.getQueries();
+    }
+
+    @Override
+    public QueryMetrics.Snapshot getConnectionAcquire() {
+        return metrics.getConnectionAcquire();
+    }
+
+    @Override
+    public int getConnectionsTotal() {
+        return pool.getStats().total;
+    }
+
+    @Override
+    public int getConnectionsIdle() {
+        return pool.getStats().idle;
+    }
+
+    @Override
+    public long getConnectionWaits() {
+        return pool.getStats().waits;
+    }
+
+    @Override
+    public long getConnectionTimeouts() {
+        return pool.getStats().timeouts;
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return pool.getStats().statementHits;
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return pool.getStats().statementMisses;
+    }
+
+    @Override
+    public double getStatementCacheHitRatio() {
+        return pool.getStats().getStatementHitRatio();
+    }
+
+    @Override
+    public long getSlowQueryThresholdMs() {
+        return metrics.getSlowQueryThresholdMs();
+    }
+
+    @Override
+    public void setSlowQueryThresholdMs(long slowQueryThresholdMs) {
+        metrics.setSlowQueryThresholdMs(slowQueryThresholdMs);
+    }
+
+    @Override
+    public void reset() {
+        metrics.reset();
+    }
+}
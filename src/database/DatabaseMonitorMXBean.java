@@ -0,0 +1,43 @@
+package database;
+
+import java.util.List;
+
+/**
+ * Mesures de l'accès à la base exposées par JMX sous le nom {@code carte_grise:type=Database}
+ * (consultables avec jconsole ou VisualVM).
+ */
+public interface DatabaseMonitorMXBean {
+
+    /**
+     * @return Les mesures de chaque requête nommée, de la plus coûteuse à la moins coûteuse
+     */
+    List<QueryMetrics.Snapshot> getQueries();
+
+    /**
+     * @return Les mesures du temps d'obtention d'une connexion
+     */
+    QueryMetrics.Snapshot getConnectionAcquire();
+
+    int getConnectionsTotal();
+
+    int getConnectionsIdle();
+
+    long getConnectionWaits();
+
+    long getConnectionTimeouts();
+
+    long getStatementCacheHits();
+
+    long getStatementCacheMisses();
+
+    double getStatementCacheHitRatio();
+
+    long getSlowQueryThresholdMs();
+
+    void setSlowQueryThresholdMs(long slowQueryThresholdMs);
+
+    /**
+     * Remet à zéro les mesures des requêtes.
+     */
+    void reset();
+}
@@ -0,0 +1,322 @@
+package database;
+
+import java.beans.ConstructorProperties;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Mesures des requêtes exécutées au travers du pool : latence (histogramme, centiles p50/p95/p99),
+ * nombre d'exécutions, d'erreurs et de lignes, par nom de requête, ainsi que le temps d'obtention
+ * d'une connexion.
+ * <p>
+ * Le nom d'une requête est celui de la méthode qui l'exécute, déterminé à chaque préparation ou exécution :
+ * la première méthode hors du pool, du JDK et du driver, puis, en remontant, la dernière méthode de la même
+ * classe (par exemple {@code VehiculeController.getModeleNameById} plutôt que le chargeur privé appelé par le
+ * cache, ou {@code ModeleController.getModelesAvecMarquePage} plutôt que la méthode commune qui exécute le
+ * SQL). Un même texte SQL exécuté par deux méthodes est donc mesuré deux fois. Les requêtes dont
+ * l'exécution dépasse le seuil {@code slowQueryThresholdMs} sont journalisées sur le logger
+ * {@code database.SlowQueries}.
+ */
+public class QueryMetrics {
+    private static final Logger SLOW_LOGGER = Logger.getLogger("database.SlowQueries");
+    private static final int MAX_SQL_LOGGED = 300;
+
+    private final Map<String, Query> byName = new ConcurrentHashMap<>();
+    private final Query acquire = new Query("acquisition-connexion");
+    private volatile long slowQueryThresholdNanos;
+
+    public QueryMetrics(long slowQueryThresholdMs) {
+        setSlowQueryThresholdMs(slowQueryThresholdMs);
+    }
+
+    public long getSlowQueryThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+    }
+
+    public void setSlowQueryThresholdMs(long slowQueryThresholdMs) {
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs);
+    }
+
+    /**
+     * @return Les mesures de la méthode appelante
+     */
+    Query query() {
+        return byName.computeIfAbsent(callerName(), Query::new);
+    }
+
+    void recordAcquire(long nanos, boolean failed) {
+        if (failed) {
+            acquire.errors.incrementAndGet();
+        } else {
+            acquire.record(nanos, 0);
+        }
+    }
+
+    void recordExecution(Query query, String sql, long nanos, long rows) {
+        query.record(nanos, rows);
+        if (nanos >= slowQueryThresholdNanos && SLOW_LOGGER.isLoggable(Level.WARNING)) {
+            String texte = sql.length() > MAX_SQL_LOGGED ? sql.substring(0, MAX_SQL_LOGGED) + "…" : sql;
+            SLOW_LOGGER.log(Level.WARNING, "Requête lente ({0} ms) {1} : {2}",
+                    new Object[]{TimeUnit.NANOSECONDS.toMillis(nanos), query.name, texte});
+        }
+    }
+
+    /**
+     * @return Les mesures de chaque requête, de la plus coûteuse (temps cumulé) à la moins coûteuse
+     */
+    public List<Snapshot> getQueries() {
+        List<Snapshot> snapshots = new ArrayList<>(byName.size());
+        for (Query query : byName.values()) {
+            snapshots.add(query.snapshot());
+        }
+        snapshots.sort(Comparator.comparingDouble(Snapshot::getTotalMs).reversed());
+        return snapshots;
+    }
+
+    /**
+     * @return Les mesures du temps d'obtention d'une connexion (les erreurs sont les échecs d'emprunt)
+     */
+    public Snapshot getConnectionAcquire() {
+        return acquire.snapshot();
+    }
+
+    /**
+     * Remet toutes les mesures à zéro (les noms de requêtes déjà résolus sont conservés).
+     */
+    public void reset() {
+        acquire.reset();
+        for (Query query : byName.values()) {
+            query.reset();
+        }
+    }
+
+    // Première méthode appelante hors du pool, du JDK et du driver, remontée jusqu'à la dernière méthode
+    // de la même classe ; les caches de recherche et les lambdas sont traversés
+    private static String callerName() {
+        return StackWalker.getInstance().walk(frames -> {
+            String className = null;
+            String methodName = null;
+            Iterator<StackWalker.StackFrame> it = frames.iterator();
+            while (it.hasNext()) {
+                StackWalker.StackFrame frame = it.next();
+                String name = frame.getClassName();
+                if (className == null) {
+                    if (!isInfrastructure(name)) {
+                        className = name;
+                        methodName = enclosingMethod(frame.getMethodName());
+                    }
+                } else if (name.equals(className)) {
+                    methodName = enclosingMethod(frame.getMethodName());
+                } else if (!isTransparent(name)) {
+                    break;
+                }
+            }
+            return className == null ? "inconnu"
+                    : className.substring(className.lastIndexOf('.') + 1) + "." + methodName;
+        });
+    }
+
+    private static boolean isInfrastructure(String className) {
+        return className.startsWith("database.ConnectionPool")
+                || className.startsWith("database.QueryMetrics")
+                || isTransparent(className)
+                || className.startsWith("com.mysql.");
+    }
+
+    // Cadres traversés entre une méthode et le chargeur qu'elle passe à un cache (ou le corps d'une lambda)
+    private static boolean isTransparent(String className) {
+        return className.startsWith("java.")
+                || className.startsWith("jdk.")
+                || className.startsWith("com.sun.")
+                || className.startsWith("controllers.LookupCache");
+    }
+
+    // lambda$getAllVehicules$0 -> getAllVehicules
+    private static String enclosingMethod(String methodName) {
+        if (!methodName.startsWith("lambda$")) {
+            return methodName;
+        }
+        int end = methodName.indexOf('$', 7);
+        return end > 7 ? methodName.substring(7, end) : methodName;
+    }
+
+    /**
+     * Mesures cumulées d'une requête nommée. Les mises à jour sont sans verrou.
+     */
+    static final class Query {
+        // Histogramme log-linéaire en microsecondes : 16 cases par puissance de 2 (précision ~6 %)
+        private static final int SUB_BITS = 4;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private static final int MAX_EXPONENT = 40; // ~12 jours
+        private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private Query(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, long rowCount) {
+            buckets.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(nanos)));
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (rowCount > 0) {
+                rows.addAndGet(rowCount);
+            }
+        }
+
+        void addRows(long rowCount) {
+            rows.addAndGet(rowCount);
+        }
+
+        void failed() {
+            errors.incrementAndGet();
+        }
+
+        private void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            errors.set(0);
+            rows.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+        }
+
+        private Snapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                n += counts[i];
+            }
+            // La borne haute d'une case peut dépasser le maximum réellement observé
+            double maxMs = maxNanos.get() / 1e6;
+            return new Snapshot(name, count.get(), errors.get(), rows.get(), totalNanos.get() / 1e6,
+                    Math.min(percentile(counts, n, 0.50), maxMs), Math.min(percentile(counts, n, 0.95), maxMs),
+                    Math.min(percentile(counts, n, 0.99), maxMs), maxMs);
+        }
+
+        private static int bucket(long micros) {
+            if (micros < SUB_COUNT) {
+                return (int) Math.max(micros, 0);
+            }
+            int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+            int sub = (int) ((micros >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1));
+            return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+        }
+
+        // Borne haute (en ms) de la case contenant le centile demandé
+        private static double percentile(long[] counts, long n, double p) {
+            if (n == 0) {
+                return 0.0;
+            }
+            long rank = (long) Math.ceil(p * n);
+            long cumulated = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulated += counts[i];
+                if (cumulated >= rank) {
+                    return upperBoundMicros(i) / 1000.0;
+                }
+            }
+            return upperBoundMicros(counts.length - 1) / 1000.0;
+        }
+
+        private static long upperBoundMicros(int bucket) {
+            if (bucket < SUB_COUNT) {
+                return bucket;
+            }
+            int shift = bucket / SUB_COUNT - 1;
+            long lower = (long) (SUB_COUNT + bucket % SUB_COUNT) << shift;
+            return lower + (1L << shift) - 1;
+        }
+    }
+
+    /**
+     * Instantané des mesures d'une requête, exposé tel quel par JMX.
+     */
+    public static final class Snapshot {
+        private final String name;
+        private final long count;
+        private final long errors;
+        private final long rows;
+        private final double totalMs;
+        private final double p50Ms;
+        private final double p95Ms;
+        private final double p99Ms;
+        private final double maxMs;
+
+        @ConstructorProperties({"name", "count", "errors", "rows", "totalMs", "p50Ms", "p95Ms", "p99Ms", "maxMs"})
+        public Snapshot(String name, long count, long errors, long rows, double totalMs,
+                        double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+            this.name = name;
+            this.count = count;
+            this.errors = errors;
+            this.rows = rows;
+            this.totalMs = totalMs;
+            this.p50Ms = p50Ms;
+            this.p95Ms = p95Ms;
+            this.p99Ms = p99Ms;
+            this.maxMs = maxMs;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public double getTotalMs() {
+            return totalMs;
+        }
+
+        public double getP50Ms() {
+            return p50Ms;
+        }
+
+        public double getP95Ms() {
+            return p95Ms;
+        }
+
+        public double getP99Ms() {
+            return p99Ms;
+        }
+
+        public double getMaxMs() {
+            return maxMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[n=%d, erreurs=%d, lignes=%d, total=%.1fms, p50=%.2fms, p95=%.2fms, p99=%.2fms, max=%.2fms]",
+                    name, count, errors, rows, totalMs, p50Ms, p95Ms, p99Ms, maxMs);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package database;
+
+import controllers.CurrentOwnerProjection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Migrations versionnées du schéma. La version 1 correspond au schéma de carte_grise.sql ;
+ * chaque migration suivante est appliquée une seule fois et enregistrée dans la table SCHEMA_VERSION.
+ * <p>
+ * Au démarrage, {@link #verifier()} applique les migrations manquantes (sauf si la propriété système
+ * {@code cartegrise.migrations.auto} vaut false) puis vérifie que la base est à la version attendue.
+ * Chaque étape vérifie d'abord dans information_schema si elle a déjà été faite, ou peut être rejouée
+ * sans effet (remplissage) : une migration interrompue peut donc être relancée (en MySQL, les instructions
+ * DDL ne sont pas transactionnelles).
+ */
+public final class SchemaMigrations {
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrations.class.getName());
+    private static final boolean AUTO = Boolean.parseBoolean(System.getProperty("cartegrise.migrations.auto", "true"));
+
+    private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS SCHEMA_VERSION (" +
+            "version INT PRIMARY KEY, " +
+            "description VARCHAR(255) NOT NULL, " +
+            "date_application TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    private enum Genre {
+        INDEX, COLONNE, TABLE,
+        DONNEES // Instruction rejouable, toujours exécutée
+    }
+
+    // Étape d'une migration : un index, une colonne ou une table, créé s'il n'existe pas encore
+    private static final class Etape {
+        final String table;
+        final String nom;
+        final Genre genre;
+        final String ddl;
+
+        Etape(String table, String nom, Genre genre, String ddl) {
+            this.table = table;
+            this.nom = nom;
+            this.genre = genre;
+            this.ddl = ddl;
+        }
+    }
+
+    private static final class Migration {
+        final int version;
+        final String description;
+        final List<Etape> etapes;
+
+        Migration(int version, String description, Etape... etapes) {
+            this.version = version;
+            this.description = description;
+            this.etapes = Arrays.asList(etapes);
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = Arrays.asList(
+            new Migration(2, "Index et contraintes d'unicité des recherches fréquentes",
+                    index("VEHICULE", "uk_vehicule_matricule",
+                            "ALTER TABLE VEHICULE ADD UNIQUE KEY uk_vehicule_matricule (matricule)"),
+                    index("MARQUE", "uk_marque_nom",
+                            "ALTER TABLE MARQUE ADD UNIQUE KEY uk_marque_nom (nom_marque)"),
+                    index("MODELE", "uk_modele_nom_marque",
+                            "ALTER TABLE MODELE ADD UNIQUE KEY uk_modele_nom_marque (nom_modele, id_marque)"),
+                    index("PROPRIETAIRE", "idx_proprietaire_nom_prenom",
+                            "ALTER TABLE PROPRIETAIRE ADD KEY idx_proprietaire_nom_prenom (nom, prenom)"),
+                    // L'identité complète dépasse la taille maximale d'une clé InnoDB : l'unicité porte sur
+                    // l'empreinte des clés de tri de la collation (WEIGHT_STRING), donc avec les mêmes égalités
+                    // que les comparaisons des colonnes (casse et accents indifférents) ; 0x0000 n'est jamais
+                    // un poids et sépare les champs sans ambiguïté
+                    new Etape("PROPRIETAIRE", "identite_hash", Genre.COLONNE,
+                            "ALTER TABLE PROPRIETAIRE ADD COLUMN identite_hash BINARY(32) AS " +
+                            "(UNHEX(SHA2(CONCAT(WEIGHT_STRING(nom), 0x0000, WEIGHT_STRING(prenom), 0x0000, " +
+                            "WEIGHT_STRING(adresse), 0x0000, WEIGHT_STRING(cp), 0x0000, WEIGHT_STRING(ville)), 256))) STORED"),
+                    index("PROPRIETAIRE", "uk_proprietaire_identite",
+                            "ALTER TABLE PROPRIETAIRE ADD UNIQUE KEY uk_proprietaire_identite (identite_hash)"),
+                    index("POSSEDER", "idx_posseder_vehicule_fin",
+                            "ALTER TABLE POSSEDER ADD KEY idx_posseder_vehicule_fin (id_vehicule, date_fin_propriete)")),
+            new Migration(3, "Projection CURRENT_OWNER des propriétaires actuels",
+                    new Etape("CURRENT_OWNER", "CURRENT_OWNER", Genre.TABLE,
+                            "CREATE TABLE CURRENT_OWNER (" +
+                            "id_vehicule INT PRIMARY KEY, " +
+                            "id_proprietaire INT NOT NULL, " +
+                            "since DATE NOT NULL, " +
+                            "KEY idx_current_owner_proprietaire (id_proprietaire), " +
+                            "FOREIGN KEY (id_vehicule) REFERENCES VEHICULE(id_vehicule) ON DELETE CASCADE, " +
+                            "FOREIGN KEY (id_proprietaire) REFERENCES PROPRIETAIRE(id_proprietaire) ON DELETE CASCADE)"),
+                    // Remplissage initial ; la suite est tenue à jour par controllers.CurrentOwnerProjection
+                    new Etape("CURRENT_OWNER", "remplissage", Genre.DONNEES,
+                            CurrentOwnerProjection.REMPLISSAGE_QUERY))
+    );
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * @return La version du schéma attendue par cette version de l'application
+     */
+    public static int versionAttendue() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * Applique les migrations manquantes si l'application automatique est activée, puis vérifie
+     * que la base est à la version attendue.
+     *
+     * @throws IllegalStateException Si des migrations restent à appliquer
+     * @throws SQLException          Si une migration échoue (par exemple à cause de doublons existants)
+     */
+    public static void verifier() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_VERSION_TABLE);
+            }
+            int version = versionCourante(conn);
+            List<Migration> manquantes = new ArrayList<>();
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version > version) {
+                    manquantes.add(migration);
+                }
+            }
+            if (manquantes.isEmpty()) {
+                return;
+            }
+            if (!AUTO) {
+                throw new IllegalStateException("Le schéma est en version " + version + ", version " + versionAttendue()
+                        + " attendue : appliquez les migrations manquantes.");
+            }
+            for (Migration migration : manquantes) {
+                appliquer(conn, migration);
+            }
+        }
+    }
+
+    private static void appliquer(Connection conn, Migration migration) throws SQLException {
+        LOGGER.log(Level.INFO, "Application de la migration {0} : {1}",
+                new Object[]{migration.version, migration.description});
+        for (Etape etape : migration.etapes) {
+            if (existe(conn, etape)) {
+                continue;
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(etape.ddl);
+            } catch (SQLException e) {
+                throw new SQLException("Échec de la migration " + migration.version + " (" + etape.nom + ") : "
+                        + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO SCHEMA_VERSION (version, description) VALUES (?, ?)")) {
+            ps.setInt(1, migration.version);
+            ps.setString(2, migration.description);
+            ps.executeUpdate();
+        }
+    }
+
+    // Version la plus élevée enregistrée (1 pour une base créée avant l'introduction des migrations)
+    private static int versionCourante(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 1) FROM SCHEMA_VERSION")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static boolean existe(Connection conn, Etape etape) throws SQLException {
+        String query;
+        switch (etape.genre) {
+            case COLONNE:
+                query = "SELECT 1 FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+                break;
+            case INDEX:
+                query = "SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?";
+                break;
+            case TABLE:
+                query = "SELECT 1 FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+                break;
+            default:
+                return false;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setString(1, etape.table);
+            if (etape.genre != Genre.TABLE) {
+                ps.setString(2, etape.nom);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static Etape index(String table, String nom, String ddl) {
+        return new Etape(table, nom, Genre.INDEX, ddl);
+    }
+}
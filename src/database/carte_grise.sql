@@ -7,10 +7,24 @@ CREATE DATABASE carte_grise;
 -- Utiliser la base de données nouvellement créée
 USE carte_grise;
 
+-- Table SCHEMA_VERSION (migrations appliquées, voir database/SchemaMigrations.java)
+CREATE TABLE SCHEMA_VERSION (
+    version INT PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    date_application TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Ce script crée directement le schéma à jour
+INSERT INTO SCHEMA_VERSION (version, description) VALUES
+(1, 'Schéma initial'),
+(2, 'Index et contraintes d''unicité des recherches fréquentes'),
+(3, 'Projection CURRENT_OWNER des propriétaires actuels');
+
 -- Table MARQUE
 CREATE TABLE MARQUE (
     id_marque INT AUTO_INCREMENT PRIMARY KEY,
-    nom_marque VARCHAR(255) NOT NULL
+    nom_marque VARCHAR(255) NOT NULL,
+    UNIQUE KEY uk_marque_nom (nom_marque)
 );
 
 -- Table MODELE
@@ -18,6 +32,7 @@ CREATE TABLE MODELE (
     id_modele INT AUTO_INCREMENT PRIMARY KEY,
     nom_modele VARCHAR(255) NOT NULL,
     id_marque INT NOT NULL,
+    UNIQUE KEY uk_modele_nom_marque (nom_modele, id_marque),
     FOREIGN KEY (id_marque) REFERENCES MARQUE(id_marque) ON DELETE CASCADE
 );
 
@@ -28,7 +43,13 @@ CREATE TABLE PROPRIETAIRE (
     prenom VARCHAR(255) NOT NULL,
     adresse VARCHAR(255) NOT NULL,
     cp VARCHAR(10) NOT NULL,
-    ville VARCHAR(255) NOT NULL
+    ville VARCHAR(255) NOT NULL,
+    -- Empreinte de l'identité complète (trop longue pour une clé InnoDB), calculée sur les clés de tri de la
+    -- collation : mêmes égalités que les comparaisons des colonnes (casse et accents indifférents)
+    identite_hash BINARY(32) AS (UNHEX(SHA2(CONCAT(WEIGHT_STRING(nom), 0x0000, WEIGHT_STRING(prenom), 0x0000,
+        WEIGHT_STRING(adresse), 0x0000, WEIGHT_STRING(cp), 0x0000, WEIGHT_STRING(ville)), 256))) STORED,
+    KEY idx_proprietaire_nom_prenom (nom, prenom),
+    UNIQUE KEY uk_proprietaire_identite (identite_hash)
 );
 
 -- Table VEHICULE
@@ -40,6 +61,7 @@ CREATE TABLE VEHICULE (
     puissance_chevaux INT NOT NULL,
     puissance_fiscale INT NOT NULL,
     id_modele INT NOT NULL,
+    UNIQUE KEY uk_vehicule_matricule (matricule),
     FOREIGN KEY (id_modele) REFERENCES MODELE(id_modele) ON DELETE CASCADE
 );
 
@@ -50,6 +72,17 @@ CREATE TABLE POSSEDER (
     date_debut_propriete DATE NOT NULL,
     date_fin_propriete DATE,
     PRIMARY KEY (id_proprietaire, id_vehicule),
+    KEY idx_posseder_vehicule_fin (id_vehicule, date_fin_propriete),
     FOREIGN KEY (id_proprietaire) REFERENCES PROPRIETAIRE(id_proprietaire) ON DELETE CASCADE,
     FOREIGN KEY (id_vehicule) REFERENCES VEHICULE(id_vehicule) ON DELETE CASCADE
 );
+
+-- Table CURRENT_OWNER (propriétaire actuel de chaque véhicule, tenu à jour par l'application)
+CREATE TABLE CURRENT_OWNER (
+    id_vehicule INT PRIMARY KEY,
+    id_proprietaire INT NOT NULL,
+    since DATE NOT NULL,
+    KEY idx_current_owner_proprietaire (id_proprietaire),
+    FOREIGN KEY (id_vehicule) REFERENCES VEHICULE(id_vehicule) ON DELETE CASCADE,
+    FOREIGN KEY (id_proprietaire) REFERENCES PROPRIETAIRE(id_proprietaire) ON DELETE CASCADE
+);
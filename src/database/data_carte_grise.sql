@@ -2,6 +2,7 @@
 USE carte_grise;
 
 -- Suppression des données existantes dans les tables
+DELETE FROM CURRENT_OWNER;
 DELETE FROM POSSEDER;
 DELETE FROM VEHICULE;
 DELETE FROM PROPRIETAIRE;
@@ -43,3 +44,6 @@ INSERT INTO POSSEDER (id_proprietaire, id_vehicule, date_debut_propriete, date_f
 (1, 1, '2023-01-01', '2023-12-31'), -- John possède le véhicule 208
 (2, 2, '2023-01-01', NULL),         -- Jane possède le véhicule Clio
 (3, 3, '2023-06-01', NULL);         -- Alice possède le véhicule Yaris
+
+-- Les propriétaires actuels (CURRENT_OWNER) sont calculés par l'application : réconciliation au démarrage,
+-- ou java App --reconcilier (voir controllers/CurrentOwnerProjection.java)
@@ -0,0 +1,71 @@
+package exportation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Écriture de texte UTF-8 sur un canal NIO au travers d'un tampon d'octets unique :
+ * le texte est encodé directement dans le tampon, vidé sur le canal chaque fois qu'il est plein.
+ */
+class ChannelWriter implements AutoCloseable {
+    private static final int TAILLE_TAMPON = 256 * 1024;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+    private long octets;
+
+    ChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    void write(CharSequence texte) throws IOException {
+        CharBuffer source = CharBuffer.wrap(texte);
+        while (true) {
+            CoderResult resultat = encoder.encode(source, tampon, false);
+            if (resultat.isOverflow()) {
+                vider();
+            } else if (resultat.isUnderflow()) {
+                return;
+            } else {
+                resultat.throwException();
+            }
+        }
+    }
+
+    /**
+     * @return Nombre d'octets confiés au canal jusqu'ici (avant compression si le canal compresse)
+     */
+    long getOctets() {
+        return octets + tampon.position();
+    }
+
+    private void vider() throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            octets += channel.write(tampon);
+        }
+        tampon.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            CharBuffer vide = CharBuffer.allocate(0);
+            while (encoder.encode(vide, tampon, true).isOverflow()) {
+                vider();
+            }
+            while (encoder.flush(tampon).isOverflow()) {
+                vider();
+            }
+            vider();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package exportation;
+
+import controllers.PossederController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export du registre complet (une ligne par possession, avec propriétaire, véhicule, modèle et marque)
+ * en CSV ou en JSON, sans interface graphique.
+ * <p>
+ * Les lignes sont lues en flux depuis la base et écrites au fil de l'eau dans un tampon unique :
+ * la mémoire utilisée ne dépend pas de la taille du registre. La compression gzip est facultative.
+ * Le CSV utilise le séparateur ';' et les mêmes noms de colonnes que l'import, il peut donc être
+ * réimporté tel quel comme fichier de possessions.
+ */
+public class RegistreExport {
+    private static final Logger LOGGER = Logger.getLogger(RegistreExport.class.getName());
+    private static final char SEPARATEUR = ';';
+    private static final int TAILLE_TAMPON_GZIP = 64 * 1024;
+
+    /**
+     * Formats de sortie disponibles.
+     */
+    public enum Format {
+        CSV, JSON
+    }
+
+    private final Format format;
+    private final Path fichier;
+    private final boolean gzip;
+    private final PossederController possederController = new PossederController();
+
+    private long lignes;
+
+    public RegistreExport(Format format, Path fichier, boolean gzip) {
+        this.format = format;
+        this.fichier = fichier;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Point d'entrée : {@code RegistreExport <csv|json> <fichier> [--gzip]}.
+     * La compression est aussi activée si le nom du fichier se termine par ".gz".
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].equals("--gzip"))) {
+            System.err.println("Usage : --export <csv|json> <fichier> [--gzip]");
+            System.exit(2);
+        }
+        Format format;
+        try {
+            format = Format.valueOf(args[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Format inconnu : " + args[0]);
+            System.exit(2);
+            return;
+        }
+        boolean gzip = args.length == 3 || args[1].endsWith(".gz");
+        try {
+            new RegistreExport(format, Paths.get(args[1]), gzip).executer();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Échec de l'export vers " + args[1], e);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Exécute l'export et affiche un bilan (lignes, taille, débit).
+     */
+    public void executer() throws IOException {
+        long debut = System.nanoTime();
+        lignes = 0;
+        long octetsTexte;
+        try (ChannelWriter writer = new ChannelWriter(ouvrir())) {
+            StringBuilder ligne = new StringBuilder(512);
+            debuter(writer, ligne);
+            try {
+                possederController.forEachLigneRegistre(valeurs -> {
+                    ligne.setLength(0);
+                    if (format == Format.CSV) {
+                        ecrireCsv(ligne, valeurs);
+                    } else {
+                        ecrireJson(ligne, valeurs, lignes == 0);
+                    }
+                    try {
+                        writer.write(ligne);
+                    } catch (IOException e) {
+                        // Interrompt la lecture du ResultSet
+                        throw new UncheckedIOException(e);
+                    }
+                    lignes++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            terminer(writer);
+            // Texte produit, avant l'éventuelle compression
+            octetsTexte = writer.getOctets();
+        }
+        // Taille réelle du fichier, une fois le flux gzip terminé et le canal fermé
+        long octets = Files.size(fichier);
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        System.out.printf("Export terminé en %.1f s : %d lignes, %.1f Mo écrits%s (%.0f lignes/s)%n",
+                secondes, lignes, octets / 1e6,
+                gzip ? String.format(" après compression de %.1f Mo", octetsTexte / 1e6) : "",
+                lignes / Math.max(secondes, 1e-3));
+    }
+
+    public long getLignes() {
+        return lignes;
+    }
+
+    // Canal de sortie, éventuellement précédé d'un étage gzip
+    private WritableByteChannel ouvrir() throws IOException {
+        FileChannel channel = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (!gzip) {
+            return channel;
+        }
+        OutputStream compresse = new GZIPOutputStream(Channels.newOutputStream(channel), TAILLE_TAMPON_GZIP);
+        return Channels.newChannel(compresse);
+    }
+
+    private void debuter(ChannelWriter writer, StringBuilder ligne) throws IOException {
+        if (format == Format.CSV) {
+            String[] colonnes = PossederController.COLONNES_REGISTRE;
+            for (int i = 0; i < colonnes.length; i++) {
+                if (i > 0) {
+                    ligne.append(SEPARATEUR);
+                }
+                ligne.append(colonnes[i]);
+            }
+            writer.write(ligne.append('\n'));
+        } else {
+            writer.write("[");
+        }
+    }
+
+    private void terminer(ChannelWriter writer) throws IOException {
+        if (format == Format.JSON) {
+            writer.write(lignes == 0 ? "]\n" : "\n]\n");
+        }
+    }
+
+    private static void ecrireCsv(StringBuilder ligne, Object[] valeurs) {
+        for (int i = 0; i < valeurs.length; i++) {
+            if (i > 0) {
+                ligne.append(SEPARATEUR);
+            }
+            Object valeur = valeurs[i];
+            if (valeur instanceof String) {
+                String texte = (String) valeur;
+                if (texte.indexOf(SEPARATEUR) >= 0 || texte.indexOf('"') >= 0 || texte.indexOf('\n') >= 0
+                        || texte.indexOf('\r') >= 0) {
+                    ligne.append('"').append(texte.replace("\"", "\"\"")).append('"');
+                } else {
+                    ligne.append(texte);
+                }
+            } else if (valeur != null) {
+                ligne.append(valeur); // Nombres, et dates au format AAAA-MM-JJ
+            }
+        }
+        ligne.append('\n');
+    }
+
+    private static void ecrireJson(StringBuilder ligne, Object[] valeurs, boolean premiere) {
+        String[] colonnes = PossederController.COLONNES_REGISTRE;
+        ligne.append(premiere ? "\n{" : ",\n{");
+        for (int i = 0; i < valeurs.length; i++) {
+            if (i > 0) {
+                ligne.append(',');
+            }
+            ligne.append('"').append(colonnes[i]).append("\":");
+            Object valeur = valeurs[i];
+            if (valeur == null) {
+                ligne.append("null");
+            } else if (valeur instanceof Number) {
+                ligne.append(valeur);
+            } else {
+                echapperJson(ligne, valeur.toString());
+            }
+        }
+        ligne.append('}');
+    }
+
+    private static void echapperJson(StringBuilder ligne, String texte) {
+        ligne.append('"');
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            switch (c) {
+                case '"':
+                    ligne.append("\\\"");
+                    break;
+                case '\\':
+                    ligne.append("\\\\");
+                    break;
+                case '\n':
+                    ligne.append("\\n");
+                    break;
+                case '\r':
+                    ligne.append("\\r");
+                    break;
+                case '\t':
+                    ligne.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        ligne.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        ligne.append(c);
+                    }
+            }
+        }
+        ligne.append('"');
+    }
+}
@@ -0,0 +1,577 @@
+package importation;
+
+import controllers.PossederController;
+import controllers.ProprietaireController;
+import controllers.VehiculeController;
+import models.Posseder;
+import models.Proprietaire;
+import models.ResultatInsertion;
+import models.Vehicule;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Import en masse d'un fichier CSV, sans interface graphique.
+ * <p>
+ * Le fichier traverse trois étages reliés par des files bornées, ce qui limite la mémoire utilisée
+ * quelle que soit sa taille et fait travailler les étages en parallèle :
+ * <ol>
+ *     <li>un thread lit le fichier et le découpe en lots de lignes brutes ;</li>
+ *     <li>plusieurs threads valident les lignes et résolvent leurs clés étrangères (une requête par lot) ;</li>
+ *     <li>le thread appelant insère les lots par executeBatch, un lot par transaction.</li>
+ * </ol>
+ * Les lots sont insérés dans l'ordre où ils sont prêts, pas forcément dans l'ordre du fichier.
+ * La première ligne du fichier nomme les colonnes ; le séparateur (';' ou ',') est déduit de cette ligne.
+ * <p>
+ * Colonnes attendues :
+ * <ul>
+ *     <li>proprietaires : nom, prenom, adresse, cp, ville</li>
+ *     <li>vehicules : matricule, annee_sortie, poids, puissance_chevaux, puissance_fiscale, nom_modele</li>
+ *     <li>possessions : matricule, nom, prenom, date_debut_propriete, date_fin_propriete (facultative),
+ *     dates au format AAAA-MM-JJ ; le propriétaire est désigné par son nom et son prénom</li>
+ * </ul>
+ */
+public class CsvImport {
+    private static final Logger LOGGER = Logger.getLogger(CsvImport.class.getName());
+
+    private static final int TAILLE_LOT = 1000; // Lignes par lot (et par transaction)
+    private static final int CAPACITE_FILE = 4; // Lots en attente entre deux étages
+    private static final int MAX_REJETS_DETAILLES = 100; // Rejets journalisés individuellement
+    private static final long INTERVALLE_RAPPORT_S = 5;
+
+    /**
+     * Tables pouvant être alimentées par un import.
+     */
+    public enum Cible {
+        PROPRIETAIRES, VEHICULES, POSSESSIONS
+    }
+
+    // Lot de lignes avec, pour chacune, son numéro de ligne dans le fichier
+    private static final class Lot<T> {
+        static final Lot<?> FIN = new Lot<>(new ArrayList<>(), new long[0]);
+
+        final List<T> lignes;
+        final long[] numeros;
+
+        Lot(List<T> lignes, long[] numeros) {
+            this.lignes = lignes;
+            this.numeros = numeros;
+        }
+    }
+
+    private final Path fichier;
+    private final Format<?, ?> format;
+    private final int validateurs;
+
+    private final AtomicLong lues = new AtomicLong();
+    private final AtomicLong inserees = new AtomicLong();
+    private final AtomicLong rejetees = new AtomicLong();
+    private final Map<String, LongAdder> rejetsParMotif = new ConcurrentHashMap<>();
+    private final AtomicReference<Throwable> echec = new AtomicReference<>();
+
+    public CsvImport(Cible cible, Path fichier) {
+        this(cible, fichier, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public CsvImport(Cible cible, Path fichier, int validateurs) {
+        this.fichier = fichier;
+        this.validateurs = validateurs;
+        switch (cible) {
+            case PROPRIETAIRES:
+                this.format = new FormatProprietaires();
+                break;
+            case VEHICULES:
+                this.format = new FormatVehicules();
+                break;
+            default:
+                this.format = new FormatPossessions();
+                break;
+        }
+    }
+
+    /**
+     * Point d'entrée : {@code CsvImport <proprietaires|vehicules|possessions> <fichier.csv>}.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage : --import <proprietaires|vehicules|possessions> <fichier.csv>");
+            System.exit(2);
+        }
+        Cible cible;
+        try {
+            cible = Cible.valueOf(args[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Table inconnue : " + args[0]);
+            System.exit(2);
+            return;
+        }
+        CsvImport importation = new CsvImport(cible, Paths.get(args[1]));
+        try {
+            importation.executer();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Échec de l'import de " + args[1], e);
+            System.exit(1);
+        }
+        System.exit(importation.getRejetees() == 0 ? 0 : 3);
+    }
+
+    /**
+     * Exécute l'import et affiche le débit pendant son déroulement puis un bilan.
+     *
+     * @throws IOException Si le fichier ne peut pas être lu ou si son en-tête est invalide
+     */
+    public void executer() throws IOException {
+        BufferedReader reader = Files.newBufferedReader(fichier, StandardCharsets.UTF_8);
+        CsvReader csv;
+        Map<String, Integer> colonnes;
+        try {
+            csv = new CsvReader(reader, detecterSeparateur(reader));
+            colonnes = lireEntete(csv.next());
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+
+        BlockingQueue<Lot<String[]>> bruts = new ArrayBlockingQueue<>(CAPACITE_FILE);
+        BlockingQueue<Lot<?>> prets = new ArrayBlockingQueue<>(CAPACITE_FILE);
+
+        long debut = System.nanoTime();
+        ScheduledExecutorService rapport = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "import-rapport");
+            t.setDaemon(true);
+            return t;
+        });
+        rapport.scheduleAtFixedRate(() -> afficherProgression(debut), INTERVALLE_RAPPORT_S, INTERVALLE_RAPPORT_S,
+                TimeUnit.SECONDS);
+
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> lire(csv, bruts), "import-lecture"));
+        for (int i = 0; i < validateurs; i++) {
+            threads.add(new Thread(() -> valider(colonnes, bruts, prets), "import-validation-" + i));
+        }
+        threads.forEach(Thread::start);
+
+        try {
+            ecrire(prets);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            threads.forEach(Thread::interrupt);
+            throw new IllegalStateException("Import interrompu", e);
+        } finally {
+            rapport.shutdownNow();
+            csv.close();
+        }
+
+        afficherBilan(debut);
+        Throwable erreur = echec.get();
+        if (erreur instanceof IOException) {
+            throw (IOException) erreur;
+        } else if (erreur != null) {
+            throw new IllegalStateException("Import interrompu par une erreur", erreur);
+        }
+    }
+
+    public long getLignesLues() {
+        return lues.get();
+    }
+
+    public long getInserees() {
+        return inserees.get();
+    }
+
+    public long getRejetees() {
+        return rejetees.get();
+    }
+
+    // Étage 1 : lecture du fichier par lots de lignes brutes
+    private void lire(CsvReader csv, BlockingQueue<Lot<String[]>> bruts) {
+        try {
+            List<String[]> lignes = new ArrayList<>(TAILLE_LOT);
+            long[] numeros = new long[TAILLE_LOT];
+            String[] champs;
+            while (echec.get() == null && (champs = csv.next()) != null) {
+                numeros[lignes.size()] = csv.getLigne();
+                lignes.add(champs);
+                lues.incrementAndGet();
+                if (lignes.size() == TAILLE_LOT) {
+                    bruts.put(new Lot<>(lignes, numeros));
+                    lignes = new ArrayList<>(TAILLE_LOT);
+                    numeros = new long[TAILLE_LOT];
+                }
+            }
+            if (!lignes.isEmpty()) {
+                bruts.put(new Lot<>(lignes, Arrays.copyOf(numeros, lignes.size())));
+            }
+        } catch (IOException | RuntimeException e) {
+            echec.compareAndSet(null, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // Un marqueur de fin par thread de validation
+        try {
+            for (int i = 0; i < validateurs; i++) {
+                bruts.put(fin());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Étage 2 : validation des lignes et résolution des clés étrangères
+    private void valider(Map<String, Integer> colonnes, BlockingQueue<Lot<String[]>> bruts, BlockingQueue<Lot<?>> prets) {
+        try {
+            Lot<String[]> lot;
+            while ((lot = bruts.take()) != Lot.FIN) {
+                if (echec.get() == null) {
+                    prets.put(format.preparer(lot, colonnes));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            echec.compareAndSet(null, e);
+            // Vider la file pour ne pas bloquer le thread de lecture
+            bruts.clear();
+        }
+        try {
+            prets.put(Lot.FIN);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Étage 3 : insertion des lots prêts, jusqu'à réception de tous les marqueurs de fin
+    private void ecrire(BlockingQueue<Lot<?>> prets) throws InterruptedException {
+        int termines = 0;
+        while (termines < validateurs) {
+            Lot<?> lot = prets.take();
+            if (lot == Lot.FIN) {
+                termines++;
+            } else if (echec.get() == null) {
+                format.inserer(lot);
+            }
+        }
+    }
+
+    /**
+     * Conversion et insertion des lignes d'une table.
+     *
+     * @param <B> Ligne validée, clés étrangères désignées par nom
+     * @param <T> Ligne prête à insérer, clés étrangères résolues
+     */
+    private abstract class Format<B, T> {
+
+        // Colonnes obligatoires de l'en-tête
+        abstract String[] colonnes();
+
+        // Convertit une ligne brute ; IllegalArgumentException si elle est invalide
+        abstract B lire(String[] champs, Map<String, Integer> colonnes);
+
+        // Résout les clés étrangères d'un lot ; null pour une ligne dont une référence est inconnue
+        abstract List<T> resoudre(List<B> lignes);
+
+        abstract List<ResultatInsertion> insererLot(List<T> lignes);
+
+        Lot<T> preparer(Lot<String[]> lot, Map<String, Integer> colonnes) {
+            List<B> valides = new ArrayList<>(lot.lignes.size());
+            long[] numeros = new long[lot.lignes.size()];
+            for (int i = 0; i < lot.lignes.size(); i++) {
+                try {
+                    B ligne = lire(lot.lignes.get(i), colonnes);
+                    numeros[valides.size()] = lot.numeros[i];
+                    valides.add(ligne);
+                } catch (IllegalArgumentException e) {
+                    rejeter(lot.numeros[i], e.getMessage());
+                }
+            }
+
+            List<T> resolues = resoudre(valides);
+            List<T> prets = new ArrayList<>(resolues.size());
+            long[] numerosPrets = new long[resolues.size()];
+            for (int i = 0; i < resolues.size(); i++) {
+                if (resolues.get(i) == null) {
+                    rejeter(numeros[i], "référence inconnue");
+                } else {
+                    numerosPrets[prets.size()] = numeros[i];
+                    prets.add(resolues.get(i));
+                }
+            }
+            return new Lot<>(prets, Arrays.copyOf(numerosPrets, prets.size()));
+        }
+
+        @SuppressWarnings("unchecked")
+        void inserer(Lot<?> lot) {
+            if (lot.lignes.isEmpty()) {
+                return;
+            }
+            for (ResultatInsertion resultat : insererLot((List<T>) lot.lignes)) {
+                if (resultat.isInsere()) {
+                    inserees.incrementAndGet();
+                } else {
+                    rejeter(lot.numeros[resultat.getRang()], resultat.getStatut().name().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+    }
+
+    private final class FormatProprietaires extends Format<Proprietaire, Proprietaire> {
+        private final ProprietaireController controller = new ProprietaireController();
+
+        @Override
+        String[] colonnes() {
+            return new String[]{"nom", "prenom", "adresse", "cp", "ville"};
+        }
+
+        @Override
+        Proprietaire lire(String[] champs, Map<String, Integer> colonnes) {
+            return new Proprietaire(0, requis(champs, colonnes, "nom"), requis(champs, colonnes, "prenom"),
+                    requis(champs, colonnes, "adresse"), requis(champs, colonnes, "cp"), requis(champs, colonnes, "ville"));
+        }
+
+        @Override
+        List<Proprietaire> resoudre(List<Proprietaire> lignes) {
+            return lignes;
+        }
+
+        @Override
+        List<ResultatInsertion> insererLot(List<Proprietaire> lignes) {
+            return controller.addProprietaires(lignes);
+        }
+    }
+
+    private final class FormatVehicules extends Format<Vehicule, Vehicule> {
+        private final VehiculeController controller = new VehiculeController();
+
+        @Override
+        String[] colonnes() {
+            return new String[]{"matricule", "annee_sortie", "poids", "puissance_chevaux", "puissance_fiscale", "nom_modele"};
+        }
+
+        @Override
+        Vehicule lire(String[] champs, Map<String, Integer> colonnes) {
+            return new Vehicule(0, requis(champs, colonnes, "matricule"),
+                    entier(champs, colonnes, "annee_sortie"),
+                    decimal(champs, colonnes, "poids"),
+                    entier(champs, colonnes, "puissance_chevaux"),
+                    entier(champs, colonnes, "puissance_fiscale"),
+                    0, requis(champs, colonnes, "nom_modele"), null);
+        }
+
+        @Override
+        List<Vehicule> resoudre(List<Vehicule> lignes) {
+            Set<String> noms = new HashSet<>();
+            for (Vehicule v : lignes) {
+                noms.add(v.getNomModele());
+            }
+            Map<String, Integer> ids = controller.getModeleIdsByNames(noms);
+            List<Vehicule> resolus = new ArrayList<>(lignes.size());
+            for (Vehicule v : lignes) {
+                Integer idModele = ids.get(v.getNomModele());
+                if (idModele == null) {
+                    resolus.add(null);
+                } else {
+                    v.setIdModele(idModele);
+                    resolus.add(v);
+                }
+            }
+            return resolus;
+        }
+
+        @Override
+        List<ResultatInsertion> insererLot(List<Vehicule> lignes) {
+            return controller.addVehicules(lignes);
+        }
+    }
+
+    // Ligne de possession validée, avant résolution du véhicule et du propriétaire
+    private static final class LignePossession {
+        final String matricule;
+        final List<String> nomPrenom;
+        final java.sql.Date debut;
+        final java.sql.Date fin;
+
+        LignePossession(String matricule, List<String> nomPrenom, java.sql.Date debut, java.sql.Date fin) {
+            this.matricule = matricule;
+            this.nomPrenom = nomPrenom;
+            this.debut = debut;
+            this.fin = fin;
+        }
+    }
+
+    private final class FormatPossessions extends Format<LignePossession, Posseder> {
+        private final VehiculeController vehiculeController = new VehiculeController();
+        private final ProprietaireController proprietaireController = new ProprietaireController();
+        private final PossederController possederController = new PossederController();
+
+        @Override
+        String[] colonnes() {
+            return new String[]{"matricule", "nom", "prenom", "date_debut_propriete"};
+        }
+
+        @Override
+        LignePossession lire(String[] champs, Map<String, Integer> colonnes) {
+            java.sql.Date debut = date(requis(champs, colonnes, "date_debut_propriete"), "date_debut_propriete");
+            String finTexte = facultatif(champs, colonnes, "date_fin_propriete");
+            java.sql.Date fin = finTexte == null ? null : date(finTexte, "date_fin_propriete");
+            if (fin != null && fin.before(debut)) {
+                throw new IllegalArgumentException("date_fin_propriete antérieure à date_debut_propriete");
+            }
+            return new LignePossession(requis(champs, colonnes, "matricule"),
+                    Arrays.asList(requis(champs, colonnes, "nom"), requis(champs, colonnes, "prenom")), debut, fin);
+        }
+
+        @Override
+        List<Posseder> resoudre(List<LignePossession> lignes) {
+            Set<String> matricules = new HashSet<>();
+            Set<List<String>> nomsPrenoms = new HashSet<>();
+            for (LignePossession ligne : lignes) {
+                matricules.add(ligne.matricule);
+                nomsPrenoms.add(ligne.nomPrenom);
+            }
+            Map<String, Integer> vehicules = vehiculeController.getIdsByMatricules(matricules);
+            Map<List<String>, Integer> proprietaires = proprietaireController.getIdsByNomPrenom(nomsPrenoms);
+            List<Posseder> resolues = new ArrayList<>(lignes.size());
+            for (LignePossession ligne : lignes) {
+                Integer idVehicule = vehicules.get(ligne.matricule);
+                Integer idProprietaire = proprietaires.get(ligne.nomPrenom);
+                resolues.add(idVehicule == null || idProprietaire == null ? null
+                        : new Posseder(idProprietaire, idVehicule, ligne.debut, ligne.fin));
+            }
+            return resolues;
+        }
+
+        @Override
+        List<ResultatInsertion> insererLot(List<Posseder> lignes) {
+            return possederController.addPossessions(lignes);
+        }
+    }
+
+    private void rejeter(long numeroLigne, String motif) {
+        if (rejetees.incrementAndGet() <= MAX_REJETS_DETAILLES) {
+            LOGGER.log(Level.WARNING, "Ligne {0} rejetée : {1}", new Object[]{numeroLigne, motif});
+        }
+        rejetsParMotif.computeIfAbsent(motif, m -> new LongAdder()).increment();
+    }
+
+    // Indexe les colonnes de l'en-tête et vérifie que les colonnes obligatoires sont présentes
+    private Map<String, Integer> lireEntete(String[] entete) throws IOException {
+        if (entete == null) {
+            throw new IOException("Fichier vide : " + fichier);
+        }
+        Map<String, Integer> colonnes = new HashMap<>();
+        for (int i = 0; i < entete.length; i++) {
+            colonnes.put(entete[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String colonne : format.colonnes()) {
+            if (!colonnes.containsKey(colonne)) {
+                throw new IOException("Colonne manquante dans l'en-tête : " + colonne);
+            }
+        }
+        return colonnes;
+    }
+
+    // Le séparateur le plus fréquent sur la première ligne
+    private static char detecterSeparateur(BufferedReader reader) throws IOException {
+        reader.mark(64 * 1024);
+        String entete = reader.readLine();
+        reader.reset();
+        if (entete == null) {
+            return ';';
+        }
+        long pointsVirgules = entete.chars().filter(c -> c == ';').count();
+        long virgules = entete.chars().filter(c -> c == ',').count();
+        return virgules > pointsVirgules ? ',' : ';';
+    }
+
+    private static String facultatif(String[] champs, Map<String, Integer> colonnes, String colonne) {
+        Integer index = colonnes.get(colonne);
+        if (index == null || index >= champs.length) {
+            return null;
+        }
+        String valeur = champs[index].trim();
+        return valeur.isEmpty() ? null : valeur;
+    }
+
+    private static String requis(String[] champs, Map<String, Integer> colonnes, String colonne) {
+        String valeur = facultatif(champs, colonnes, colonne);
+        if (valeur == null) {
+            throw new IllegalArgumentException(colonne + " manquant");
+        }
+        return valeur;
+    }
+
+    private static int entier(String[] champs, Map<String, Integer> colonnes, String colonne) {
+        try {
+            return Integer.parseInt(requis(champs, colonnes, colonne));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(colonne + " n'est pas un entier");
+        }
+    }
+
+    private static double decimal(String[] champs, Map<String, Integer> colonnes, String colonne) {
+        try {
+            return Double.parseDouble(requis(champs, colonnes, colonne).replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(colonne + " n'est pas un nombre");
+        }
+    }
+
+    private static java.sql.Date date(String valeur, String colonne) {
+        try {
+            return java.sql.Date.valueOf(LocalDate.parse(valeur));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(colonne + " n'est pas une date AAAA-MM-JJ");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Lot<T> fin() {
+        return (Lot<T>) Lot.FIN;
+    }
+
+    private void afficherProgression(long debut) {
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        System.out.printf("%d lignes lues, %d insérées, %d rejetées (%.0f lignes/s)%n",
+                lues.get(), inserees.get(), rejetees.get(), lues.get() / Math.max(secondes, 1e-3));
+    }
+
+    private void afficherBilan(long debut) {
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        System.out.printf("Import terminé en %.1f s : %d lignes lues, %d insérées, %d rejetées (%.0f lignes/s)%n",
+                secondes, lues.get(), inserees.get(), rejetees.get(), inserees.get() / Math.max(secondes, 1e-3));
+        Map<String, LongAdder> motifs = new TreeMap<>(rejetsParMotif);
+        motifs.forEach((motif, nombre) -> System.out.printf("  %s : %d%n", motif, nombre.sum()));
+    }
+}
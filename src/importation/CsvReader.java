@@ -0,0 +1,109 @@
+package importation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecteur CSV en flux : un enregistrement est lu à la fois, sans jamais charger le fichier entier.
+ * Gère les champs entre guillemets (séparateurs, sauts de ligne et guillemets doublés à l'intérieur)
+ * et ignore les lignes vides.
+ */
+public class CsvReader implements Closeable {
+    private final Reader in;
+    private final char separateur;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int fin;
+    private int retour = -2; // Caractère remis dans le flux (-2 : aucun)
+    private long ligne = 1; // Ligne courante du fichier
+    private long ligneEnregistrement; // Ligne où commence le dernier enregistrement lu
+
+    public CsvReader(Reader in, char separateur) {
+        this.in = in;
+        this.separateur = separateur;
+    }
+
+    /**
+     * @return Les champs de l'enregistrement suivant, ou null en fin de fichier
+     */
+    public String[] next() throws IOException {
+        List<String> champs = new ArrayList<>();
+        StringBuilder champ = new StringBuilder();
+        while (true) {
+            champs.clear();
+            champ.setLength(0);
+            ligneEnregistrement = ligne;
+            boolean entreGuillemets = false;
+            boolean lu = false;
+            int c;
+            while ((c = read()) != -1) {
+                lu = true;
+                if (entreGuillemets) {
+                    if (c == '"') {
+                        int suivant = read();
+                        if (suivant == '"') {
+                            champ.append('"');
+                        } else {
+                            entreGuillemets = false;
+                            retour = suivant;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            ligne++;
+                        }
+                        champ.append((char) c);
+                    }
+                } else if (c == '"' && champ.length() == 0) {
+                    entreGuillemets = true;
+                } else if (c == separateur) {
+                    champs.add(champ.toString());
+                    champ.setLength(0);
+                } else if (c == '\n') {
+                    ligne++;
+                    break;
+                } else if (c != '\r') {
+                    champ.append((char) c);
+                }
+            }
+            if (!lu) {
+                return null;
+            }
+            champs.add(champ.toString());
+            if (champs.size() > 1 || !champs.get(0).trim().isEmpty()) {
+                return champs.toArray(new String[0]);
+            }
+        }
+    }
+
+    /**
+     * @return Le numéro de la ligne du fichier où commence le dernier enregistrement lu
+     */
+    public long getLigne() {
+        return ligneEnregistrement;
+    }
+
+    private int read() throws IOException {
+        if (retour != -2) {
+            int c = retour;
+            retour = -2;
+            return c;
+        }
+        if (position == fin) {
+            fin = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (fin <= 0) {
+                fin = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -8,6 +8,7 @@ public class Modele {
     private int id_modele; // Identifiant unique du modèle
     private String nom_modele; // Nom du modèle
     private int id_marque; // Identifiant de la marque associée (clé étrangère)
+    private String nom_marque; // Nom de la marque associée (renseigné par le listing joint)
 
     // Constructeur
     public Modele(int id_modele, String nom_modele, int id_marque) {
@@ -16,6 +17,12 @@ public class Modele {
         this.id_marque = id_marque;
     }
 
+    // Constructeur avec le nom de la marque (listing joint MODELE/MARQUE)
+    public Modele(int id_modele, String nom_modele, int id_marque, String nom_marque) {
+        this(id_modele, nom_modele, id_marque);
+        this.nom_marque = nom_marque;
+    }
+
     // Getters et Setters
     public int getId_modele() {
         return id_modele;
@@ -41,6 +48,14 @@ public class Modele {
         this.id_marque = id_marque;
     }
 
+    public String getNom_marque() {
+        return nom_marque;
+    }
+
+    public void setNom_marque(String nom_marque) {
+        this.nom_marque = nom_marque;
+    }
+
     @Override
     public String toString() {
         return nom_modele;
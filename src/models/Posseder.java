@@ -1,12 +1,18 @@
 package models;
 
+import java.time.LocalDate;
 import java.util.Date;
+import java.util.TimeZone;
 
 /**
  * Classe représentant la table "POSSEDER" de la base de données.
  * Les noms des attributs correspondent aux colonnes de la table.
  */
 public class Posseder {
+    private static final long MS_PAR_JOUR = 86_400_000L;
+    // Fuseau de la JVM, lu une fois : TimeZone.getDefault() renvoie une copie à chaque appel
+    private static final TimeZone FUSEAU = TimeZone.getDefault();
+
     private int id_proprietaire; // Identifiant unique du propriétaire (clé étrangère)
     private int id_vehicule; // Identifiant du véhicule associé (clé étrangère)
     private Date date_debut_propriete; // Date de début de la propriété du véhicule
@@ -59,11 +65,31 @@ public class Posseder {
         return "Propriétaire ID: " + id_proprietaire + ", Véhicule ID: " + id_vehicule;
     }
 
-    // Méthode pour vérifier si la propriété du véhicule est encore valide
+    // Méthode pour vérifier si la propriété du véhicule est encore valide (comparaison de jours, sans allocation)
     public boolean estProprietaireActuel() {
-        Date today = new Date(); // Récupère la date actuelle
-        
-        // Vérifie si la date actuelle est après la date de début de propriété et avant la date de fin de propriété
-        return today.after(date_debut_propriete) && (date_fin_propriete == null || today.before(date_fin_propriete));
+        return estEnCoursLe(jour(System.currentTimeMillis()));
+    }
+
+    // Vérifie si la propriété est en cours à la date donnée (le jour de la fin appartient déjà à l'acheteur)
+    public boolean estProprietaireALaDate(LocalDate date) {
+        return estEnCoursLe(date.toEpochDay());
+    }
+
+    private boolean estEnCoursLe(long jour) {
+        return estEnCours(jour(date_debut_propriete.getTime()),
+                date_fin_propriete != null ? jour(date_fin_propriete.getTime()) : Long.MAX_VALUE, jour);
+    }
+
+    /**
+     * Évaluation sur des jours (epoch day), sans allocation, pour les parcours de toute la table :
+     * la propriété couvre les jours [début, fin[.
+     */
+    public static boolean estEnCours(long jourDebut, long jourFin, long jour) {
+        return jourDebut <= jour && jour < jourFin;
+    }
+
+    // Jour (epoch day) de la date locale d'un instant, comme java.sql.Date.toLocalDate()
+    private static long jour(long millis) {
+        return Math.floorDiv(millis + FUSEAU.getOffset(millis), MS_PAR_JOUR);
     }
 }
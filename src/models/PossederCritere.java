@@ -0,0 +1,100 @@
+package models;
+
+import java.util.Date;
+
+/**
+ * Critères de recherche des relations de possession : filtres, tri et nombre maximal de lignes.
+ * Un filtre laissé à null (ou vide) est ignoré.
+ */
+public class PossederCritere {
+
+    /**
+     * Colonnes de tri possibles.
+     */
+    public enum Tri {
+        NOM, MODELE, DATE_DEBUT, DATE_FIN
+    }
+
+    private String prefixeNom; // Début du nom du propriétaire
+    private String nomModele; // Nom exact du modèle
+    private String matricule; // Matricule exact du véhicule
+    private Date du; // Début de la période : propriétés encore en cours à cette date ou après
+    private Date au; // Fin de la période : propriétés commencées à cette date ou avant
+    private boolean actuelsSeulement; // Uniquement les propriétés en cours aujourd'hui
+    private Tri tri = Tri.NOM; // Colonne de tri
+    private boolean croissant = true; // Sens du tri
+    private int limite = 1000; // Nombre maximal de lignes renvoyées
+
+    // Getters et Setters
+    public String getPrefixeNom() {
+        return prefixeNom;
+    }
+
+    public void setPrefixeNom(String prefixeNom) {
+        this.prefixeNom = prefixeNom;
+    }
+
+    public String getNomModele() {
+        return nomModele;
+    }
+
+    public void setNomModele(String nomModele) {
+        this.nomModele = nomModele;
+    }
+
+    public String getMatricule() {
+        return matricule;
+    }
+
+    public void setMatricule(String matricule) {
+        this.matricule = matricule;
+    }
+
+    public Date getDu() {
+        return du;
+    }
+
+    public void setDu(Date du) {
+        this.du = du;
+    }
+
+    public Date getAu() {
+        return au;
+    }
+
+    public void setAu(Date au) {
+        this.au = au;
+    }
+
+    public boolean isActuelsSeulement() {
+        return actuelsSeulement;
+    }
+
+    public void setActuelsSeulement(boolean actuelsSeulement) {
+        this.actuelsSeulement = actuelsSeulement;
+    }
+
+    public Tri getTri() {
+        return tri;
+    }
+
+    public void setTri(Tri tri) {
+        this.tri = tri;
+    }
+
+    public boolean isCroissant() {
+        return croissant;
+    }
+
+    public void setCroissant(boolean croissant) {
+        this.croissant = croissant;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+}
@@ -0,0 +1,69 @@
+package models;
+
+import java.util.Date;
+
+/**
+ * Projection en lecture seule d'une relation POSSEDER jointe avec PROPRIETAIRE, VEHICULE et MODELE.
+ * Elle porte directement les libellés affichés par la vue, sans requête supplémentaire par ligne.
+ */
+public final class PossederDetail {
+    private final int id_proprietaire; // Identifiant du propriétaire
+    private final String nom; // Nom du propriétaire
+    private final String prenom; // Prénom du propriétaire
+    private final int id_vehicule; // Identifiant du véhicule
+    private final String matricule; // Matricule du véhicule
+    private final String nom_modele; // Nom du modèle du véhicule
+    private final Date date_debut_propriete; // Date de début de la propriété
+    private final Date date_fin_propriete; // Date de fin de la propriété (null si en cours)
+
+    // Constructeur
+    public PossederDetail(int id_proprietaire, String nom, String prenom, int id_vehicule, String matricule,
+                          String nom_modele, Date date_debut_propriete, Date date_fin_propriete) {
+        this.id_proprietaire = id_proprietaire;
+        this.nom = nom;
+        this.prenom = prenom;
+        this.id_vehicule = id_vehicule;
+        this.matricule = matricule;
+        this.nom_modele = nom_modele;
+        this.date_debut_propriete = date_debut_propriete;
+        this.date_fin_propriete = date_fin_propriete;
+    }
+
+    // Getters
+    public int getIdProprietaire() {
+        return id_proprietaire;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public String getPrenom() {
+        return prenom;
+    }
+
+    public int getIdVehicule() {
+        return id_vehicule;
+    }
+
+    public String getMatricule() {
+        return matricule;
+    }
+
+    public String getNomModele() {
+        return nom_modele;
+    }
+
+    public Date getDateDebutPropriete() {
+        return date_debut_propriete;
+    }
+
+    public Date getDateFinPropriete() {
+        return date_fin_propriete;
+    }
+
+    @Override
+    public String toString() {
+        return nom + " " + prenom + " - " + matricule + " (" + nom_modele + ")";
+    }
+}
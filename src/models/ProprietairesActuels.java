@@ -0,0 +1,51 @@
+package models;
+
+import java.time.LocalDate;
+
+/**
+ * Propriétaire de chaque véhicule à une date, issu d'un parcours complet de POSSEDER.
+ * Le tableau est indexé par identifiant de véhicule ; 0 signifie que le véhicule n'a pas de
+ * propriétaire à cette date (ou n'existe pas).
+ */
+public final class ProprietairesActuels {
+    private final LocalDate date; // Date d'évaluation
+    private final int[] proprietaireParVehicule; // id_proprietaire par id_vehicule, 0 si aucun
+    private final int nombreVehicules; // Nombre de véhicules ayant un propriétaire
+
+    public ProprietairesActuels(LocalDate date, int[] proprietaireParVehicule, int nombreVehicules) {
+        this.date = date;
+        this.proprietaireParVehicule = proprietaireParVehicule;
+        this.nombreVehicules = nombreVehicules;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * @return L'identifiant du propriétaire du véhicule, ou 0 s'il n'en a pas
+     */
+    public int getProprietaire(int idVehicule) {
+        return idVehicule > 0 && idVehicule < proprietaireParVehicule.length ? proprietaireParVehicule[idVehicule] : 0;
+    }
+
+    public boolean aUnProprietaire(int idVehicule) {
+        return getProprietaire(idVehicule) != 0;
+    }
+
+    public int getNombreVehicules() {
+        return nombreVehicules;
+    }
+
+    /**
+     * @return Borne (exclue) des identifiants de véhicule, pour parcourir le tableau
+     */
+    public int getBorneVehicules() {
+        return proprietaireParVehicule.length;
+    }
+
+    @Override
+    public String toString() {
+        return "Propriétaires au " + date + " : " + nombreVehicules + " véhicules";
+    }
+}
@@ -0,0 +1,52 @@
+package models;
+
+/**
+ * Résultat de l'insertion d'une ligne lors d'un enregistrement en masse.
+ * Le rang correspond à la position de la ligne dans la liste soumise.
+ */
+public final class ResultatInsertion {
+
+    /**
+     * Issue possible de l'insertion d'une ligne.
+     */
+    public enum Statut {
+        INSERE, // Ligne insérée
+        MODELE_INCONNU, // Aucun modèle ne porte ce nom
+        MATRICULE_EXISTANT, // Le matricule est déjà présent en base
+        MATRICULE_EN_DOUBLE, // Le matricule apparaît plusieurs fois dans le lot
+        DOUBLON, // Ligne identique déjà présente en base ou plus haut dans le lot
+        INVALIDE, // Ligne incomplète (champ obligatoire manquant)
+        ERREUR // Erreur SQL : le lot entier a été annulé
+    }
+
+    private final int rang; // Position de la ligne dans le lot
+    private final Statut statut; // Issue de l'insertion
+    private final int id; // Identifiant créé, ou -1 si la ligne n'a pas été insérée (ou si la table n'en génère pas)
+
+    public ResultatInsertion(int rang, Statut statut, int id) {
+        this.rang = rang;
+        this.statut = statut;
+        this.id = id;
+    }
+
+    public int getRang() {
+        return rang;
+    }
+
+    public Statut getStatut() {
+        return statut;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isInsere() {
+        return statut == Statut.INSERE;
+    }
+
+    @Override
+    public String toString() {
+        return "Ligne " + rang + " : " + statut + (id > 0 ? " (id " + id + ")" : "");
+    }
+}
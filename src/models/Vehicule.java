@@ -14,6 +14,8 @@ public class Vehicule {
     private int puissance_chevaux; // Puissance en chevaux du véhicule
     private int puissance_fiscale; // Puissance fiscale du véhicule (en fonction de la législation)
     private int id_modele; // Identifiant du modèle du véhicule (clé étrangère vers la table "MODELE")
+    private String nom_modele; // Nom du modèle (renseigné uniquement par les listings joints)
+    private String nom_marque; // Nom de la marque (renseigné uniquement par les listings joints)
 
     /**
      * Constructeur de la classe Vehicule.
@@ -38,6 +40,20 @@ public class Vehicule {
         this.id_modele = id_modele; // Initialisation de l'identifiant du modèle
     }
 
+    /**
+     * Constructeur utilisé par les listings joints avec MODELE et MARQUE.
+     *
+     * @param nom_modele Nom du modèle associé au véhicule
+     * @param nom_marque Nom de la marque du modèle
+     */
+    public Vehicule(int id_vehicule, String matricule, int annee_sortie, double poids,
+                    int puissance_chevaux, int puissance_fiscale, int id_modele,
+                    String nom_modele, String nom_marque) {
+        this(id_vehicule, matricule, annee_sortie, poids, puissance_chevaux, puissance_fiscale, id_modele);
+        this.nom_modele = nom_modele;
+        this.nom_marque = nom_marque;
+    }
+
     // Getters et Setters permettant d'accéder et de modifier les attributs
     
     public int getIdVehicule() {
@@ -96,6 +112,14 @@ public class Vehicule {
         this.id_modele = id_modele; // Modifie l'identifiant du modèle du véhicule
     }
 
+    public String getNomModele() {
+        return nom_modele; // Retourne le nom du modèle (null si non chargé)
+    }
+
+    public String getNomMarque() {
+        return nom_marque; // Retourne le nom de la marque (null si non chargé)
+    }
+
     /**
      * Méthode toString pour afficher une représentation textuelle du véhicule.
      * Cette méthode est utile pour l'affichage des objets dans des listes ou des logs.
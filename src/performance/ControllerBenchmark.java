@@ -0,0 +1,405 @@
+package performance;
+
+import controllers.LookupCache;
+import controllers.LookupCaches;
+import controllers.MatriculeIndex;
+import controllers.MarqueController;
+import controllers.ModeleController;
+import controllers.PossederController;
+import controllers.ProprietaireController;
+import controllers.VehiculeController;
+import database.DatabaseConnection;
+import database.QueryMetrics;
+import models.Marque;
+import models.Modele;
+import models.Posseder;
+import models.Proprietaire;
+import models.Vehicule;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Banc de mesure des chemins critiques des contrôleurs : liste des possessions avec résolution des noms,
+ * ajout de véhicule, recherche de possession, propriétaires actuels de tout le parc, propriétaire à une date,
+ * recherche par matricule et recherches nom ↔ identifiant (cache vide ou chaud).
+ * <p>
+ * Chaque scénario est exécuté pendant une phase de préchauffage puis une phase de mesure de durées fixes,
+ * par un ou plusieurs threads ; le bilan donne le débit et la distribution des temps par opération,
+ * suivi des mesures par requête SQL, du pool et des caches. Les tirages sont faits avec une graine fixe
+ * afin que deux exécutions sur les mêmes données soient comparables.
+ * <p>
+ * Le banc écrit dans la base : il ne s'exécute que sur une base dédiée, désignée explicitement par
+ * {@code -Dcartegrise.db.url=...} et distincte de la base {@code carte_grise} de l'application ;
+ * avec {@code --echelle n}, celle-ci est d'abord vidée puis remplie par {@link RegistreGenerator}
+ * avec n véhicules (par exemple 10000, 100000 ou 1000000).
+ * Les véhicules ajoutés par le scénario d'ajout sont supprimés par identifiant après les mesures.
+ */
+public class ControllerBenchmark {
+    private static final long GRAINE = 42L;
+    private static final int ECHANTILLON = 1000;
+    private static final int MAX_TEMPS_CONSERVES = 1_000_000;
+    private static final int TOP_REQUETES = 15;
+    private static final String BASE_APPLICATION = "carte_grise";
+    private static final int PAQUET_SUPPRESSION = 1000;
+
+    /**
+     * Opération mesurée, exécutée en boucle par chaque thread.
+     */
+    private interface Operation {
+        void executer(Random random);
+    }
+
+    private final int threads;
+    private final long prechauffageMs;
+    private final long mesureMs;
+
+    private final PossederController possederController = new PossederController();
+    private final VehiculeController vehiculeController = new VehiculeController();
+    private final ModeleController modeleController = new ModeleController();
+
+    // Échantillons de données existantes, tirés au hasard par les scénarios
+    private final List<Posseder> possessions = new ArrayList<>();
+    private final List<Proprietaire> proprietaires = new ArrayList<>();
+    private final List<Modele> modeles = new ArrayList<>();
+    private final List<Marque> marques = new ArrayList<>();
+    private final List<Vehicule> vehicules = new ArrayList<>();
+
+    private final AtomicInteger compteurMatricules = new AtomicInteger();
+    // Véhicules créés par le scénario d'ajout, supprimés par nettoyer()
+    private final ConcurrentLinkedQueue<Integer> vehiculesAjoutes = new ConcurrentLinkedQueue<>();
+
+    public ControllerBenchmark(int threads, long prechauffageMs, long mesureMs) {
+        this.threads = threads;
+        this.prechauffageMs = prechauffageMs;
+        this.mesureMs = mesureMs;
+    }
+
+    /**
+     * Point d'entrée : {@code ControllerBenchmark [--echelle n] [--threads n] [--prechauffage s] [--duree s]
+     * [scénario...]}. Sans scénario, tous sont exécutés.
+     */
+    public static void main(String[] args) {
+        int echelle = 0;
+        int threads = 1;
+        long prechauffage = 5;
+        long duree = 10;
+        List<String> choisis = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--echelle":
+                        echelle = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--prechauffage":
+                        prechauffage = Long.parseLong(args[++i]);
+                        break;
+                    case "--duree":
+                        duree = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        choisis.add(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Usage : --bench [--echelle n] [--threads n] [--prechauffage s] [--duree s] [scénario...]");
+            System.exit(2);
+        }
+        try {
+            verifierBaseDediee(System.getProperty("cartegrise.db.url"));
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+
+        ControllerBenchmark banc = new ControllerBenchmark(threads, TimeUnit.SECONDS.toMillis(prechauffage),
+                TimeUnit.SECONDS.toMillis(duree));
+        int code = 0;
+        try {
+            if (echelle > 0) {
+                new RegistreGenerator(GRAINE, echelle, RegistreGenerator.proprietairesPourVehicules(echelle),
+                        LocalDate.now()).genererEnBase(true);
+            }
+            banc.executer(choisis);
+        } catch (Exception e) {
+            e.printStackTrace();
+            code = 1;
+        } finally {
+            banc.nettoyer();
+        }
+        System.exit(code);
+    }
+
+    /**
+     * Exécute les scénarios demandés (tous si la liste est vide) et affiche le bilan.
+     */
+    public void executer(List<String> choisis) {
+        charger();
+        Map<String, Operation> scenarios = scenarios();
+        if (!choisis.isEmpty() && !scenarios.keySet().containsAll(choisis)) {
+            throw new IllegalArgumentException("Scénarios disponibles : " + scenarios.keySet());
+        }
+
+        System.out.printf("Données : %d possessions, %d véhicules, %d propriétaires, %d modèles, %d marques%n",
+                possederController.countPosseder(), vehiculeController.countVehicules(),
+                new ProprietaireController().countProprietaires(), modeleController.countModeles(),
+                new MarqueController().countMarques());
+        System.out.printf("%d thread(s), préchauffage %d s, mesure %d s%n%n", threads,
+                TimeUnit.MILLISECONDS.toSeconds(prechauffageMs), TimeUnit.MILLISECONDS.toSeconds(mesureMs));
+        System.out.printf("%-28s %10s %12s %10s %10s %10s %10s%n",
+                "scénario", "ops", "ops/s", "moy ms", "p50 ms", "p99 ms", "max ms");
+
+        DatabaseConnection.getQueryMetrics().reset();
+        for (Map.Entry<String, Operation> scenario : scenarios.entrySet()) {
+            if (choisis.isEmpty() || choisis.contains(scenario.getKey())) {
+                mesurer(scenario.getKey(), scenario.getValue());
+            }
+        }
+
+        System.out.println();
+        System.out.println("Requêtes les plus coûteuses :");
+        List<QueryMetrics.Snapshot> requetes = DatabaseConnection.getQueryMetrics().getQueries();
+        for (QueryMetrics.Snapshot requete : requetes.subList(0, Math.min(TOP_REQUETES, requetes.size()))) {
+            System.out.println("  " + requete);
+        }
+        System.out.println("  " + DatabaseConnection.getQueryMetrics().getConnectionAcquire());
+        System.out.println(DatabaseConnection.getPoolStats());
+        for (LookupCache<?, ?> cache : LookupCaches.all()) {
+            System.out.println(cache);
+        }
+    }
+
+    /**
+     * Refuse une URL implicite (la base de l'application par défaut) ou désignant la base de l'application.
+     *
+     * @throws IllegalStateException Si la base n'est pas une base dédiée aux mesures
+     */
+    static void verifierBaseDediee(String url) {
+        if (url == null) {
+            throw new IllegalStateException("Le banc écrit dans la base : désignez une base dédiée avec "
+                    + "-Dcartegrise.db.url=jdbc:mysql://hôte:port/base");
+        }
+        int hote = url.indexOf("//");
+        int debut = url.indexOf('/', hote < 0 ? 0 : hote + 2);
+        int fin = url.indexOf('?', debut + 1);
+        String base = debut < 0 ? "" : url.substring(debut + 1, fin < 0 ? url.length() : fin);
+        if (base.isEmpty() || base.equalsIgnoreCase(BASE_APPLICATION)) {
+            throw new IllegalStateException("Le banc refuse la base " + (base.isEmpty() ? "par défaut" : base)
+                    + " : désignez une base dédiée aux mesures dans cartegrise.db.url");
+        }
+    }
+
+    /**
+     * Supprime les véhicules créés par le scénario d'ajout, par paquets d'identifiants.
+     */
+    public void nettoyer() {
+        List<Integer> ids = new ArrayList<>();
+        for (Integer id; (id = vehiculesAjoutes.poll()) != null; ) {
+            ids.add(id);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int debut = 0; debut < ids.size(); debut += PAQUET_SUPPRESSION) {
+                List<Integer> paquet = ids.subList(debut, Math.min(debut + PAQUET_SUPPRESSION, ids.size()));
+                StringBuilder query = new StringBuilder("DELETE FROM VEHICULE WHERE id_vehicule IN (");
+                for (int i = 0; i < paquet.size(); i++) {
+                    query.append(i == 0 ? "?" : ", ?");
+                }
+                try (PreparedStatement ps = conn.prepareStatement(query.append(')').toString())) {
+                    for (int i = 0; i < paquet.size(); i++) {
+                        ps.setInt(i + 1, paquet.get(i));
+                    }
+                    ps.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        LookupCaches.invalidateVehicules();
+        MatriculeIndex.invalider();
+    }
+
+    private Map<String, Operation> scenarios() {
+        Map<String, Operation> scenarios = new LinkedHashMap<>();
+
+        scenarios.put("possessions+noms", random -> {
+            for (Posseder posseder : possederController.getAllPosseder()) {
+                possederController.getNomProprietaire(posseder.getIdProprietaire());
+                possederController.getNomModele(posseder.getIdVehicule());
+            }
+        });
+
+        scenarios.put("ajout-vehicule", random -> {
+            Modele modele = tirer(modeles, random);
+            int idVehicule = vehiculeController.addVehicule(matriculeTemporaire(), 2000 + random.nextInt(25),
+                    900 + random.nextInt(1500), 60 + random.nextInt(200), 3 + random.nextInt(15), modele.getNom_modele());
+            if (idVehicule != -1) {
+                vehiculesAjoutes.add(idVehicule);
+            }
+        });
+
+        scenarios.put("recherche-possession", random -> {
+            Posseder posseder = tirer(possessions, random);
+            possederController.searchPosseder(posseder.getIdProprietaire(), posseder.getIdVehicule());
+        });
+
+        scenarios.put("proprietaires-actuels", random -> possederController.getProprietairesActuels());
+
+        scenarios.put("proprietaire-a-la-date", random -> {
+            Posseder posseder = tirer(possessions, random);
+            possederController.getPossessionsALaDate(posseder.getIdVehicule(), posseder.getDateDebutPropriete());
+        });
+
+        scenarios.put("recherche-matricule", random -> {
+            vehiculeController.getIdByMatricule(tirer(vehicules, random).getMatricule());
+        });
+
+        scenarios.put("recherches-noms-froid", random -> {
+            for (LookupCache<?, ?> cache : LookupCaches.all()) {
+                cache.invalidateAll();
+            }
+            rechercherNoms(random);
+        });
+
+        scenarios.put("recherches-noms-chaud", this::rechercherNoms);
+        return scenarios;
+    }
+
+    // Un aller-retour nom -> identifiant et identifiant -> nom pour chaque entité
+    private void rechercherNoms(Random random) {
+        Proprietaire proprietaire = tirer(proprietaires, random);
+        possederController.getIdProprietaire(proprietaire.getNom());
+        possederController.getNomProprietaire(proprietaire.getId_proprietaire());
+
+        Modele modele = tirer(modeles, random);
+        vehiculeController.getModeleNameById(modele.getId_modele());
+        vehiculeController.getMarqueNameByModeleId(modele.getId_modele());
+
+        Marque marque = tirer(marques, random);
+        vehiculeController.getMarqueIdByNom(marque.getNomMarque());
+        modeleController.getNomMarqueById(marque.getIdMarque());
+    }
+
+    private void mesurer(String nom, Operation operation) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> resultats = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Random random = new Random(GRAINE + t);
+                resultats.add(executor.submit(() -> boucler(operation, random)));
+            }
+            long[] temps = new long[0];
+            long operations = 0;
+            for (Future<long[]> resultat : resultats) {
+                long[] tempsThread = resultat.get();
+                operations += tempsThread[0];
+                int debut = temps.length;
+                temps = Arrays.copyOf(temps, debut + tempsThread.length - 1);
+                System.arraycopy(tempsThread, 1, temps, debut, tempsThread.length - 1);
+            }
+            Arrays.sort(temps);
+
+            long total = 0;
+            for (long t : temps) {
+                total += t;
+            }
+            System.out.printf("%-28s %10d %12.1f %10.3f %10.3f %10.3f %10.3f%n", nom, operations,
+                    operations * 1000.0 / mesureMs, temps.length == 0 ? 0.0 : total / 1e6 / temps.length,
+                    centile(temps, 0.50), centile(temps, 0.99), temps.length == 0 ? 0.0 : temps[temps.length - 1] / 1e6);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Mesure interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Échec du scénario " + nom, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Renvoie le nombre d'opérations mesurées suivi de leurs durées (en ns, au plus MAX_TEMPS_CONSERVES)
+    private long[] boucler(Operation operation, Random random) {
+        long finPrechauffage = System.currentTimeMillis() + prechauffageMs;
+        while (System.currentTimeMillis() < finPrechauffage) {
+            operation.executer(random);
+        }
+
+        long[] temps = new long[1024];
+        int n = 1;
+        long operations = 0;
+        long fin = System.currentTimeMillis() + mesureMs;
+        // Au moins une opération, même si elle dure plus longtemps que la phase de mesure
+        do {
+            long debut = System.nanoTime();
+            operation.executer(random);
+            long duree = System.nanoTime() - debut;
+            operations++;
+            if (n <= MAX_TEMPS_CONSERVES) {
+                if (n == temps.length) {
+                    temps = Arrays.copyOf(temps, temps.length * 2);
+                }
+                temps[n++] = duree;
+            }
+        } while (System.currentTimeMillis() < fin);
+
+        temps[0] = operations;
+        return Arrays.copyOf(temps, n);
+    }
+
+    private static double centile(long[] tries, double p) {
+        if (tries.length == 0) {
+            return 0.0;
+        }
+        int rang = (int) Math.ceil(p * tries.length) - 1;
+        return tries[Math.max(rang, 0)] / 1e6;
+    }
+
+    private void charger() {
+        possessions.addAll(possederController.getPossederApres(0, 0, ECHANTILLON));
+        proprietaires.addAll(new ProprietaireController().getProprietairesApres(0, ECHANTILLON));
+        modeles.addAll(modeleController.getModelesAvecMarqueApres(0, ECHANTILLON));
+        marques.addAll(new MarqueController().getMarquesApres(0, ECHANTILLON));
+        vehicules.addAll(vehiculeController.getVehiculesDetaillesApres(0, ECHANTILLON));
+        if (possessions.isEmpty() || proprietaires.isEmpty() || modeles.isEmpty() || marques.isEmpty()
+                || vehicules.isEmpty()) {
+            throw new IllegalStateException("La base doit contenir des marques, modèles, véhicules, propriétaires et possessions");
+        }
+        // Chargé avant les mesures, comme au démarrage de l'application
+        MatriculeIndex.charger();
+    }
+
+    private static <T> T tirer(List<T> valeurs, Random random) {
+        return valeurs.get(random.nextInt(valeurs.size()));
+    }
+
+    // Série WW, en sautant les matricules déjà présents (véhicules laissés par une exécution interrompue)
+    private String matriculeTemporaire() {
+        String matricule;
+        do {
+            int n = compteurMatricules.getAndIncrement();
+            char l1 = (char) ('A' + (n / 1000) % 26);
+            char l2 = (char) ('A' + (n / 26000) % 26);
+            matricule = String.format("WW-%03d-%c%c", n % 1000, l2, l1);
+        } while (vehiculeController.existsMatricule(matricule));
+        return matricule;
+    }
+}
@@ -0,0 +1,858 @@
+package performance;
+
+import controllers.CurrentOwnerProjection;
+import controllers.LookupCaches;
+import controllers.MatriculeIndex;
+import controllers.MarqueController;
+import controllers.ModeleController;
+import database.DatabaseConnection;
+import models.Marque;
+import models.Modele;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Générateur déterministe d'un registre synthétique (MARQUE, MODELE, PROPRIETAIRE, VEHICULE, POSSEDER)
+ * de volume arbitraire, pour les essais de charge des vues et des contrôleurs.
+ * <p>
+ * Les données imitent le parc français : matricules au format SIV (AA-123-AA, sans I, O ni U,
+ * sans SS ni série WW), codes postaux et communes réels, popularité très inégale des marques et des
+ * modèles, véhicules récents plus nombreux, et historiques de un à quatre propriétaires successifs
+ * (la vente clôt une possession le jour où la suivante commence). Les matricules et les adresses sont
+ * obtenus par permutation de leur espace de valeurs : ils sont uniques sans avoir à les mémoriser.
+ * <p>
+ * Une même graine et une même date de référence produisent toujours les mêmes données.
+ * Sortie au choix : insertion en base par lots, fichier SQL (remplace data_carte_grise.sql) ou un fichier
+ * CSV par table, avec identifiants, chargeable par LOAD DATA.
+ */
+public class RegistreGenerator {
+    private static final Logger LOGGER = Logger.getLogger(RegistreGenerator.class.getName());
+
+    private static final int TAILLE_LOT = 1000;
+    private static final int LIGNES_PAR_TRANSACTION = 20_000;
+
+    private static final String LETTRES = "ABCDEFGHJKLMNPQRSTVWXYZ";
+    private static final String[] PAIRES_GAUCHE = paires(true);
+    private static final String[] PAIRES_DROITE = paires(false);
+    private static final long ESPACE_MATRICULES = (long) PAIRES_GAUCHE.length * 999 * PAIRES_DROITE.length;
+
+    // Marques dans l'ordre approximatif des ventes en France, suivies de leurs modèles du plus au moins vendu
+    private static final String[][] MARQUES = {
+            {"Renault", "Clio", "Captur", "Mégane", "Twingo", "Austral", "Arkana", "Scénic", "Kangoo", "Zoé", "Espace"},
+            {"Peugeot", "208", "2008", "308", "3008", "5008", "108", "Partner", "508", "Rifter"},
+            {"Citroën", "C3", "C4", "C3 Aircross", "C5 Aircross", "Berlingo", "C1", "Ami"},
+            {"Dacia", "Sandero", "Duster", "Spring", "Jogger", "Logan"},
+            {"Volkswagen", "Polo", "Golf", "T-Roc", "Tiguan", "ID.3", "Passat"},
+            {"Toyota", "Yaris", "Yaris Cross", "C-HR", "Corolla", "RAV4", "Aygo"},
+            {"Ford", "Puma", "Fiesta", "Kuga", "Focus"},
+            {"Opel", "Corsa", "Mokka", "Astra", "Crossland"},
+            {"Fiat", "500", "Panda", "Tipo"},
+            {"BMW", "Série 1", "X1", "Série 3", "X3"},
+            {"Mercedes-Benz", "Classe A", "GLA", "Classe C"},
+            {"Audi", "A3", "Q3", "A4"},
+            {"Kia", "Sportage", "Niro", "Picanto"},
+            {"Hyundai", "Tucson", "i20", "Kona", "i10"},
+            {"Nissan", "Qashqai", "Juke", "Micra"},
+            {"Skoda", "Octavia", "Fabia", "Kamiq"},
+            {"Seat", "Ibiza", "Arona", "Leon"},
+            {"Tesla", "Model Y", "Model 3"},
+            {"DS", "DS 3", "DS 7"},
+            {"Mini", "Cooper", "Countryman"},
+            {"Volvo", "XC40", "XC60"},
+            {"Suzuki", "Swift", "Vitara"},
+            {"Mazda", "CX-30", "2"},
+            {"Honda", "Jazz", "Civic"},
+            {"Jeep", "Renegade", "Compass"},
+            {"Alpine", "A110"}
+    };
+
+    private static final String[] NOMS = {
+            "Martin", "Bernard", "Thomas", "Petit", "Robert", "Richard", "Durand", "Dubois", "Moreau", "Laurent",
+            "Simon", "Michel", "Lefebvre", "Leroy", "Roux", "David", "Bertrand", "Morel", "Fournier", "Girard",
+            "Bonnet", "Dupont", "Lambert", "Fontaine", "Rousseau", "Vincent", "Muller", "Lefèvre", "Faure", "André",
+            "Mercier", "Blanc", "Guérin", "Boyer", "Garnier", "Chevalier", "François", "Legrand", "Gauthier", "Garcia",
+            "Perrin", "Robin", "Clément", "Morin", "Nicolas", "Henry", "Roussel", "Mathieu", "Gautier", "Masson",
+            "Marchand", "Duval", "Denis", "Dumont", "Marie", "Lemaire", "Noël", "Meyer", "Dufour", "Meunier"
+    };
+
+    private static final String[] PRENOMS = {
+            "Marie", "Jean", "Pierre", "Michel", "Nathalie", "Isabelle", "Philippe", "Alain", "Sylvie", "Catherine",
+            "Nicolas", "Christophe", "Françoise", "Patrick", "Sandrine", "Stéphane", "Valérie", "Frédéric", "Christine", "Laurent",
+            "Céline", "Julien", "Aurélie", "Sébastien", "Émilie", "David", "Julie", "Thomas", "Camille", "Olivier",
+            "Léa", "Lucas", "Manon", "Hugo", "Chloé", "Louis", "Emma", "Gabriel", "Inès", "Arthur",
+            "Sarah", "Antoine", "Laura", "Maxime", "Pauline", "Alexandre", "Claire", "Mathieu", "Anne", "Vincent"
+    };
+
+    private static final String[] TYPES_VOIE = {"rue", "avenue", "boulevard", "place", "allée", "chemin", "impasse", "route"};
+
+    private static final String[] NOMS_VOIE = {
+            "Victor Hugo", "de la République", "Jean Jaurès", "du Général de Gaulle", "Pasteur", "Jules Ferry",
+            "de la Gare", "de l'Église", "du Moulin", "de la Mairie", "des Écoles", "Gambetta", "Carnot", "Voltaire",
+            "de la Liberté", "du Château", "des Lilas", "de Verdun", "de la Paix", "Émile Zola", "Anatole France",
+            "du Stade", "des Tilleuls", "Saint-Martin", "de la Fontaine", "Jean Moulin", "du 8 Mai 1945",
+            "du 11 Novembre", "Louis Pasteur", "de Paris", "du Port", "des Acacias", "des Peupliers", "de la Poste",
+            "Molière", "Paul Bert", "Foch", "Clemenceau", "Marcel Pagnol", "des Roses", "du Marché", "de Lattre de Tassigny",
+            "Henri Barbusse", "Aristide Briand", "du Pont", "des Vignes", "de la Forêt", "de Bretagne", "de Provence",
+            "Pierre Curie", "Marie Curie", "Georges Clemenceau", "du Commerce", "des Prés", "de la Croix", "du Parc",
+            "Lamartine", "Racine", "La Fontaine", "Denis Papin"
+    };
+    private static final int NUMEROS_VOIE = 299;
+
+    // Communes avec leur code postal ; les arrondissements donnent naturellement plus de poids aux grandes villes
+    private static final String[][] COMMUNES = communes();
+
+    private static final long ESPACE_ADRESSES = (long) NUMEROS_VOIE * TYPES_VOIE.length * NOMS_VOIE.length * COMMUNES.length;
+
+    /**
+     * Destination des lignes générées, alimentée dans l'ordre des clés étrangères
+     * (marques, modèles, propriétaires puis véhicules suivis de leurs possessions).
+     */
+    interface Sortie extends AutoCloseable {
+        void marque(int id, String nom) throws IOException, SQLException;
+
+        void modele(int id, String nom, int idMarque) throws IOException, SQLException;
+
+        void proprietaire(int id, String nom, String prenom, String adresse, String cp, String ville) throws IOException, SQLException;
+
+        void vehicule(int id, String matricule, int annee, int poids, int chevaux, int puissanceFiscale, int idModele)
+                throws IOException, SQLException;
+
+        void possession(int idProprietaire, int idVehicule, LocalDate debut, LocalDate fin) throws IOException, SQLException;
+
+        @Override
+        void close() throws IOException, SQLException;
+    }
+
+    private final long graine;
+    private final int nbVehicules;
+    private final int nbProprietaires;
+    private final LocalDate reference;
+
+    private long possessions;
+
+    /**
+     * @param graine          Graine des tirages
+     * @param nbVehicules     Nombre de véhicules à générer
+     * @param nbProprietaires Nombre de propriétaires à générer
+     * @param reference       Date du jour simulée : aucune date ne la dépasse et les possessions ouvertes y courent encore
+     */
+    public RegistreGenerator(long graine, int nbVehicules, int nbProprietaires, LocalDate reference) {
+        if (nbVehicules < 0 || nbProprietaires <= 0 && nbVehicules > 0) {
+            throw new IllegalArgumentException("Volumes invalides : " + nbVehicules + " véhicules, "
+                    + nbProprietaires + " propriétaires");
+        }
+        if (nbProprietaires > ESPACE_ADRESSES || nbVehicules > ESPACE_MATRICULES) {
+            throw new IllegalArgumentException("Volume supérieur au nombre d'adresses ou de matricules disponibles");
+        }
+        this.graine = graine;
+        this.nbVehicules = nbVehicules;
+        this.nbProprietaires = nbProprietaires;
+        this.reference = reference;
+    }
+
+    /**
+     * Point d'entrée : {@code RegistreGenerator <base|sql|csv> [--vehicules n] [--proprietaires n] [--graine g]
+     * [--reference AAAA-MM-JJ] [--fichier chemin] [--vider]}.
+     * <ul>
+     *     <li>base : insertion par lots dans la base configurée ; --vider supprime d'abord tout le registre</li>
+     *     <li>sql : fichier SQL qui remplace le contenu des tables (comme data_carte_grise.sql)</li>
+     *     <li>csv : un fichier par table (séparateur ';', avec identifiants) dans le répertoire --fichier</li>
+     * </ul>
+     */
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "";
+        int vehicules = 10_000;
+        int proprietaires = -1;
+        long graine = 42L;
+        LocalDate reference = LocalDate.now();
+        String fichier = null;
+        boolean vider = false;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--vehicules":
+                        vehicules = Integer.parseInt(args[++i]);
+                        break;
+                    case "--proprietaires":
+                        proprietaires = Integer.parseInt(args[++i]);
+                        break;
+                    case "--graine":
+                        graine = Long.parseLong(args[++i]);
+                        break;
+                    case "--reference":
+                        reference = LocalDate.parse(args[++i]);
+                        break;
+                    case "--fichier":
+                        fichier = args[++i];
+                        break;
+                    case "--vider":
+                        vider = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (!mode.equals("base") && fichier == null) {
+                throw new IllegalArgumentException("--fichier");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Usage : --generer <base|sql|csv> [--vehicules n] [--proprietaires n] [--graine g]"
+                    + " [--reference AAAA-MM-JJ] [--fichier chemin] [--vider]");
+            System.exit(2);
+        }
+        if (proprietaires < 0) {
+            proprietaires = proprietairesPourVehicules(vehicules);
+        }
+
+        try {
+            RegistreGenerator generateur = new RegistreGenerator(graine, vehicules, proprietaires, reference);
+            switch (mode) {
+                case "base":
+                    generateur.genererEnBase(vider);
+                    break;
+                case "sql":
+                    generateur.generer(new SortieSql(Paths.get(fichier)));
+                    break;
+                case "csv":
+                    generateur.generer(new SortieCsv(Paths.get(fichier)));
+                    break;
+                default:
+                    System.err.println("Sortie inconnue : " + mode);
+                    System.exit(2);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Échec de la génération du registre (" + mode + ")", e);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @return Le nombre de propriétaires par défaut pour un parc donné (environ 3 pour 4 véhicules)
+     */
+    public static int proprietairesPourVehicules(int vehicules) {
+        return Math.max(1, vehicules / 4 * 3);
+    }
+
+    /**
+     * Génère le registre directement en base. Les marques et modèles déjà présents sont réutilisés,
+     * les nouveaux identifiants suivent les plus grands existants.
+     *
+     * @param vider Supprime d'abord tout le contenu du registre
+     */
+    public void genererEnBase(boolean vider) throws Exception {
+        try {
+            generer(new SortieBase(vider));
+            CurrentOwnerProjection.reconcilier();
+        } finally {
+            LookupCaches.invalidateMarques();
+            LookupCaches.invalidateProprietaires();
+            LookupCaches.invalidatePossessions();
+            MatriculeIndex.invalider();
+        }
+    }
+
+    /**
+     * Génère tout le registre dans la sortie donnée, puis la ferme.
+     */
+    public void generer(Sortie sortie) throws Exception {
+        long debut = System.nanoTime();
+        possessions = 0;
+        try (Sortie s = sortie) {
+            int[][] modelesParMarque = genererReferentiel(s);
+            genererProprietaires(s);
+            genererVehicules(s, modelesParMarque);
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        long lignes = (long) nbProprietaires + nbVehicules + possessions;
+        System.out.printf("Registre généré en %.1f s : %d propriétaires, %d véhicules, %d possessions (%.0f lignes/s)%n",
+                secondes, nbProprietaires, nbVehicules, possessions, lignes / Math.max(secondes, 1e-3));
+    }
+
+    public long getPossessions() {
+        return possessions;
+    }
+
+    // Marques et modèles ; renvoie les identifiants des modèles de chaque marque, dans l'ordre de popularité
+    private int[][] genererReferentiel(Sortie sortie) throws Exception {
+        Map<String, Integer> marquesExistantes = sortie instanceof SortieBase
+                ? ((SortieBase) sortie).marquesExistantes : new HashMap<>();
+        Map<String, Integer> modelesExistants = sortie instanceof SortieBase
+                ? ((SortieBase) sortie).modelesExistants : new HashMap<>();
+        int idMarqueSuivant = sortie instanceof SortieBase ? ((SortieBase) sortie).prochainId("MARQUE", "id_marque") : 1;
+        int idModeleSuivant = sortie instanceof SortieBase ? ((SortieBase) sortie).prochainId("MODELE", "id_modele") : 1;
+
+        int[][] modelesParMarque = new int[MARQUES.length][];
+        for (int m = 0; m < MARQUES.length; m++) {
+            String nomMarque = MARQUES[m][0];
+            Integer idMarque = marquesExistantes.get(nomMarque.toLowerCase(Locale.ROOT));
+            if (idMarque == null) {
+                idMarque = idMarqueSuivant++;
+                sortie.marque(idMarque, nomMarque);
+            }
+            modelesParMarque[m] = new int[MARQUES[m].length - 1];
+            for (int i = 1; i < MARQUES[m].length; i++) {
+                String cle = cleModele(MARQUES[m][i], idMarque);
+                Integer idModele = modelesExistants.get(cle);
+                if (idModele == null) {
+                    idModele = idModeleSuivant++;
+                    sortie.modele(idModele, MARQUES[m][i], idMarque);
+                }
+                modelesParMarque[m][i - 1] = idModele;
+            }
+        }
+        return modelesParMarque;
+    }
+
+    private void genererProprietaires(Sortie sortie) throws Exception {
+        SplittableRandom random = new SplittableRandom(graine ^ 0x50524f50L);
+        int premier = premierId(sortie, "PROPRIETAIRE", "id_proprietaire");
+        Permutation adresses = new Permutation(ESPACE_ADRESSES, random.nextLong(ESPACE_ADRESSES));
+        for (int i = 0; i < nbProprietaires; i++) {
+            // Décomposition de l'adresse permutée : numéro, type et nom de voie, commune
+            long a = adresses.get(i);
+            int numero = (int) (a % NUMEROS_VOIE) + 1;
+            a /= NUMEROS_VOIE;
+            String type = TYPES_VOIE[(int) (a % TYPES_VOIE.length)];
+            a /= TYPES_VOIE.length;
+            String voie = NOMS_VOIE[(int) (a % NOMS_VOIE.length)];
+            String[] commune = COMMUNES[(int) (a / NOMS_VOIE.length)];
+
+            sortie.proprietaire(premier + i, NOMS[zipf(random, NOMS.length)], PRENOMS[random.nextInt(PRENOMS.length)],
+                    numero + " " + type + " " + voie, commune[0], commune[1]);
+        }
+    }
+
+    private void genererVehicules(Sortie sortie, int[][] modelesParMarque) throws Exception {
+        SplittableRandom random = new SplittableRandom(graine ^ 0x56454849L);
+        int premier = premierId(sortie, "VEHICULE", "id_vehicule");
+        int premierProprietaire = sortie instanceof SortieBase ? ((SortieBase) sortie).premierProprietaire : 1;
+        Permutation matricules = new Permutation(ESPACE_MATRICULES, random.nextLong(ESPACE_MATRICULES));
+        int[] proprietaires = new int[4];
+
+        for (int i = 0; i < nbVehicules; i++) {
+            int idVehicule = premier + i;
+            int[] modeles = modelesParMarque[zipf(random, modelesParMarque.length)];
+            int idModele = modeles[zipf(random, modeles.length)];
+
+            // Parc plus dense sur les années récentes
+            int age = (int) (25 * Math.pow(random.nextDouble(), 1.6));
+            int annee = reference.getYear() - age;
+            int poids = 850 + random.nextInt(1300);
+            int chevaux = 55 + (poids - 850) / 8 + random.nextInt(60);
+            int puissanceFiscale = Math.max(3, chevaux / 18 + random.nextInt(3));
+            sortie.vehicule(idVehicule, matricule(matricules.get(i)), annee, poids, chevaux, puissanceFiscale, idModele);
+
+            // Historique : de 1 à 4 propriétaires distincts, la vente ayant lieu le jour du changement
+            long debut = LocalDate.of(annee, 1, 1).toEpochDay() + random.nextInt(365);
+            long fin = reference.toEpochDay();
+            debut = Math.min(debut, fin);
+            int n = nombreProprietaires(random);
+            n = (int) Math.max(1, Math.min(n, fin - debut));
+            long[] dates = new long[n + 1];
+            dates[0] = debut;
+            for (int k = 1; k < n; k++) {
+                dates[k] = debut + 1 + random.nextLong(fin - debut - 1);
+            }
+            Arrays.sort(dates, 1, n);
+            for (int k = 0; k < n; k++) {
+                int idProprietaire;
+                do {
+                    idProprietaire = premierProprietaire + random.nextInt(nbProprietaires);
+                } while (contient(proprietaires, k, idProprietaire));
+                proprietaires[k] = idProprietaire;
+
+                LocalDate dateFin;
+                if (k < n - 1) {
+                    dateFin = LocalDate.ofEpochDay(dates[k + 1]);
+                } else if (random.nextInt(10) == 0 && dates[k] < fin) {
+                    // Véhicule détruit ou exporté : la dernière possession est close
+                    dateFin = LocalDate.ofEpochDay(dates[k] + 1 + random.nextLong(fin - dates[k]));
+                } else {
+                    dateFin = null;
+                }
+                sortie.possession(idProprietaire, idVehicule, LocalDate.ofEpochDay(dates[k]), dateFin);
+                possessions++;
+            }
+        }
+    }
+
+    private static int nombreProprietaires(SplittableRandom random) {
+        int tirage = random.nextInt(100);
+        return tirage < 50 ? 1 : tirage < 80 ? 2 : tirage < 95 ? 3 : 4;
+    }
+
+    private static boolean contient(int[] valeurs, int n, int valeur) {
+        for (int i = 0; i < n; i++) {
+            if (valeurs[i] == valeur) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int premierId(Sortie sortie, String table, String colonne) throws SQLException {
+        return sortie instanceof SortieBase ? ((SortieBase) sortie).prochainId(table, colonne) : 1;
+    }
+
+    // Rang tiré selon une loi de Zipf (poids 1/(rang+1)), par inversion approchée de la répartition
+    private static int zipf(SplittableRandom random, int n) {
+        double total = Math.log(n + 1.0);
+        int rang = (int) (Math.exp(random.nextDouble() * total) - 1);
+        return Math.min(rang, n - 1);
+    }
+
+    /**
+     * @return Le matricule SIV correspondant à un rang de l'espace des matricules
+     */
+    static String matricule(long rang) {
+        int droite = (int) (rang % PAIRES_DROITE.length);
+        rang /= PAIRES_DROITE.length;
+        int numero = (int) (rang % 999) + 1;
+        int gauche = (int) (rang / 999);
+        return PAIRES_GAUCHE[gauche] + "-" + String.format("%03d", numero) + "-" + PAIRES_DROITE[droite];
+    }
+
+    private static String[] paires(boolean gauche) {
+        List<String> paires = new ArrayList<>();
+        for (int i = 0; i < LETTRES.length(); i++) {
+            for (int j = 0; j < LETTRES.length(); j++) {
+                String paire = "" + LETTRES.charAt(i) + LETTRES.charAt(j);
+                // SS n'est jamais attribuée ; WW est réservée aux immatriculations provisoires
+                if (!paire.equals("SS") && !(gauche && paire.equals("WW"))) {
+                    paires.add(paire);
+                }
+            }
+        }
+        return paires.toArray(new String[0]);
+    }
+
+    private static String[][] communes() {
+        List<String[]> communes = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            communes.add(new String[]{String.format("750%02d", i), "Paris"});
+        }
+        for (int i = 1; i <= 16; i++) {
+            communes.add(new String[]{String.format("130%02d", i), "Marseille"});
+        }
+        for (int i = 1; i <= 9; i++) {
+            communes.add(new String[]{String.format("6900%d", i), "Lyon"});
+        }
+        String[][] villes = {
+                {"31000", "Toulouse"}, {"31200", "Toulouse"}, {"31300", "Toulouse"}, {"06000", "Nice"}, {"06100", "Nice"},
+                {"44000", "Nantes"}, {"44300", "Nantes"}, {"34000", "Montpellier"}, {"67000", "Strasbourg"},
+                {"33000", "Bordeaux"}, {"33800", "Bordeaux"}, {"59000", "Lille"}, {"35000", "Rennes"}, {"51100", "Reims"},
+                {"83000", "Toulon"}, {"42000", "Saint-Étienne"}, {"76600", "Le Havre"}, {"38000", "Grenoble"},
+                {"21000", "Dijon"}, {"49000", "Angers"}, {"30000", "Nîmes"}, {"69100", "Villeurbanne"},
+                {"63000", "Clermont-Ferrand"}, {"72000", "Le Mans"}, {"13100", "Aix-en-Provence"}, {"29200", "Brest"},
+                {"37000", "Tours"}, {"80000", "Amiens"}, {"87000", "Limoges"}, {"74000", "Annecy"}, {"66000", "Perpignan"},
+                {"57000", "Metz"}, {"25000", "Besançon"}, {"45000", "Orléans"}, {"76000", "Rouen"}, {"68100", "Mulhouse"},
+                {"14000", "Caen"}, {"54000", "Nancy"}, {"95100", "Argenteuil"}, {"93200", "Saint-Denis"},
+                {"93100", "Montreuil"}, {"59100", "Roubaix"}, {"59200", "Tourcoing"}, {"84000", "Avignon"},
+                {"86000", "Poitiers"}, {"64000", "Pau"}, {"17000", "La Rochelle"}, {"20000", "Ajaccio"},
+                {"20200", "Bastia"}, {"97200", "Fort-de-France"}, {"97400", "Saint-Denis"}, {"29000", "Quimper"},
+                {"56100", "Lorient"}, {"22000", "Saint-Brieuc"}, {"50100", "Cherbourg-en-Cotentin"}, {"62100", "Calais"},
+                {"02100", "Saint-Quentin"}, {"10000", "Troyes"}, {"18000", "Bourges"}, {"41000", "Blois"},
+                {"03100", "Montluçon"}, {"24000", "Périgueux"}, {"40000", "Mont-de-Marsan"}, {"47000", "Agen"},
+                {"81000", "Albi"}, {"12000", "Rodez"}, {"05000", "Gap"}, {"73000", "Chambéry"}, {"01000", "Bourg-en-Bresse"},
+                {"71100", "Chalon-sur-Saône"}, {"89000", "Auxerre"}, {"58000", "Nevers"}, {"88000", "Épinal"},
+                {"90000", "Belfort"}, {"08000", "Charleville-Mézières"}, {"53000", "Laval"}, {"85000", "La Roche-sur-Yon"},
+                {"79000", "Niort"}, {"16000", "Angoulême"}, {"19100", "Brive-la-Gaillarde"}, {"46000", "Cahors"},
+                {"65000", "Tarbes"}, {"09000", "Foix"}, {"11000", "Carcassonne"}, {"48000", "Mende"}, {"07000", "Privas"},
+                {"26000", "Valence"}, {"04000", "Digne-les-Bains"}, {"77000", "Melun"}, {"78000", "Versailles"},
+                {"91000", "Évry-Courcouronnes"}, {"92100", "Boulogne-Billancourt"}, {"94000", "Créteil"},
+                {"60000", "Beauvais"}, {"27000", "Évreux"}, {"28000", "Chartres"}, {"61000", "Alençon"}
+        };
+        communes.addAll(Arrays.asList(villes));
+        return communes.toArray(new String[0][]);
+    }
+
+    private static String cleModele(String nomModele, int idMarque) {
+        return nomModele.toLowerCase(Locale.ROOT) + "|" + idMarque;
+    }
+
+    /**
+     * Permutation pseudo-aléatoire de [0, taille) : un mélange bijectif sur le plus petit nombre de bits
+     * couvrant la taille (multiplications impaires et décalages xor, modulo 2^bits), réappliqué tant que
+     * le résultat sort de l'intervalle. Deux rangs distincts donnent toujours deux valeurs distinctes.
+     */
+    private static final class Permutation {
+        private final long taille;
+        private final int bits;
+        private final long masque;
+        private final long cle;
+
+        private Permutation(long taille, long cle) {
+            this.taille = taille;
+            this.bits = Math.max(2, 64 - Long.numberOfLeadingZeros(taille - 1));
+            this.masque = (1L << bits) - 1;
+            this.cle = cle & masque;
+        }
+
+        private long get(long rang) {
+            long x = rang;
+            do {
+                x = melanger(x);
+            } while (x >= taille);
+            return x;
+        }
+
+        private long melanger(long x) {
+            x = (x + cle) & masque;
+            x = (x * 0x9E3779B97F4A7C15L) & masque;
+            x ^= x >>> (bits / 2);
+            x = (x * 0xC2B2AE3D27D4EB4FL) & masque;
+            x ^= x >>> (bits / 3 + 1);
+            return x;
+        }
+    }
+
+    /**
+     * Insertion en base par lots, avec identifiants explicites, en transactions de {@value #LIGNES_PAR_TRANSACTION} lignes.
+     * Les lots sont envoyés dans l'ordre des clés étrangères.
+     */
+    private static final class SortieBase implements Sortie {
+        private final Connection conn;
+        private final PreparedStatement marques;
+        private final PreparedStatement modeles;
+        private final PreparedStatement proprietairesPs;
+        private final PreparedStatement vehicules;
+        private final PreparedStatement possessionsPs;
+        private final PreparedStatement[] ordre;
+        private final int[] enAttente = new int[5];
+        private final Map<String, Integer> marquesExistantes = new HashMap<>();
+        private final Map<String, Integer> modelesExistants = new HashMap<>();
+        private int premierProprietaire;
+        private int lignes;
+
+        private SortieBase(boolean vider) throws SQLException {
+            if (vider) {
+                vider();
+            }
+            for (Marque marque : new MarqueController().getAllMarques()) {
+                marquesExistantes.put(marque.getNomMarque().toLowerCase(Locale.ROOT), marque.getIdMarque());
+            }
+            for (Modele modele : new ModeleController().getAllModeles()) {
+                modelesExistants.put(cleModele(modele.getNom_modele(), modele.getId_marque()), modele.getId_modele());
+            }
+
+            conn = DatabaseConnection.getConnection();
+            try {
+                conn.setAutoCommit(false);
+                marques = conn.prepareStatement("INSERT INTO MARQUE (id_marque, nom_marque) VALUES (?, ?)");
+                modeles = conn.prepareStatement("INSERT INTO MODELE (id_modele, nom_modele, id_marque) VALUES (?, ?, ?)");
+                proprietairesPs = conn.prepareStatement("INSERT INTO PROPRIETAIRE (id_proprietaire, nom, prenom, adresse, cp, ville) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)");
+                vehicules = conn.prepareStatement("INSERT INTO VEHICULE (id_vehicule, matricule, annee_sortie, poids, "
+                        + "puissance_chevaux, puissance_fiscale, id_modele) VALUES (?, ?, ?, ?, ?, ?, ?)");
+                possessionsPs = conn.prepareStatement("INSERT INTO POSSEDER (id_proprietaire, id_vehicule, "
+                        + "date_debut_propriete, date_fin_propriete) VALUES (?, ?, ?, ?)");
+                ordre = new PreparedStatement[]{marques, modeles, proprietairesPs, vehicules, possessionsPs};
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+        }
+
+        private static void vider() throws SQLException {
+            try (Connection c = DatabaseConnection.getConnection();
+                 Statement stmt = c.createStatement()) {
+                for (String table : new String[]{"CURRENT_OWNER", "POSSEDER", "VEHICULE", "PROPRIETAIRE", "MODELE", "MARQUE"}) {
+                    stmt.executeUpdate("DELETE FROM " + table);
+                }
+            }
+        }
+
+        private int prochainId(String table, String colonne) throws SQLException {
+            envoyer();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(" + colonne + "), 0) + 1 FROM " + table)) {
+                rs.next();
+                int id = rs.getInt(1);
+                if (table.equals("PROPRIETAIRE")) {
+                    premierProprietaire = id;
+                }
+                return id;
+            }
+        }
+
+        @Override
+        public void marque(int id, String nom) throws SQLException {
+            marques.setInt(1, id);
+            marques.setString(2, nom);
+            ajouter(0);
+        }
+
+        @Override
+        public void modele(int id, String nom, int idMarque) throws SQLException {
+            modeles.setInt(1, id);
+            modeles.setString(2, nom);
+            modeles.setInt(3, idMarque);
+            ajouter(1);
+        }
+
+        @Override
+        public void proprietaire(int id, String nom, String prenom, String adresse, String cp, String ville)
+                throws SQLException {
+            proprietairesPs.setInt(1, id);
+            proprietairesPs.setString(2, nom);
+            proprietairesPs.setString(3, prenom);
+            proprietairesPs.setString(4, adresse);
+            proprietairesPs.setString(5, cp);
+            proprietairesPs.setString(6, ville);
+            ajouter(2);
+        }
+
+        @Override
+        public void vehicule(int id, String matricule, int annee, int poids, int chevaux, int puissanceFiscale,
+                             int idModele) throws SQLException {
+            vehicules.setInt(1, id);
+            vehicules.setString(2, matricule);
+            vehicules.setInt(3, annee);
+            vehicules.setInt(4, poids);
+            vehicules.setInt(5, chevaux);
+            vehicules.setInt(6, puissanceFiscale);
+            vehicules.setInt(7, idModele);
+            ajouter(3);
+        }
+
+        @Override
+        public void possession(int idProprietaire, int idVehicule, LocalDate debut, LocalDate fin) throws SQLException {
+            possessionsPs.setInt(1, idProprietaire);
+            possessionsPs.setInt(2, idVehicule);
+            possessionsPs.setDate(3, java.sql.Date.valueOf(debut));
+            possessionsPs.setDate(4, fin != null ? java.sql.Date.valueOf(fin) : null);
+            ajouter(4);
+        }
+
+        private void ajouter(int table) throws SQLException {
+            ordre[table].addBatch();
+            lignes++;
+            if (++enAttente[table] >= TAILLE_LOT) {
+                // Les tables parentes partent avant : les clés étrangères sont vérifiées à chaque lot
+                envoyer();
+            }
+            if (lignes >= LIGNES_PAR_TRANSACTION) {
+                envoyer();
+                conn.commit();
+                lignes = 0;
+            }
+        }
+
+        private void envoyer() throws SQLException {
+            for (int i = 0; i < ordre.length; i++) {
+                if (enAttente[i] > 0) {
+                    ordre[i].executeBatch();
+                    enAttente[i] = 0;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                envoyer();
+                conn.commit();
+            } finally {
+                // La connexion annule ce qui n'a pas été validé en revenant au pool
+                for (PreparedStatement ps : ordre) {
+                    ps.close();
+                }
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * Fichier SQL d'INSERT multi-lignes, qui remplace le contenu des tables comme data_carte_grise.sql.
+     * Les clés étrangères sont désactivées pendant le chargement : les tables sont écrites par morceaux entrelacés.
+     */
+    private static final class SortieSql implements Sortie {
+        private final BufferedWriter writer;
+        private final Map<String, StringBuilder> tampons = new HashMap<>();
+        private final Map<String, Integer> tailles = new HashMap<>();
+
+        private SortieSql(Path fichier) throws IOException {
+            writer = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8);
+            writer.write("-- Registre synthétique généré par RegistreGenerator\n"
+                    + "USE carte_grise;\n\n"
+                    + "SET FOREIGN_KEY_CHECKS = 0;\n"
+                    + "DELETE FROM CURRENT_OWNER;\nDELETE FROM POSSEDER;\nDELETE FROM VEHICULE;\nDELETE FROM PROPRIETAIRE;\n"
+                    + "DELETE FROM MODELE;\nDELETE FROM MARQUE;\n\n");
+        }
+
+        @Override
+        public void marque(int id, String nom) throws IOException {
+            ligne("MARQUE (id_marque, nom_marque)", id + ", " + texte(nom));
+        }
+
+        @Override
+        public void modele(int id, String nom, int idMarque) throws IOException {
+            ligne("MODELE (id_modele, nom_modele, id_marque)", id + ", " + texte(nom) + ", " + idMarque);
+        }
+
+        @Override
+        public void proprietaire(int id, String nom, String prenom, String adresse, String cp, String ville)
+                throws IOException {
+            ligne("PROPRIETAIRE (id_proprietaire, nom, prenom, adresse, cp, ville)", id + ", " + texte(nom) + ", "
+                    + texte(prenom) + ", " + texte(adresse) + ", " + texte(cp) + ", " + texte(ville));
+        }
+
+        @Override
+        public void vehicule(int id, String matricule, int annee, int poids, int chevaux, int puissanceFiscale,
+                             int idModele) throws IOException {
+            ligne("VEHICULE (id_vehicule, matricule, annee_sortie, poids, puissance_chevaux, puissance_fiscale, id_modele)",
+                    id + ", " + texte(matricule) + ", " + annee + ", " + poids + ", " + chevaux + ", "
+                            + puissanceFiscale + ", " + idModele);
+        }
+
+        @Override
+        public void possession(int idProprietaire, int idVehicule, LocalDate debut, LocalDate fin) throws IOException {
+            ligne("POSSEDER (id_proprietaire, id_vehicule, date_debut_propriete, date_fin_propriete)",
+                    idProprietaire + ", " + idVehicule + ", '" + debut + "', " + (fin != null ? "'" + fin + "'" : "NULL"));
+        }
+
+        private void ligne(String table, String valeurs) throws IOException {
+            StringBuilder tampon = tampons.computeIfAbsent(table, t -> new StringBuilder(64 * 1024));
+            int taille = tailles.merge(table, 1, Integer::sum);
+            tampon.append(taille == 1 ? "INSERT INTO " + table + " VALUES\n(" : ",\n(").append(valeurs).append(')');
+            if (taille >= TAILLE_LOT) {
+                vider(table);
+            }
+        }
+
+        private void vider(String table) throws IOException {
+            StringBuilder tampon = tampons.get(table);
+            if (tampon != null && tampon.length() > 0) {
+                writer.append(tampon).append(";\n\n");
+                tampon.setLength(0);
+                tailles.put(table, 0);
+            }
+        }
+
+        private static String texte(String valeur) {
+            return "'" + valeur.replace("\\", "\\\\").replace("'", "''") + "'";
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                for (String table : new ArrayList<>(tampons.keySet())) {
+                    vider(table);
+                }
+                writer.write("\n" + CurrentOwnerProjection.REMPLISSAGE_QUERY + ";\n");
+                writer.write("SET FOREIGN_KEY_CHECKS = 1;\n");
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Un fichier CSV par table (marque.csv, modele.csv, ...), séparateur ';', avec en-tête et identifiants.
+     * Chargement par exemple avec : LOAD DATA LOCAL INFILE 'vehicule.csv' INTO TABLE VEHICULE
+     * FIELDS TERMINATED BY ';' OPTIONALLY ENCLOSED BY '"' IGNORE 1 LINES.
+     * <p>
+     * Ces fichiers sont destinés à LOAD DATA uniquement, pas à {@code --import} ({@link importation.CsvImport}) :
+     * les clés étrangères y sont des identifiants et non des noms, et une date de fin absente est écrite
+     * {@code \N}. Ils ne sauraient d'ailleurs pas l'être fidèlement, des propriétaires générés pouvant partager
+     * le même nom et prénom.
+     */
+    private static final class SortieCsv implements Sortie {
+        private final BufferedWriter marques;
+        private final BufferedWriter modeles;
+        private final BufferedWriter proprietaires;
+        private final BufferedWriter vehicules;
+        private final BufferedWriter possessions;
+
+        private SortieCsv(Path repertoire) throws IOException {
+            Files.createDirectories(repertoire);
+            marques = ouvrir(repertoire, "marque.csv", "id_marque;nom_marque");
+            modeles = ouvrir(repertoire, "modele.csv", "id_modele;nom_modele;id_marque");
+            proprietaires = ouvrir(repertoire, "proprietaire.csv", "id_proprietaire;nom;prenom;adresse;cp;ville");
+            vehicules = ouvrir(repertoire, "vehicule.csv",
+                    "id_vehicule;matricule;annee_sortie;poids;puissance_chevaux;puissance_fiscale;id_modele");
+            possessions = ouvrir(repertoire, "posseder.csv",
+                    "id_proprietaire;id_vehicule;date_debut_propriete;date_fin_propriete");
+        }
+
+        private static BufferedWriter ouvrir(Path repertoire, String nom, String entete) throws IOException {
+            BufferedWriter writer = Files.newBufferedWriter(repertoire.resolve(nom), StandardCharsets.UTF_8);
+            writer.write(entete);
+            writer.write('\n');
+            return writer;
+        }
+
+        @Override
+        public void marque(int id, String nom) throws IOException {
+            marques.write(id + ";" + champ(nom) + "\n");
+        }
+
+        @Override
+        public void modele(int id, String nom, int idMarque) throws IOException {
+            modeles.write(id + ";" + champ(nom) + ";" + idMarque + "\n");
+        }
+
+        @Override
+        public void proprietaire(int id, String nom, String prenom, String adresse, String cp, String ville)
+                throws IOException {
+            proprietaires.write(id + ";" + champ(nom) + ";" + champ(prenom) + ";" + champ(adresse) + ";"
+                    + champ(cp) + ";" + champ(ville) + "\n");
+        }
+
+        @Override
+        public void vehicule(int id, String matricule, int annee, int poids, int chevaux, int puissanceFiscale,
+                             int idModele) throws IOException {
+            vehicules.write(id + ";" + matricule + ";" + annee + ";" + poids + ";" + chevaux + ";" + puissanceFiscale
+                    + ";" + idModele + "\n");
+        }
+
+        @Override
+        public void possession(int idProprietaire, int idVehicule, LocalDate debut, LocalDate fin) throws IOException {
+            // \N : valeur NULL pour LOAD DATA
+            possessions.write(idProprietaire + ";" + idVehicule + ";" + debut + ";" + (fin != null ? fin : "\\N") + "\n");
+        }
+
+        private static String champ(String valeur) {
+            if (valeur.indexOf(';') >= 0 || valeur.indexOf('"') >= 0) {
+                return '"' + valeur.replace("\"", "\"\"") + '"';
+            }
+            return valeur;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException erreur = null;
+            for (BufferedWriter writer : new BufferedWriter[]{marques, modeles, proprietaires, vehicules, possessions}) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    erreur = erreur == null ? e : erreur;
+                }
+            }
+            if (erreur != null) {
+                throw erreur;
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package serveur;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecture et écriture JSON minimales pour l'API : objets, tableaux, textes, nombres, booléens et null.
+ * Les dates sont écrites au format AAAA-MM-JJ.
+ */
+final class Json {
+    // Imbrication maximale des objets et tableaux lus : au-delà, la récursion risquerait de saturer la pile
+    private static final int PROFONDEUR_MAX = 64;
+
+    private final String texte;
+    private int position;
+    private int profondeur;
+
+    private Json(String texte) {
+        this.texte = texte;
+    }
+
+    /**
+     * @return La représentation JSON d'une valeur (Map, Collection, CharSequence, Number, Boolean, date ou null)
+     */
+    static String ecrire(Object valeur) {
+        StringBuilder sb = new StringBuilder();
+        ecrire(sb, valeur);
+        return sb.toString();
+    }
+
+    /**
+     * Lit un objet JSON. Les nombres sont rendus en Long ou en Double.
+     *
+     * @throws IllegalArgumentException Si le texte n'est pas un objet JSON valide
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> lireObjet(String texte) {
+        Json lecteur = new Json(texte);
+        Object valeur = lecteur.valeur();
+        lecteur.espaces();
+        if (!(valeur instanceof Map)) {
+            throw new IllegalArgumentException("Objet JSON attendu");
+        }
+        if (lecteur.position != texte.length()) {
+            throw lecteur.erreur("fin du texte attendue");
+        }
+        return (Map<String, Object>) valeur;
+    }
+
+    private static void ecrire(StringBuilder sb, Object valeur) {
+        if (valeur == null) {
+            sb.append("null");
+        } else if (valeur instanceof Map) {
+            sb.append('{');
+            boolean premier = true;
+            for (Map.Entry<?, ?> entree : ((Map<?, ?>) valeur).entrySet()) {
+                if (!premier) {
+                    sb.append(',');
+                }
+                premier = false;
+                echapper(sb, entree.getKey().toString());
+                sb.append(':');
+                ecrire(sb, entree.getValue());
+            }
+            sb.append('}');
+        } else if (valeur instanceof Collection) {
+            sb.append('[');
+            boolean premier = true;
+            for (Object element : (Collection<?>) valeur) {
+                if (!premier) {
+                    sb.append(',');
+                }
+                premier = false;
+                ecrire(sb, element);
+            }
+            sb.append(']');
+        } else if (valeur instanceof Number || valeur instanceof Boolean) {
+            sb.append(valeur);
+        } else if (valeur instanceof java.util.Date) {
+            echapper(sb, new java.sql.Date(((java.util.Date) valeur).getTime()).toString());
+        } else {
+            echapper(sb, valeur.toString()); // Textes, LocalDate
+        }
+    }
+
+    private static void echapper(StringBuilder sb, String texte) {
+        sb.append('"');
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    private Object valeur() {
+        espaces();
+        if (position >= texte.length()) {
+            throw erreur("valeur attendue");
+        }
+        char c = texte.charAt(position);
+        if (c == '{' || c == '[') {
+            if (++profondeur > PROFONDEUR_MAX) {
+                throw erreur("plus de " + PROFONDEUR_MAX + " niveaux d'imbrication");
+            }
+            position++;
+            Object valeur = c == '{' ? objet() : tableau();
+            profondeur--;
+            return valeur;
+        }
+        if (c == '"') {
+            return chaine();
+        }
+        if (mot("true")) {
+            return Boolean.TRUE;
+        }
+        if (mot("false")) {
+            return Boolean.FALSE;
+        }
+        if (mot("null")) {
+            return null;
+        }
+        return nombre();
+    }
+
+    private Map<String, Object> objet() {
+        Map<String, Object> objet = new LinkedHashMap<>();
+        espaces();
+        if (suivant('}')) {
+            return objet;
+        }
+        do {
+            espaces();
+            if (position >= texte.length() || texte.charAt(position) != '"') {
+                throw erreur("nom de propriété attendu");
+            }
+            String nom = chaine();
+            espaces();
+            if (!suivant(':')) {
+                throw erreur("':' attendu");
+            }
+            objet.put(nom, valeur());
+            espaces();
+        } while (suivant(','));
+        if (!suivant('}')) {
+            throw erreur("'}' attendu");
+        }
+        return objet;
+    }
+
+    private List<Object> tableau() {
+        List<Object> tableau = new ArrayList<>();
+        espaces();
+        if (suivant(']')) {
+            return tableau;
+        }
+        do {
+            tableau.add(valeur());
+            espaces();
+        } while (suivant(','));
+        if (!suivant(']')) {
+            throw erreur("']' attendu");
+        }
+        return tableau;
+    }
+
+    private String chaine() {
+        position++; // Guillemet ouvrant
+        StringBuilder sb = new StringBuilder();
+        while (position < texte.length()) {
+            char c = texte.charAt(position++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (position >= texte.length()) {
+                break;
+            }
+            char e = texte.charAt(position++);
+            switch (e) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > texte.length()) {
+                        throw erreur("séquence \\u incomplète");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(texte.substring(position, position + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw erreur("séquence \\u invalide");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    sb.append(e); // \" \\ \/
+            }
+        }
+        throw erreur("texte non terminé");
+    }
+
+    private Object nombre() {
+        int debut = position;
+        while (position < texte.length() && "+-0123456789.eE".indexOf(texte.charAt(position)) >= 0) {
+            position++;
+        }
+        String nombre = texte.substring(debut, position);
+        try {
+            if (nombre.indexOf('.') < 0 && nombre.indexOf('e') < 0 && nombre.indexOf('E') < 0) {
+                return Long.parseLong(nombre);
+            }
+            return Double.parseDouble(nombre);
+        } catch (NumberFormatException e) {
+            position = debut;
+            throw erreur("valeur invalide");
+        }
+    }
+
+    private boolean mot(String mot) {
+        if (texte.startsWith(mot, position)) {
+            position += mot.length();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean suivant(char c) {
+        if (position < texte.length() && texte.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void espaces() {
+        while (position < texte.length() && Character.isWhitespace(texte.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException erreur(String message) {
+        return new IllegalArgumentException("JSON invalide (position " + position + ") : " + message);
+    }
+
+}
@@ -0,0 +1,432 @@
+package serveur;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controllers.Dialogues;
+import controllers.PossederController;
+import controllers.ProprietaireController;
+import controllers.VehiculeController;
+import models.Posseder;
+import models.Proprietaire;
+import models.Vehicule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serveur HTTP sans interface exposant le registre en JSON aux autres administrations :
+ * <ul>
+ * <li>{@code GET /api/vehicules/{matricule}} : véhicule et propriétaire actuel ;</li>
+ * <li>{@code GET /api/vehicules/{matricule}/possessions[?date=AAAA-MM-JJ | ?du=...&au=...]} : historique
+ * des possessions, ou celles en cours à une date ou sur une période ;</li>
+ * <li>{@code GET /api/proprietaires?nom=prefixe[&limite=n]} : recherche de propriétaires par début de nom ;</li>
+ * <li>{@code POST /api/vehicules} : immatriculation d'un véhicule (matricule, anneeSortie, poids,
+ * puissanceChevaux, puissanceFiscale, modele).</li>
+ * </ul>
+ * Les erreurs sont rendues sous la forme {@code {"erreur": "..."}} avec le code HTTP correspondant.
+ * <p>
+ * Chaque requête est traitée par son propre thread virtuel lorsque la JVM en dispose (Java 21 et plus) :
+ * les appels JDBC bloquants ne monopolisent alors aucun thread système, et le nombre de requêtes simultanées
+ * n'est borné que par le pool de connexions. Sinon, un pool fixe de {@code cartegrise.serveur.threads}
+ * threads (64 par défaut) est utilisé.
+ * <p>
+ * Le serveur n'authentifie pas les appelants : il est destiné à être placé derrière un proxy inverse.
+ */
+public final class RegistreServeur {
+    private static final Logger LOGGER = Logger.getLogger(RegistreServeur.class.getName());
+
+    private static final int PORT_PAR_DEFAUT = 8080;
+    private static final int THREADS_PAR_DEFAUT = 64;
+    private static final int TAILLE_MAX_REQUETE = 64 * 1024;
+    private static final int LIMITE_PAR_DEFAUT = 50;
+    private static final int LIMITE_MAX = 500;
+    private static final int DELAI_ARRET_SECONDES = 5;
+    private static final String VEHICULES = "/api/vehicules";
+    private static final String PROPRIETAIRES = "/api/proprietaires";
+    private static final String POSSESSIONS = "/possessions";
+
+    /**
+     * Erreur rendue au client avec son code HTTP.
+     */
+    private static final class ErreurHttp extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statut;
+        private final String autorise; // En-tête Allow des réponses 405
+
+        ErreurHttp(int statut, String message) {
+            this(statut, message, null);
+        }
+
+        ErreurHttp(int statut, String message, String autorise) {
+            super(message, null, false, false);
+            this.statut = statut;
+            this.autorise = autorise;
+        }
+    }
+
+    private interface Traitement {
+        void traiter(HttpExchange echange) throws IOException;
+    }
+
+    private final VehiculeController vehiculeController = new VehiculeController();
+    private final ProprietaireController proprietaireController = new ProprietaireController();
+    private final PossederController possederController = new PossederController();
+
+    private final HttpServer serveur;
+    private final ExecutorService executor;
+
+    public RegistreServeur(InetSocketAddress adresse) throws IOException {
+        serveur = HttpServer.create(adresse, 0);
+        executor = creerExecutor();
+        serveur.setExecutor(executor);
+        serveur.createContext(VEHICULES, echange -> executer(echange, this::traiterVehicules));
+        serveur.createContext(PROPRIETAIRES, echange -> executer(echange, this::traiterProprietaires));
+    }
+
+    public static void main(String[] args) {
+        String hote = null;
+        int port = PORT_PAR_DEFAUT;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--port") && i + 1 < args.length) {
+                    port = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--adresse") && i + 1 < args.length) {
+                    hote = args[++i];
+                } else {
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Usage : --server [--port n] [--adresse hôte]");
+            System.exit(2);
+        }
+
+        // Les contrôleurs ne doivent ouvrir aucune boîte de dialogue
+        Dialogues.desactiverInterface();
+        InetSocketAddress adresse = hote != null ? new InetSocketAddress(hote, port) : new InetSocketAddress(port);
+        RegistreServeur serveur;
+        try {
+            serveur = new RegistreServeur(adresse);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Impossible d'écouter sur " + adresse, e);
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(serveur::arreter, "arret-serveur"));
+        serveur.demarrer();
+    }
+
+    public void demarrer() {
+        serveur.start();
+        LOGGER.log(Level.INFO, "Serveur du registre à l''écoute sur {0}", serveur.getAddress());
+    }
+
+    /**
+     * Arrête d'accepter des connexions, laisse quelques secondes aux requêtes en cours puis libère les threads.
+     */
+    public void arreter() {
+        serveur.stop(DELAI_ARRET_SECONDES);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(DELAI_ARRET_SECONDES, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("Serveur du registre arrêté");
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() n'existe qu'à partir de Java 21 : appel par réflexion
+    private static ExecutorService creerExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            LOGGER.info("Un thread virtuel par requête");
+            return executor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            int threads = Integer.getInteger("cartegrise.serveur.threads", THREADS_PAR_DEFAUT);
+            LOGGER.log(Level.INFO, "Threads virtuels indisponibles : pool de {0} threads", threads);
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    private void executer(HttpExchange echange, Traitement traitement) {
+        try {
+            try {
+                traitement.traiter(echange);
+            } catch (ErreurHttp e) {
+                if (e.autorise != null) {
+                    echange.getResponseHeaders().set("Allow", e.autorise);
+                }
+                repondre(echange, e.statut, erreur(e.getMessage()));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Erreur sur " + echange.getRequestMethod() + " " + echange.getRequestURI(), e);
+                repondre(echange, 500, erreur("Erreur interne"));
+            }
+        } catch (IOException e) {
+            // Client déconnecté avant la fin de la réponse
+            LOGGER.log(Level.FINE, "Réponse interrompue", e);
+        } finally {
+            echange.close();
+        }
+    }
+
+    private void traiterVehicules(HttpExchange echange) throws IOException {
+        String chemin = echange.getRequestURI().getPath();
+        if (chemin.equals(VEHICULES) || chemin.equals(VEHICULES + "/")) {
+            exigerMethode(echange, "POST");
+            immatriculer(echange);
+            return;
+        }
+        if (!chemin.startsWith(VEHICULES + "/")) {
+            throw new ErreurHttp(404, "Ressource inconnue");
+        }
+        exigerMethode(echange, "GET");
+        String reste = chemin.substring(VEHICULES.length() + 1);
+        if (reste.endsWith(POSSESSIONS)) {
+            possessions(echange, reste.substring(0, reste.length() - POSSESSIONS.length()));
+        } else if (reste.indexOf('/') < 0) {
+            Vehicule vehicule = vehiculeController.getVehiculeDetailleById(idVehicule(reste));
+            if (vehicule == null) {
+                throw new ErreurHttp(404, "Véhicule inconnu : " + reste);
+            }
+            repondre(echange, 200, Json.ecrire(vehicule(vehicule)));
+        } else {
+            throw new ErreurHttp(404, "Ressource inconnue");
+        }
+    }
+
+    private void possessions(HttpExchange echange, String matricule) throws IOException {
+        int idVehicule = idVehicule(matricule);
+        Map<String, String> parametres = parametres(echange);
+        List<Posseder> possessions;
+        if (parametres.containsKey("date")) {
+            possessions = possederController.getPossessionsALaDate(idVehicule, date(parametres, "date"));
+        } else if (parametres.containsKey("du") || parametres.containsKey("au")) {
+            possessions = possederController.getPossessionsSurPeriode(idVehicule, date(parametres, "du"),
+                    date(parametres, "au"));
+        } else {
+            possessions = possederController.getHistoriqueVehicule(idVehicule);
+        }
+        List<Map<String, Object>> liste = new ArrayList<>(possessions.size());
+        for (Posseder possession : possessions) {
+            Map<String, Object> objet = new LinkedHashMap<>();
+            objet.put("idProprietaire", possession.getIdProprietaire());
+            objet.put("proprietaire", possederController.getNomProprietaire(possession.getIdProprietaire()));
+            objet.put("debut", possession.getDateDebutPropriete());
+            objet.put("fin", possession.getDateFinPropriete());
+            liste.add(objet);
+        }
+        Map<String, Object> reponse = new LinkedHashMap<>();
+        reponse.put("matricule", matricule);
+        reponse.put("possessions", liste);
+        repondre(echange, 200, Json.ecrire(reponse));
+    }
+
+    private void traiterProprietaires(HttpExchange echange) throws IOException {
+        String chemin = echange.getRequestURI().getPath();
+        if (!chemin.equals(PROPRIETAIRES) && !chemin.equals(PROPRIETAIRES + "/")) {
+            throw new ErreurHttp(404, "Ressource inconnue");
+        }
+        exigerMethode(echange, "GET");
+        Map<String, String> parametres = parametres(echange);
+        String nom = parametres.get("nom");
+        if (nom == null || nom.trim().isEmpty()) {
+            throw new ErreurHttp(400, "Paramètre nom obligatoire");
+        }
+        int limite = LIMITE_PAR_DEFAUT;
+        if (parametres.containsKey("limite")) {
+            try {
+                limite = Integer.parseInt(parametres.get("limite"));
+            } catch (NumberFormatException e) {
+                throw new ErreurHttp(400, "Paramètre limite invalide");
+            }
+            if (limite < 1 || limite > LIMITE_MAX) {
+                throw new ErreurHttp(400, "Le paramètre limite doit être compris entre 1 et " + LIMITE_MAX);
+            }
+        }
+        List<Map<String, Object>> liste = new ArrayList<>();
+        for (Proprietaire proprietaire : proprietaireController.searchProprietaires(nom.trim(), limite)) {
+            liste.add(proprietaire(proprietaire));
+        }
+        repondre(echange, 200, Json.ecrire(liste));
+    }
+
+    private void immatriculer(HttpExchange echange) throws IOException {
+        Map<String, Object> corps;
+        try {
+            corps = Json.lireObjet(lireCorps(echange));
+        } catch (IllegalArgumentException e) {
+            throw new ErreurHttp(400, e.getMessage());
+        }
+        String matricule = texte(corps, "matricule");
+        String modele = texte(corps, "modele");
+        int anneeSortie = entier(corps, "anneeSortie");
+        double poids = nombre(corps, "poids").doubleValue();
+        int puissanceChevaux = entier(corps, "puissanceChevaux");
+        int puissanceFiscale = entier(corps, "puissanceFiscale");
+
+        if (vehiculeController.getModeleIdsByNames(Collections.singletonList(modele)).isEmpty()) {
+            throw new ErreurHttp(422, "Modèle inconnu : " + modele);
+        }
+        if (vehiculeController.existsMatricule(matricule)) {
+            throw new ErreurHttp(409, "Matricule déjà immatriculé : " + matricule);
+        }
+        Dialogues.dernierMessage(); // Oublie un message resté sur ce thread
+        int idVehicule = vehiculeController.addVehicule(matricule, anneeSortie, poids, puissanceChevaux,
+                puissanceFiscale, modele);
+        if (idVehicule == -1) {
+            String message = Dialogues.dernierMessage();
+            // Immatriculation concurrente du même matricule entre la vérification et l'insertion
+            if (vehiculeController.existsMatricule(matricule)) {
+                throw new ErreurHttp(409, message != null ? message : "Matricule déjà immatriculé : " + matricule);
+            }
+            throw new ErreurHttp(500, message != null ? message : "Échec de l'immatriculation");
+        }
+        echange.getResponseHeaders().set("Location",
+                VEHICULES + "/" + URLEncoder.encode(matricule, StandardCharsets.UTF_8));
+        Vehicule vehicule = vehiculeController.getVehiculeDetailleById(idVehicule);
+        repondre(echange, 201, Json.ecrire(vehicule != null ? vehicule(vehicule) : Map.of("id", idVehicule)));
+    }
+
+    private int idVehicule(String matricule) {
+        int idVehicule = matricule.isEmpty() ? -1 : vehiculeController.getIdByMatricule(matricule);
+        if (idVehicule == -1) {
+            throw new ErreurHttp(404, "Véhicule inconnu : " + matricule);
+        }
+        return idVehicule;
+    }
+
+    private Map<String, Object> vehicule(Vehicule vehicule) {
+        Map<String, Object> objet = new LinkedHashMap<>();
+        objet.put("id", vehicule.getIdVehicule());
+        objet.put("matricule", vehicule.getMatricule());
+        objet.put("anneeSortie", vehicule.getAnneeSortie());
+        objet.put("poids", vehicule.getPoids());
+        objet.put("puissanceChevaux", vehicule.getPuissanceChevaux());
+        objet.put("puissanceFiscale", vehicule.getPuissanceFiscale());
+        objet.put("modele", vehicule.getNomModele());
+        objet.put("marque", vehicule.getNomMarque());
+        int idProprietaire = possederController.getIdProprietaireActuel(vehicule.getIdVehicule());
+        Proprietaire proprietaire = idProprietaire != -1 ? proprietaireController.getProprietaireById(idProprietaire) : null;
+        objet.put("proprietaireActuel", proprietaire != null ? proprietaire(proprietaire) : null);
+        return objet;
+    }
+
+    private static Map<String, Object> proprietaire(Proprietaire proprietaire) {
+        Map<String, Object> objet = new LinkedHashMap<>();
+        objet.put("id", proprietaire.getId_proprietaire());
+        objet.put("nom", proprietaire.getNom());
+        objet.put("prenom", proprietaire.getPrenom());
+        objet.put("adresse", proprietaire.getAdresse());
+        objet.put("cp", proprietaire.getCp());
+        objet.put("ville", proprietaire.getVille());
+        return objet;
+    }
+
+    private static void exigerMethode(HttpExchange echange, String methode) {
+        if (!echange.getRequestMethod().equals(methode)) {
+            throw new ErreurHttp(405, "Méthode non autorisée : " + echange.getRequestMethod(), methode);
+        }
+    }
+
+    private static Map<String, String> parametres(HttpExchange echange) {
+        Map<String, String> parametres = new HashMap<>();
+        String requete = echange.getRequestURI().getRawQuery();
+        if (requete == null || requete.isEmpty()) {
+            return parametres;
+        }
+        try {
+            for (String paire : requete.split("&")) {
+                int egal = paire.indexOf('=');
+                String nom = egal < 0 ? paire : paire.substring(0, egal);
+                String valeur = egal < 0 ? "" : paire.substring(egal + 1);
+                parametres.put(URLDecoder.decode(nom, StandardCharsets.UTF_8),
+                        URLDecoder.decode(valeur, StandardCharsets.UTF_8));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ErreurHttp(400, "Paramètres de requête invalides");
+        }
+        return parametres;
+    }
+
+    private static java.util.Date date(Map<String, String> parametres, String nom) {
+        String valeur = parametres.get(nom);
+        if (valeur == null) {
+            throw new ErreurHttp(400, "Paramètre " + nom + " obligatoire");
+        }
+        try {
+            return java.sql.Date.valueOf(LocalDate.parse(valeur));
+        } catch (DateTimeParseException e) {
+            throw new ErreurHttp(400, "Date invalide pour " + nom + " (AAAA-MM-JJ attendu) : " + valeur);
+        }
+    }
+
+    private static String lireCorps(HttpExchange echange) throws IOException {
+        try (InputStream in = echange.getRequestBody()) {
+            byte[] octets = in.readNBytes(TAILLE_MAX_REQUETE + 1);
+            if (octets.length > TAILLE_MAX_REQUETE) {
+                throw new ErreurHttp(413, "Requête trop volumineuse (" + TAILLE_MAX_REQUETE + " octets au plus)");
+            }
+            return new String(octets, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String texte(Map<String, Object> corps, String nom) {
+        Object valeur = corps.get(nom);
+        if (!(valeur instanceof String) || ((String) valeur).trim().isEmpty()) {
+            throw new ErreurHttp(400, "Champ texte " + nom + " obligatoire");
+        }
+        return ((String) valeur).trim();
+    }
+
+    private static Number nombre(Map<String, Object> corps, String nom) {
+        Object valeur = corps.get(nom);
+        if (!(valeur instanceof Number)) {
+            throw new ErreurHttp(400, "Champ numérique " + nom + " obligatoire");
+        }
+        return (Number) valeur;
+    }
+
+    private static int entier(Map<String, Object> corps, String nom) {
+        Number valeur = nombre(corps, nom);
+        if (!(valeur instanceof Long) || valeur.longValue() != valeur.intValue()) {
+            throw new ErreurHttp(400, "Champ " + nom + " : entier attendu");
+        }
+        return valeur.intValue();
+    }
+
+    private static String erreur(String message) {
+        return Json.ecrire(Collections.singletonMap("erreur", message));
+    }
+
+    private static void repondre(HttpExchange echange, int statut, String json) throws IOException {
+        byte[] octets = json.getBytes(StandardCharsets.UTF_8);
+        echange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        echange.sendResponseHeaders(statut, octets.length);
+        try (OutputStream out = echange.getResponseBody()) {
+            out.write(octets);
+        }
+    }
+}
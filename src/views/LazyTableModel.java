@@ -0,0 +1,321 @@
+package views;
+
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Modèle de table virtualisé : seul le nombre de lignes est chargé à l'ouverture,
+ * les lignes elles-mêmes sont lues par fenêtres de {@code pageSize} lorsque la table les affiche.
+ * Un nombre borné de fenêtres est conservé en mémoire (les moins récemment lues sont oubliées).
+ * <p>
+ * Le comptage et la lecture des fenêtres s'exécutent hors de l'EDT (SwingWorker) : une ligne
+ * pas encore chargée s'affiche vide puis est repeinte à l'arrivée de sa fenêtre. Toutes les
+ * méthodes publiques doivent être appelées depuis l'EDT.
+ *
+ * @param <T> Type des objets affichés sur chaque ligne
+ */
+public class LazyTableModel<T> extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(LazyTableModel.class.getName());
+    private static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int DEFAULT_MAX_PAGES = 10;
+
+    /**
+     * Charge une fenêtre de lignes à partir d'un rang donné.
+     */
+    public interface PageLoader<T> {
+        List<T> load(int offset, int limit);
+    }
+
+    /**
+     * Charge les lignes qui suivent une ligne donnée (pagination par clé).
+     */
+    public interface SeekLoader<T> {
+        List<T> loadAfter(T last, int limit);
+    }
+
+    /**
+     * Extrait la valeur d'une colonne pour un objet de ligne.
+     */
+    public interface ColumnValue<T> {
+        Object valueAt(T row, int column);
+    }
+
+    private final String[] columnNames;
+    private final IntSupplier rowCounter;
+    private final PageLoader<T> loader;
+    private SeekLoader<T> seekLoader;
+    private final ColumnValue<T> columnValue;
+    private final int pageSize;
+    private final Map<Integer, List<T>> pages;
+    private int rowCount;
+
+    // Chargements en cours, par fenêtre, et comptage en cours
+    private final Map<Integer, SwingWorker<?, ?>> pageWorkers = new HashMap<>();
+    private SwingWorker<Integer, Void> countWorker;
+    // Fenêtres raccourcies par une suppression locale, à relire si une de leurs lignes manque
+    private final Set<Integer> shortenedPages = new HashSet<>();
+    // Incrémentée à chaque changement de structure : les résultats des chargements antérieurs sont ignorés
+    private int generation;
+    private Consumer<Boolean> loadingListener = loading -> { };
+
+    public LazyTableModel(String[] columnNames, IntSupplier rowCounter, PageLoader<T> loader, ColumnValue<T> columnValue) {
+        this(columnNames, rowCounter, loader, columnValue, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    public LazyTableModel(String[] columnNames, IntSupplier rowCounter, PageLoader<T> loader, ColumnValue<T> columnValue,
+                          int pageSize, int maxPages) {
+        this.columnNames = columnNames;
+        this.rowCounter = rowCounter;
+        this.loader = loader;
+        this.columnValue = columnValue;
+        this.pageSize = pageSize;
+        // Cache LRU des fenêtres déjà lues
+        this.pages = new LinkedHashMap<Integer, List<T>>(maxPages + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+        reload();
+    }
+
+    /**
+     * Active la pagination par clé : lorsqu'une fenêtre est demandée et que la précédente est complète
+     * en mémoire (cas du défilement), elle est lue à partir de la dernière ligne connue plutôt que par
+     * OFFSET, ce qui évite au serveur de parcourir toutes les lignes précédentes.
+     */
+    public void setSeekLoader(SeekLoader<T> seekLoader) {
+        this.seekLoader = seekLoader;
+    }
+
+    /**
+     * Enregistre un écouteur prévenu lorsque le modèle commence (true) ou finit (false) de charger.
+     */
+    public void setLoadingListener(Consumer<Boolean> loadingListener) {
+        this.loadingListener = loadingListener;
+        loadingListener.accept(isLoading());
+    }
+
+    /**
+     * @return true si un comptage ou une lecture de fenêtre est en cours
+     */
+    public boolean isLoading() {
+        return countWorker != null || !pageWorkers.isEmpty();
+    }
+
+    /**
+     * Recompte les lignes (en arrière-plan) et oublie toutes les fenêtres chargées.
+     */
+    public void reload() {
+        invalidate();
+        pages.clear();
+        shortenedPages.clear();
+
+        int expected = generation;
+        countWorker = new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return rowCounter.getAsInt();
+            }
+
+            @Override
+            protected void done() {
+                if (expected != generation) {
+                    return;
+                }
+                countWorker = null;
+                try {
+                    rowCount = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    LOGGER.log(Level.SEVERE, "Erreur lors du comptage des lignes", e);
+                    rowCount = 0;
+                }
+                fireTableDataChanged();
+                fireLoadingChanged();
+            }
+        };
+        fireLoadingChanged();
+        countWorker.execute();
+    }
+
+    /**
+     * Annule tous les chargements en cours ; les lignes manquantes seront redemandées au prochain affichage.
+     */
+    public void cancel() {
+        invalidate();
+        fireLoadingChanged();
+    }
+
+    /**
+     * @return L'objet affiché à la ligne donnée, ou null s'il n'est pas (encore) chargé
+     */
+    public T getRow(int rowIndex) {
+        int pageIndex = rowIndex / pageSize;
+        int offsetInPage = rowIndex % pageSize;
+        List<T> page = pages.get(pageIndex);
+        if (page == null
+                || (offsetInPage >= page.size() && rowIndex < rowCount && shortenedPages.contains(pageIndex))) {
+            requestPage(pageIndex);
+        }
+        return page != null && offsetInPage < page.size() ? page.get(offsetInPage) : null;
+    }
+
+    /**
+     * Ajoute une ligne en fin de table (les listings sont triés par identifiant croissant,
+     * une ligne nouvellement insérée est donc toujours la dernière).
+     */
+    public void appendRow(T row) {
+        int rowIndex = rowCount;
+        List<T> page = pages.get(rowIndex / pageSize);
+        if (page != null && page.size() == rowIndex % pageSize) {
+            page.add(row);
+        }
+        rowCount++;
+        fireTableRowsInserted(rowIndex, rowIndex);
+    }
+
+    /**
+     * Remplace l'objet affiché à une ligne donnée.
+     */
+    public void updateRow(int rowIndex, T row) {
+        List<T> page = pages.get(rowIndex / pageSize);
+        int offsetInPage = rowIndex % pageSize;
+        if (page != null && offsetInPage < page.size()) {
+            page.set(offsetInPage, row);
+        }
+        fireTableRowsUpdated(rowIndex, rowIndex);
+    }
+
+    /**
+     * Retire une ligne. Les fenêtres suivantes sont oubliées : leurs rangs ont glissé d'une position
+     * et elles seront relues à la demande.
+     */
+    public void removeRow(int rowIndex) {
+        if (countWorker != null) {
+            // Le comptage en cours inclura déjà la suppression : on recharge simplement
+            reload();
+            return;
+        }
+        // Les fenêtres en cours de lecture ont été demandées avec des rangs désormais décalés
+        invalidate();
+        int pageIndex = rowIndex / pageSize;
+        List<T> page = pages.get(pageIndex);
+        int offsetInPage = rowIndex % pageSize;
+        if (page != null && offsetInPage < page.size()) {
+            page.remove(offsetInPage);
+            shortenedPages.add(pageIndex);
+        }
+        pages.keySet().removeIf(index -> index > pageIndex);
+        shortenedPages.removeIf(index -> index > pageIndex);
+        rowCount--;
+        fireTableRowsDeleted(rowIndex, rowIndex);
+        fireLoadingChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        T row = getRow(rowIndex);
+        return row == null ? "" : columnValue.valueAt(row, columnIndex);
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false;
+    }
+
+    // Lance la lecture d'une fenêtre en arrière-plan, si elle n'est pas déjà en cours
+    private void requestPage(int pageIndex) {
+        if (pageWorkers.containsKey(pageIndex)) {
+            return;
+        }
+        int expected = generation;
+        T previousLast = lastRowOfCompletePage(pageIndex - 1);
+        SwingWorker<List<T>, Void> worker = new SwingWorker<List<T>, Void>() {
+            @Override
+            protected List<T> doInBackground() {
+                if (previousLast != null) {
+                    return seekLoader.loadAfter(previousLast, pageSize);
+                }
+                return loader.load(pageIndex * pageSize, pageSize);
+            }
+
+            @Override
+            protected void done() {
+                if (expected != generation) {
+                    return;
+                }
+                pageWorkers.remove(pageIndex);
+                try {
+                    pages.put(pageIndex, new ArrayList<>(get()));
+                    shortenedPages.remove(pageIndex);
+                    int first = pageIndex * pageSize;
+                    int last = Math.min(rowCount, first + pageSize) - 1;
+                    if (last >= first) {
+                        fireTableRowsUpdated(first, last);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    LOGGER.log(Level.SEVERE, "Erreur lors du chargement d'une fenêtre de lignes", e);
+                }
+                fireLoadingChanged();
+            }
+        };
+        pageWorkers.put(pageIndex, worker);
+        fireLoadingChanged();
+        worker.execute();
+    }
+
+    // Dernière ligne d'une fenêtre complète en mémoire, point de départ d'une lecture par clé (null sinon)
+    private T lastRowOfCompletePage(int pageIndex) {
+        if (seekLoader == null || pageIndex < 0 || shortenedPages.contains(pageIndex)) {
+            return null;
+        }
+        List<T> page = pages.get(pageIndex);
+        return page != null && page.size() == pageSize ? page.get(pageSize - 1) : null;
+    }
+
+    // Annule les chargements en cours et rend leurs résultats caducs
+    private void invalidate() {
+        generation++;
+        if (countWorker != null) {
+            countWorker.cancel(true);
+            countWorker = null;
+        }
+        for (SwingWorker<?, ?> worker : pageWorkers.values()) {
+            worker.cancel(true);
+        }
+        pageWorkers.clear();
+    }
+
+    private void fireLoadingChanged() {
+        loadingListener.accept(isLoading());
+    }
+}
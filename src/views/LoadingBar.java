@@ -0,0 +1,54 @@
+package views;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Barre d'état affichée pendant un chargement en arrière-plan :
+ * une barre de progression (indéterminée si le total est inconnu) et un bouton d'annulation.
+ */
+public class LoadingBar extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JButton cancelButton = new JButton("Annuler");
+
+    public LoadingBar(Runnable onCancel) {
+        super(new BorderLayout(5, 0));
+        progressBar.setStringPainted(true);
+        cancelButton.addActionListener(e -> onCancel.run());
+        add(progressBar, BorderLayout.CENTER);
+        add(cancelButton, BorderLayout.EAST);
+        setVisible(false);
+    }
+
+    /**
+     * Affiche la barre en mode indéterminé.
+     */
+    public void start() {
+        progressBar.setIndeterminate(true);
+        progressBar.setString("Chargement...");
+        setVisible(true);
+    }
+
+    /**
+     * Met à jour l'avancement ; un total négatif ou nul laisse la barre indéterminée.
+     */
+    public void setProgress(int done, int total) {
+        if (total > 0) {
+            progressBar.setIndeterminate(false);
+            progressBar.setMaximum(total);
+            progressBar.setValue(Math.min(done, total));
+            progressBar.setString(done + " / " + total);
+        } else {
+            progressBar.setString(done + " lignes");
+        }
+    }
+
+    /**
+     * Masque la barre une fois le chargement terminé ou annulé.
+     */
+    public void stop() {
+        setVisible(false);
+    }
+}
@@ -5,10 +5,11 @@ import models.Marque;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
 
 public class MarqueView extends JFrame {
     private MarqueController controller;
+    private LazyTableModel<Marque> tableModel;
+    private JTable table;
 
     public MarqueView() {
         controller = new MarqueController();
@@ -18,38 +19,29 @@ public class MarqueView extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        // Panel principal
-        JPanel panel = new JPanel();
-        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-
-        // Charger les marques
-        List<Marque> marques = controller.getAllMarques();
-        for (Marque marque : marques) {
-            JPanel marquePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            JLabel marqueLabel = new JLabel(marque.getNomMarque());
-
-            JButton modifyButton = new JButton("Modifier");
-            modifyButton.addActionListener(e -> {
-                String newName = JOptionPane.showInputDialog(this, "Nouveau nom :", marque.getNomMarque());
-                if (newName != null && !newName.isEmpty()) {
-                    controller.updateMarque(marque.getIdMarque(), newName);
-                    refreshView();
-                }
-            });
-
-            JButton deleteButton = new JButton("Supprimer");
-            deleteButton.addActionListener(e -> {
-                controller.deleteMarque(marque.getIdMarque());
-                refreshView();
-            });
-
-            marquePanel.add(marqueLabel);
-            marquePanel.add(modifyButton);
-            marquePanel.add(deleteButton);
-            panel.add(marquePanel);
-        }
+        // Table virtualisée : les marques sont lues par fenêtres au défilement
+        tableModel = new LazyTableModel<>(
+                new String[]{"Marque"},
+                controller::countMarques,
+                controller::getMarquesPage,
+                (marque, column) -> marque.getNomMarque());
+        tableModel.setSeekLoader((last, limit) -> controller.getMarquesApres(last.getIdMarque(), limit));
+        table = new JTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // Barre de chargement : le comptage et les fenêtres sont lus en arrière-plan
+        LoadingBar loadingBar = new LoadingBar(tableModel::cancel);
+        tableModel.setLoadingListener(loading -> {
+            if (loading) {
+                loadingBar.start();
+            } else {
+                loadingBar.stop();
+            }
+        });
+        add(loadingBar, BorderLayout.NORTH);
 
-        // Panel pour les boutons "Ajouter" et "Retour"
+        // Panel pour les boutons
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
 
         // Bouton d'ajout
@@ -57,31 +49,68 @@ public class MarqueView extends JFrame {
         addButton.addActionListener(e -> {
             String newName = JOptionPane.showInputDialog(this, "Nom de la nouvelle marque :");
             if (newName != null && !newName.isEmpty()) {
-                controller.addMarque(newName);
-                refreshView();
+                int idMarque = controller.addMarque(newName);
+                if (idMarque != -1) {
+                    tableModel.appendRow(new Marque(idMarque, newName));
+                }
             }
         });
 
+        // Bouton de modification de la marque sélectionnée
+        JButton modifyButton = new JButton("Modifier");
+        modifyButton.addActionListener(e -> {
+            int row = getSelectedModelRow();
+            if (row == -1) {
+                return;
+            }
+            Marque marque = tableModel.getRow(row);
+            String newName = JOptionPane.showInputDialog(this, "Nouveau nom :", marque.getNomMarque());
+            if (newName != null && !newName.isEmpty()) {
+                if (controller.updateMarque(marque.getIdMarque(), newName)) {
+                    tableModel.updateRow(row, new Marque(marque.getIdMarque(), newName));
+                }
+            }
+        });
+
+        // Bouton de suppression de la marque sélectionnée
+        JButton deleteButton = new JButton("Supprimer");
+        deleteButton.addActionListener(e -> {
+            int row = getSelectedModelRow();
+            if (row == -1) {
+                return;
+            }
+            if (controller.deleteMarque(tableModel.getRow(row).getIdMarque())) {
+                tableModel.removeRow(row);
+            }
+        });
+
+        // Bouton de rechargement complet
+        JButton refreshButton = new JButton("Actualiser");
+        refreshButton.addActionListener(e -> tableModel.reload());
+
         // Bouton retour
         JButton backButton = new JButton("Retour");
         backButton.addActionListener(e -> dispose());
 
         // Ajouter les boutons au panel
         buttonPanel.add(addButton);
+        buttonPanel.add(modifyButton);
+        buttonPanel.add(deleteButton);
+        buttonPanel.add(refreshButton);
         buttonPanel.add(backButton);
-
-        panel.add(buttonPanel);
-
-        // Scroller
-        JScrollPane scrollPane = new JScrollPane(panel);
-        add(scrollPane);
+        add(buttonPanel, BorderLayout.SOUTH);
 
         setVisible(true);
     }
 
-    // Rafraîchir la vue
-    private void refreshView() {
-        dispose();
-        new MarqueView();
+    // Retourne l'indice (dans le modèle) de la ligne sélectionnée, ou -1 avec un avertissement
+    private int getSelectedModelRow() {
+        int selectedRow = table.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Veuillez sélectionner une marque.", "Avertissement", JOptionPane.WARNING_MESSAGE);
+            return -1;
+        }
+        int row = table.convertRowIndexToModel(selectedRow);
+        return tableModel.getRow(row) != null ? row : -1; // Ligne pas encore chargée
     }
 }
@@ -5,10 +5,11 @@ import models.Modele;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
 
 public class ModeleView extends JFrame {
     private ModeleController controller;
+    private LazyTableModel<Modele> tableModel;
+    private JTable table;
 
     public ModeleView() {
         controller = new ModeleController();
@@ -18,66 +19,29 @@ public class ModeleView extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        // Panel principal
-        JPanel panel = new JPanel();
-        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS)); // Disposition verticale
-
-        // Charger les modèles
-        List<Modele> modeles = controller.getAllModeles();
-        for (Modele modele : modeles) {
-            String nomMarque = controller.getNomMarqueById(modele.getId_marque());
-
-            // Créer un panel pour chaque modèle avec un FlowLayout
-            JPanel modelePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            JLabel modeleLabel = new JLabel(modele.getNom_modele() + " (Marque : " + nomMarque + ")");
-
-            // Bouton Modifier
-            JButton modifyButton = new JButton("Modifier");
-            modifyButton.addActionListener(e -> {
-                JTextField nomField = new JTextField(modele.getNom_modele());
-                JTextField marqueField = new JTextField(nomMarque);
-                Object[] message = {
-                        "Nom du modèle :", nomField,
-                        "Nom de la marque associée :", marqueField
-                };
-
-                int option = JOptionPane.showConfirmDialog(this, message, "Modifier un Modèle", JOptionPane.OK_CANCEL_OPTION);
-                if (option == JOptionPane.OK_OPTION) {
-                    try {
-                        String newNom = nomField.getText();
-                        String newNomMarque = marqueField.getText(); // Nom de la marque
-                        controller.updateModele(modele.getId_modele(), newNom, newNomMarque);
-                        refreshView();
-                    } catch (Exception ex) {
-                        showErrorMessage("Une erreur est survenue lors de la modification du modèle.");
-                    }
-                }
-            });
-
-            // Bouton Supprimer
-            JButton deleteButton = new JButton("Supprimer");
-            deleteButton.addActionListener(e -> {
-                int confirmation = JOptionPane.showConfirmDialog(this,
-                        "Êtes-vous sûr de vouloir supprimer ce modèle ?",
-                        "Confirmation", JOptionPane.YES_NO_OPTION);
-                if (confirmation == JOptionPane.YES_OPTION) {
-                    try {
-                        controller.deleteModele(modele.getId_modele());
-                        refreshView();
-                    } catch (Exception ex) {
-                        showErrorMessage("Une erreur est survenue lors de la suppression du modèle.");
-                    }
-                }
-            });
-
-            // Ajouter les composants au panel
-            modelePanel.add(modeleLabel);
-            modelePanel.add(modifyButton);
-            modelePanel.add(deleteButton);
-            panel.add(modelePanel);
-        }
+        // Table virtualisée : les modèles (avec leur marque) sont lus par fenêtres au défilement
+        tableModel = new LazyTableModel<>(
+                new String[]{"Modèle", "Marque"},
+                controller::countModeles,
+                controller::getModelesAvecMarquePage,
+                (modele, column) -> column == 0 ? modele.getNom_modele() : modele.getNom_marque());
+        tableModel.setSeekLoader((last, limit) -> controller.getModelesAvecMarqueApres(last.getId_modele(), limit));
+        table = new JTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // Barre de chargement : le comptage et les fenêtres sont lus en arrière-plan
+        LoadingBar loadingBar = new LoadingBar(tableModel::cancel);
+        tableModel.setLoadingListener(loading -> {
+            if (loading) {
+                loadingBar.start();
+            } else {
+                loadingBar.stop();
+            }
+        });
+        add(loadingBar, BorderLayout.NORTH);
 
-        // Panel pour les boutons "Ajouter" et "Retour"
+        // Panel pour les boutons
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
 
         // Bouton "Ajouter un Modèle"
@@ -95,37 +59,95 @@ public class ModeleView extends JFrame {
                 try {
                     String nom = nomField.getText();
                     String nomMarque = marqueField.getText(); // Utiliser le nom de la marque
-                    controller.addModele(nom, nomMarque);
-                    refreshView();
+                    int idModele = controller.addModele(nom, nomMarque);
+                    if (idModele != -1) {
+                        tableModel.appendRow(controller.getModeleAvecMarqueById(idModele));
+                    }
                 } catch (Exception ex) {
                     showErrorMessage("Une erreur est survenue lors de l'ajout du modèle.");
                 }
             }
         });
 
+        // Bouton Modifier
+        JButton modifyButton = new JButton("Modifier");
+        modifyButton.addActionListener(e -> {
+            int row = getSelectedModelRow();
+            if (row == -1) {
+                return;
+            }
+            Modele modele = tableModel.getRow(row);
+            JTextField nomField = new JTextField(modele.getNom_modele());
+            JTextField marqueField = new JTextField(modele.getNom_marque());
+            Object[] message = {
+                    "Nom du modèle :", nomField,
+                    "Nom de la marque associée :", marqueField
+            };
+
+            int option = JOptionPane.showConfirmDialog(this, message, "Modifier un Modèle", JOptionPane.OK_CANCEL_OPTION);
+            if (option == JOptionPane.OK_OPTION) {
+                try {
+                    String newNom = nomField.getText();
+                    String newNomMarque = marqueField.getText(); // Nom de la marque
+                    if (controller.updateModele(modele.getId_modele(), newNom, newNomMarque)) {
+                        tableModel.updateRow(row, controller.getModeleAvecMarqueById(modele.getId_modele()));
+                    }
+                } catch (Exception ex) {
+                    showErrorMessage("Une erreur est survenue lors de la modification du modèle.");
+                }
+            }
+        });
+
+        // Bouton Supprimer
+        JButton deleteButton = new JButton("Supprimer");
+        deleteButton.addActionListener(e -> {
+            int row = getSelectedModelRow();
+            if (row == -1) {
+                return;
+            }
+            int confirmation = JOptionPane.showConfirmDialog(this,
+                    "Êtes-vous sûr de vouloir supprimer ce modèle ?",
+                    "Confirmation", JOptionPane.YES_NO_OPTION);
+            if (confirmation == JOptionPane.YES_OPTION) {
+                try {
+                    if (controller.deleteModele(tableModel.getRow(row).getId_modele())) {
+                        tableModel.removeRow(row);
+                    }
+                } catch (Exception ex) {
+                    showErrorMessage("Une erreur est survenue lors de la suppression du modèle.");
+                }
+            }
+        });
+
+        // Bouton "Actualiser" : rechargement complet à la demande
+        JButton refreshButton = new JButton("Actualiser");
+        refreshButton.addActionListener(e -> tableModel.reload());
+
         // Bouton "Retour"
         JButton backButton = new JButton("Retour");
         backButton.addActionListener(e -> dispose());
 
         // Ajouter les boutons au panel
         buttonPanel.add(addButton);
+        buttonPanel.add(modifyButton);
+        buttonPanel.add(deleteButton);
+        buttonPanel.add(refreshButton);
         buttonPanel.add(backButton);
-
-        // Ajouter le panel des boutons au panneau principal
-        panel.add(buttonPanel);
-
-        // Ajouter un JScrollPane pour la barre de défilement
-        JScrollPane scrollPane = new JScrollPane(panel);
-        add(scrollPane);
+        add(buttonPanel, BorderLayout.SOUTH);
 
         // Rendre visible
         setVisible(true);
     }
 
-    // Méthode pour rafraîchir la vue
-    private void refreshView() {
-        dispose();
-        new ModeleView(); // Recharger la vue avec les nouveaux modèles
+    // Retourne l'indice (dans le modèle) de la ligne sélectionnée, ou -1 avec un avertissement
+    private int getSelectedModelRow() {
+        int selectedRow = table.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Veuillez sélectionner un modèle.", "Avertissement", JOptionPane.WARNING_MESSAGE);
+            return -1;
+        }
+        int row = table.convertRowIndexToModel(selectedRow);
+        return tableModel.getRow(row) != null ? row : -1; // Ligne pas encore chargée
     }
 
     // Afficher un message d'erreur
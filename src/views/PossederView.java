@@ -2,15 +2,21 @@ package views;
 
 import controllers.PossederController;
 import models.Posseder;
+import models.PossederCritere;
+import models.PossederDetail;
 
 import javax.swing.*;
+import javax.swing.event.RowSorterEvent;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Interface graphique pour la gestion des relations de possession entre propriétaires et véhicules.
@@ -19,16 +25,39 @@ import java.util.Optional;
 public class PossederView extends JFrame {
     // Constantes pour améliorer la lisibilité et faciliter les modifications
     private static final String TITLE = "Gestion des Propriétés de Véhicules";
-    private static final int WIDTH = 800;
+    private static final int WIDTH = 1150;
     private static final int HEIGHT = 500;
     private static final String DATE_FORMAT = "yyyy-MM-dd";
     private static final String[] COLUMN_NAMES = {"Nom Propriétaire", "Modèle Véhicule", "Date Début", "Date Fin"};
+    // Tri SQL correspondant à chaque colonne de la table
+    private static final PossederCritere.Tri[] COLUMN_SORTS = {
+        PossederCritere.Tri.NOM, PossederCritere.Tri.MODELE, PossederCritere.Tri.DATE_DEBUT, PossederCritere.Tri.DATE_FIN
+    };
+    // Nombre maximal de lignes demandées au serveur
+    private static final int MAX_ROWS = 1000;
     
     // Composants de l'interface graphique
     private final JTable table;
     private final DefaultTableModel tableModel;
     private final PossederController possederController;
     
+    // Lignes affichées, dans l'ordre du modèle de table (conservent les identifiants)
+    private List<PossederDetail> rows = new ArrayList<>();
+    
+    // Chargement en arrière-plan en cours (null si aucun) et sa barre de progression
+    private SwingWorker<Void, PossederDetail> loader;
+    private final LoadingBar loadingBar;
+    
+    // Barre de filtres (appliqués côté serveur) et tri côté serveur
+    private final JTextField nomFilterField = new JTextField(8);
+    private final JTextField modeleFilterField = new JTextField(8);
+    private final JTextField matriculeFilterField = new JTextField(8);
+    private final JTextField duFilterField = new JTextField(8);
+    private final JTextField auFilterField = new JTextField(8);
+    private final JCheckBox actuelsFilterBox = new JCheckBox("Actuels uniquement");
+    private final JLabel statusLabel = new JLabel(" ");
+    private final ServerSortRowSorter sorter;
+    
     // Formatter pour la manipulation des dates
     private final SimpleDateFormat dateFormatter = new SimpleDateFormat(DATE_FORMAT);
 
@@ -52,10 +81,28 @@ public class PossederView extends JFrame {
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         table.getTableHeader().setReorderingAllowed(false);
         
+        // Le clic sur un en-tête relance la requête avec l'ORDER BY correspondant
+        sorter = new ServerSortRowSorter(tableModel);
+        sorter.addRowSorterListener(e -> {
+            if (e.getType() == RowSorterEvent.Type.SORT_ORDER_CHANGED) {
+                refreshTable();
+            }
+        });
+        table.setRowSorter(sorter);
+        
         // Ajout d'un panneau de défilement pour la table
         JScrollPane scrollPane = new JScrollPane(table);
         add(scrollPane, BorderLayout.CENTER);
         
+        // Barre de filtres et barre de progression du chargement, avec annulation
+        loadingBar = new LoadingBar(this::cancelLoading);
+        JPanel northPanel = new JPanel();
+        northPanel.setLayout(new BoxLayout(northPanel, BoxLayout.Y_AXIS));
+        northPanel.add(createFilterPanel());
+        northPanel.add(statusLabel);
+        northPanel.add(loadingBar);
+        add(northPanel, BorderLayout.NORTH);
+        
         // Création des boutons et du panneau de boutons
         JPanel buttonPanel = createButtonPanel();
         add(buttonPanel, BorderLayout.SOUTH);
@@ -78,6 +125,7 @@ public class PossederView extends JFrame {
         JButton addButton = new JButton("Ajouter");
         JButton updateButton = new JButton("Modifier");
         JButton deleteButton = new JButton("Supprimer");
+        JButton sellButton = new JButton("Vendre");
         JButton backButton = new JButton("Retour");
         JButton refreshButton = new JButton("Actualiser");
         
@@ -85,6 +133,7 @@ public class PossederView extends JFrame {
         addButton.addActionListener(e -> showAddDialog());
         updateButton.addActionListener(e -> showUpdateDialog());
         deleteButton.addActionListener(e -> deleteSelectedRow());
+        sellButton.addActionListener(e -> showSellDialog());
         backButton.addActionListener(e -> dispose());
         refreshButton.addActionListener(e -> refreshTable());
         
@@ -92,12 +141,73 @@ public class PossederView extends JFrame {
         buttonPanel.add(addButton);
         buttonPanel.add(updateButton);
         buttonPanel.add(deleteButton);
+        buttonPanel.add(sellButton);
         buttonPanel.add(refreshButton);
         buttonPanel.add(backButton);
         
         return buttonPanel;
     }
 
+    /**
+     * Crée la barre de filtres.
+     * @return Le panneau de filtres configuré
+     */
+    private JPanel createFilterPanel() {
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        
+        JButton filterButton = new JButton("Filtrer");
+        JButton clearButton = new JButton("Effacer");
+        filterButton.addActionListener(e -> refreshTable());
+        clearButton.addActionListener(e -> {
+            nomFilterField.setText("");
+            modeleFilterField.setText("");
+            matriculeFilterField.setText("");
+            duFilterField.setText("");
+            auFilterField.setText("");
+            actuelsFilterBox.setSelected(false);
+            refreshTable();
+        });
+        
+        filterPanel.add(new JLabel("Nom commence par:"));
+        filterPanel.add(nomFilterField);
+        filterPanel.add(new JLabel("Modèle:"));
+        filterPanel.add(modeleFilterField);
+        filterPanel.add(new JLabel("Matricule:"));
+        filterPanel.add(matriculeFilterField);
+        filterPanel.add(new JLabel("Du:"));
+        filterPanel.add(duFilterField);
+        filterPanel.add(new JLabel("Au:"));
+        filterPanel.add(auFilterField);
+        filterPanel.add(actuelsFilterBox);
+        filterPanel.add(filterButton);
+        filterPanel.add(clearButton);
+        
+        return filterPanel;
+    }
+
+    /**
+     * Construit les critères de recherche à partir de la barre de filtres et du tri courant.
+     * @return Les critères à transmettre au contrôleur
+     * @throws ParseException Si une date de filtre est mal formée
+     */
+    private PossederCritere buildCritere() throws ParseException {
+        PossederCritere critere = new PossederCritere();
+        critere.setPrefixeNom(nomFilterField.getText());
+        critere.setNomModele(modeleFilterField.getText());
+        critere.setMatricule(matriculeFilterField.getText());
+        critere.setDu(duFilterField.getText().trim().isEmpty() ? null : dateFormatter.parse(duFilterField.getText().trim()));
+        critere.setAu(auFilterField.getText().trim().isEmpty() ? null : dateFormatter.parse(auFilterField.getText().trim()));
+        critere.setActuelsSeulement(actuelsFilterBox.isSelected());
+        critere.setLimite(MAX_ROWS);
+        
+        List<? extends RowSorter.SortKey> sortKeys = sorter.getSortKeys();
+        if (!sortKeys.isEmpty()) {
+            critere.setTri(COLUMN_SORTS[sortKeys.get(0).getColumn()]);
+            critere.setCroissant(sortKeys.get(0).getSortOrder() != SortOrder.DESCENDING);
+        }
+        return critere;
+    }
+
     /**
      * Affiche la boîte de dialogue pour ajouter une nouvelle relation POSSEDER.
      */
@@ -185,9 +295,10 @@ public class PossederView extends JFrame {
             String originalDateDebut = table.getValueAt(selectedRow, 2).toString();
             String originalDateFin = table.getValueAt(selectedRow, 3).toString();
             
-            // Récupération des identifiants
-            int originalIdProprietaire = possederController.getIdProprietaire(originalNomProprietaire);
-            int originalIdVehicule = possederController.getIdVehiculeParModele(originalNomModele);
+            // Récupération des identifiants portés par la ligne
+            PossederDetail original = rows.get(table.convertRowIndexToModel(selectedRow));
+            int originalIdProprietaire = original.getIdProprietaire();
+            int originalIdVehicule = original.getIdVehicule();
             
             // Création des champs de saisie pré-remplis
             JTextField proprietaireField = new JTextField(originalNomProprietaire);
@@ -241,9 +352,11 @@ public class PossederView extends JFrame {
                     throw new IllegalArgumentException("Modèle de véhicule introuvable: " + nomModele);
                 }
                 
-                // Suppression de l'ancienne relation et ajout de la nouvelle
-                possederController.deletePosseder(originalIdProprietaire, originalIdVehicule);
-                possederController.addPosseder(new Posseder(idProprietaire, idVehicule, dateDebut, dateFin));
+                // Modification de la relation en une seule instruction
+                if (!possederController.updatePosseder(originalIdProprietaire, originalIdVehicule,
+                        new Posseder(idProprietaire, idVehicule, dateDebut, dateFin))) {
+                    throw new IllegalStateException("La relation a été supprimée entre-temps.");
+                }
                 
                 refreshTable();
                 JOptionPane.showMessageDialog(this, "Relation de propriété modifiée avec succès.", "Succès", JOptionPane.INFORMATION_MESSAGE);
@@ -255,6 +368,66 @@ public class PossederView extends JFrame {
         }
     }
 
+    /**
+     * Affiche la boîte de dialogue de vente du véhicule de la ligne sélectionnée : la propriété
+     * du propriétaire affiché est close et celle de l'acheteur ouverte, en une seule transaction.
+     */
+    private void showSellDialog() {
+        int selectedRow = table.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Veuillez sélectionner le véhicule à vendre.", "Avertissement", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        PossederDetail vente = rows.get(table.convertRowIndexToModel(selectedRow));
+        Date aujourdhui = new Date();
+        if (vente.getDateFinPropriete() != null && !vente.getDateFinPropriete().after(aujourdhui)) {
+            JOptionPane.showMessageDialog(this, "Ce véhicule n'appartient plus à " + vente.getNom() + ".", "Avertissement", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        // Création des champs de saisie
+        JTextField acheteurField = new JTextField();
+        JTextField dateVenteField = new JTextField(dateFormatter.format(aujourdhui));
+        
+        JPanel panel = new JPanel(new GridLayout(4, 2, 5, 5));
+        panel.add(new JLabel("Véhicule:"));
+        panel.add(new JLabel(vente.getNomModele() + " (" + vente.getMatricule() + ")"));
+        panel.add(new JLabel("Vendeur:"));
+        panel.add(new JLabel(vente.getNom() + " " + vente.getPrenom()));
+        panel.add(new JLabel("Nom Acheteur:"));
+        panel.add(acheteurField);
+        panel.add(new JLabel("Date de vente (" + DATE_FORMAT + "):"));
+        panel.add(dateVenteField);
+        
+        int result = JOptionPane.showConfirmDialog(this, panel, "Vendre un véhicule", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result != JOptionPane.OK_OPTION) {
+            return;
+        }
+        
+        try {
+            String nomAcheteur = acheteurField.getText().trim();
+            if (nomAcheteur.isEmpty() || dateVenteField.getText().trim().isEmpty()) {
+                throw new IllegalArgumentException("Les champs nom acheteur et date de vente sont obligatoires.");
+            }
+            Date dateVente = dateFormatter.parse(dateVenteField.getText().trim());
+            
+            int idAcheteur = possederController.getIdProprietaire(nomAcheteur);
+            if (idAcheteur == -1) {
+                throw new IllegalArgumentException("Propriétaire introuvable: " + nomAcheteur);
+            }
+            
+            possederController.transfererVehicule(vente.getIdVehicule(), vente.getIdProprietaire(), idAcheteur, dateVente);
+            refreshTable();
+            
+            JOptionPane.showMessageDialog(this, "Vente enregistrée avec succès.", "Succès", JOptionPane.INFORMATION_MESSAGE);
+        } catch (ParseException ex) {
+            JOptionPane.showMessageDialog(this, "Format de date invalide. Utilisez le format " + DATE_FORMAT, "Erreur", JOptionPane.ERROR_MESSAGE);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "Erreur: " + ex.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     /**
      * Supprime la relation POSSEDER correspondant à la ligne sélectionnée.
      */
@@ -278,9 +451,10 @@ public class PossederView extends JFrame {
                 JOptionPane.YES_NO_OPTION);
                 
             if (confirm == JOptionPane.YES_OPTION) {
-                // Récupération des identifiants
-                int idProprietaire = possederController.getIdProprietaire(nomProprietaire);
-                int idVehicule = possederController.getIdVehiculeParModele(nomModele);
+                // Récupération des identifiants portés par la ligne
+                PossederDetail detail = rows.get(table.convertRowIndexToModel(selectedRow));
+                int idProprietaire = detail.getIdProprietaire();
+                int idVehicule = detail.getIdVehicule();
                 
                 // Suppression de la relation
                 possederController.deletePosseder(idProprietaire, idVehicule);
@@ -294,36 +468,99 @@ public class PossederView extends JFrame {
     }
 
     /**
-     * Rafraîchit le tableau avec les données actuelles.
+     * Rafraîchit le tableau avec les données actuelles, chargées en une seule requête jointe
+     * filtrée, triée et limitée côté serveur selon la barre de filtres et l'en-tête de tri.
+     * La lecture s'effectue hors de l'EDT ; les lignes sont ajoutées au tableau par lots, au fil
+     * de leur arrivée. Un rafraîchissement annule le chargement précédent s'il n'est pas terminé.
      */
     private void refreshTable() {
+        PossederCritere critere;
         try {
-            List<Posseder> possederList = possederController.getAllPosseder();
-            tableModel.setRowCount(0);
+            critere = buildCritere();
+        } catch (ParseException ex) {
+            JOptionPane.showMessageDialog(this, "Format de date invalide. Utilisez le format " + DATE_FORMAT, "Erreur", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        cancelLoading();
+        tableModel.setRowCount(0);
+        rows = new ArrayList<>();
+        statusLabel.setText(" ");
+        loadingBar.start();
+        
+        loader = new SwingWorker<Void, PossederDetail>() {
+            private int loaded;
             
-            for (Posseder p : possederList) {
-                String nomProprietaire = possederController.getNomProprietaire(p.getIdProprietaire());
-                String nomModele = possederController.getNomModele(p.getIdVehicule());
-                addRowToTable(p, nomProprietaire, nomModele);
+            @Override
+            protected Void doInBackground() {
+                possederController.searchPossederDetails(critere, detail -> {
+                    if (isCancelled()) {
+                        // Interrompt la lecture du ResultSet
+                        throw new CancellationException();
+                    }
+                    publish(detail);
+                });
+                return null;
             }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, 
-                "Erreur lors du chargement des données: " + ex.getMessage(), 
-                "Erreur", 
-                JOptionPane.ERROR_MESSAGE);
+            
+            @Override
+            protected void process(List<PossederDetail> chunk) {
+                if (loader != this) {
+                    return;
+                }
+                for (PossederDetail d : chunk) {
+                    rows.add(d);
+                    addRowToTable(d);
+                }
+                loaded += chunk.size();
+                loadingBar.setProgress(loaded, 0);
+            }
+            
+            @Override
+            protected void done() {
+                if (loader != this) {
+                    return;
+                }
+                loader = null;
+                loadingBar.stop();
+                if (loaded >= MAX_ROWS) {
+                    statusLabel.setText("Affichage limité aux " + MAX_ROWS + " premières lignes : affinez les filtres.");
+                }
+                try {
+                    get();
+                } catch (CancellationException ex) {
+                    // Chargement annulé par l'utilisateur : les lignes déjà reçues restent affichées
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(PossederView.this, 
+                        "Erreur lors du chargement des données: " + cause.getMessage(), 
+                        "Erreur", 
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        loader.execute();
+    }
+    
+    /**
+     * Annule le chargement en cours, s'il y en a un.
+     */
+    private void cancelLoading() {
+        if (loader != null) {
+            loader.cancel(true);
+            loader = null;
+            loadingBar.stop();
         }
     }
     
     /**
      * Ajoute une ligne au tableau avec les données fournies.
-     * @param p L'objet Posseder à ajouter
-     * @param nomProprietaire Le nom du propriétaire
-     * @param nomModele Le nom du modèle de véhicule
+     * @param p La projection de possession à afficher
      */
-    private void addRowToTable(Posseder p, String nomProprietaire, String nomModele) {
+    private void addRowToTable(PossederDetail p) {
         tableModel.addRow(new Object[]{
-            nomProprietaire,
-            nomModele,
+            p.getNom(),
+            p.getNomModele(),
             dateFormatter.format(p.getDateDebutPropriete()),
             Optional.ofNullable(p.getDateFinPropriete())
                    .map(dateFormatter::format)
@@ -5,10 +5,13 @@ import models.Proprietaire;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
 
 public class ProprietaireView extends JFrame {
+    private static final String[] COLUMN_NAMES = {"Nom", "Prénom", "Adresse", "Code Postal", "Ville"};
+
     private ProprietaireController controller;
+    private LazyTableModel<Proprietaire> tableModel;
+    private JTable table;
 
     public ProprietaireView() {
         controller = new ProprietaireController();
@@ -18,69 +21,29 @@ public class ProprietaireView extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        // Panel principal
-        JPanel panel = new JPanel();
-        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-
-        // Charger les propriétaires
-        List<Proprietaire> proprietaires = controller.getAllProprietaires();
-        for (Proprietaire proprietaire : proprietaires) {
-            JPanel proprietairePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            JLabel proprietaireLabel = new JLabel(
-                    proprietaire.getNom() + " " + proprietaire.getPrenom() +
-                            " (" + proprietaire.getAdresse() + ", " +
-                            proprietaire.getCp() + " " + proprietaire.getVille() + ")");
-
-            JButton modifyButton = new JButton("Modifier");
-            modifyButton.addActionListener(e -> {
-                JTextField nomField = new JTextField(proprietaire.getNom());
-                JTextField prenomField = new JTextField(proprietaire.getPrenom());
-                JTextField adresseField = new JTextField(proprietaire.getAdresse());
-                JTextField cpField = new JTextField(proprietaire.getCp());
-                JTextField villeField = new JTextField(proprietaire.getVille());
-
-                Object[] message = {
-                        "Nom :", nomField,
-                        "Prénom :", prenomField,
-                        "Adresse :", adresseField,
-                        "Code Postal :", cpField,
-                        "Ville :", villeField
-                };
-
-                int option = JOptionPane.showConfirmDialog(this, message, "Modifier le Propriétaire",
-                        JOptionPane.OK_CANCEL_OPTION);
-                if (option == JOptionPane.OK_OPTION) {
-                    controller.updateProprietaire(
-                            proprietaire.getId_proprietaire(),
-                            nomField.getText(),
-                            prenomField.getText(),
-                            adresseField.getText(),
-                            cpField.getText(),
-                            villeField.getText());
-                    refreshView();
-                }
-            });
-
-            JButton deleteButton = new JButton("Supprimer");
-            deleteButton.addActionListener(e -> {
-                int option = JOptionPane.showConfirmDialog(
-                        this,
-                        "Êtes-vous sûr de vouloir supprimer ce propriétaire ?",
-                        "Confirmation",
-                        JOptionPane.YES_NO_OPTION);
-                if (option == JOptionPane.YES_OPTION) {
-                    controller.deleteProprietaire(proprietaire.getId_proprietaire());
-                    refreshView();
-                }
-            });
-
-            proprietairePanel.add(proprietaireLabel);
-            proprietairePanel.add(modifyButton);
-            proprietairePanel.add(deleteButton);
-            panel.add(proprietairePanel);
-        }
+        // Table virtualisée : les propriétaires sont lus par fenêtres au défilement
+        tableModel = new LazyTableModel<>(
+                COLUMN_NAMES,
+                controller::countProprietaires,
+                controller::getProprietairesPage,
+                ProprietaireView::columnValue);
+        tableModel.setSeekLoader((last, limit) -> controller.getProprietairesApres(last.getId_proprietaire(), limit));
+        table = new JTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // Barre de chargement : le comptage et les fenêtres sont lus en arrière-plan
+        LoadingBar loadingBar = new LoadingBar(tableModel::cancel);
+        tableModel.setLoadingListener(loading -> {
+            if (loading) {
+                loadingBar.start();
+            } else {
+                loadingBar.stop();
+            }
+        });
+        add(loadingBar, BorderLayout.NORTH);
 
-        // Panel pour les boutons Ajouter et Retour
+        // Panel pour les boutons
         JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
 
         // Bouton d'ajout
@@ -103,37 +66,113 @@ public class ProprietaireView extends JFrame {
             int option = JOptionPane.showConfirmDialog(this, message, "Ajouter un Propriétaire",
                     JOptionPane.OK_CANCEL_OPTION);
             if (option == JOptionPane.OK_OPTION) {
-                controller.addProprietaire(
+                int idProprietaire = controller.addProprietaire(
                         nomField.getText(),
                         prenomField.getText(),
                         adresseField.getText(),
                         cpField.getText(),
                         villeField.getText());
-                refreshView();
+                if (idProprietaire != -1) {
+                    tableModel.appendRow(new Proprietaire(idProprietaire, nomField.getText(), prenomField.getText(),
+                            adresseField.getText(), cpField.getText(), villeField.getText()));
+                }
             }
         });
 
+        JButton modifyButton = new JButton("Modifier");
+        modifyButton.addActionListener(e -> {
+            int row = getSelectedModelRow();
+            if (row == -1) {
+                return;
+            }
+            Proprietaire proprietaire = tableModel.getRow(row);
+            JTextField nomField = new JTextField(proprietaire.getNom());
+            JTextField prenomField = new JTextField(proprietaire.getPrenom());
+            JTextField adresseField = new JTextField(proprietaire.getAdresse());
+            JTextField cpField = new JTextField(proprietaire.getCp());
+            JTextField villeField = new JTextField(proprietaire.getVille());
+
+            Object[] message = {
+                    "Nom :", nomField,
+                    "Prénom :", prenomField,
+                    "Adresse :", adresseField,
+                    "Code Postal :", cpField,
+                    "Ville :", villeField
+            };
+
+            int option = JOptionPane.showConfirmDialog(this, message, "Modifier le Propriétaire",
+                    JOptionPane.OK_CANCEL_OPTION);
+            if (option == JOptionPane.OK_OPTION) {
+                boolean updated = controller.updateProprietaire(
+                        proprietaire.getId_proprietaire(),
+                        nomField.getText(),
+                        prenomField.getText(),
+                        adresseField.getText(),
+                        cpField.getText(),
+                        villeField.getText());
+                if (updated) {
+                    tableModel.updateRow(row, new Proprietaire(proprietaire.getId_proprietaire(), nomField.getText(),
+                            prenomField.getText(), adresseField.getText(), cpField.getText(), villeField.getText()));
+                }
+            }
+        });
+
+        JButton deleteButton = new JButton("Supprimer");
+        deleteButton.addActionListener(e -> {
+            int row = getSelectedModelRow();
+            if (row == -1) {
+                return;
+            }
+            int option = JOptionPane.showConfirmDialog(
+                    this,
+                    "Êtes-vous sûr de vouloir supprimer ce propriétaire ?",
+                    "Confirmation",
+                    JOptionPane.YES_NO_OPTION);
+            if (option == JOptionPane.YES_OPTION) {
+                if (controller.deleteProprietaire(tableModel.getRow(row).getId_proprietaire())) {
+                    tableModel.removeRow(row);
+                }
+            }
+        });
+
+        // Bouton Actualiser : rechargement complet à la demande
+        JButton refreshButton = new JButton("Actualiser");
+        refreshButton.addActionListener(e -> tableModel.reload());
+
         // Bouton Retour
         JButton backButton = new JButton("Retour");
         backButton.addActionListener(e -> dispose());
 
         // Ajouter les boutons au panel d'action
         actionPanel.add(addButton);
+        actionPanel.add(modifyButton);
+        actionPanel.add(deleteButton);
+        actionPanel.add(refreshButton);
         actionPanel.add(backButton);
-
-        // Ajouter le panel d'action au panel principal
-        panel.add(actionPanel);
-
-        // Scroller
-        JScrollPane scrollPane = new JScrollPane(panel);
-        add(scrollPane);
+        add(actionPanel, BorderLayout.SOUTH);
 
         setVisible(true);
     }
 
-    // Rafraîchir la vue
-    private void refreshView() {
-        dispose();
-        new ProprietaireView();
+    // Valeur affichée dans chaque colonne
+    private static Object columnValue(Proprietaire proprietaire, int column) {
+        switch (column) {
+            case 0: return proprietaire.getNom();
+            case 1: return proprietaire.getPrenom();
+            case 2: return proprietaire.getAdresse();
+            case 3: return proprietaire.getCp();
+            default: return proprietaire.getVille();
+        }
+    }
+
+    // Retourne l'indice (dans le modèle) de la ligne sélectionnée, ou -1 avec un avertissement
+    private int getSelectedModelRow() {
+        int selectedRow = table.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Veuillez sélectionner un propriétaire.", "Avertissement", JOptionPane.WARNING_MESSAGE);
+            return -1;
+        }
+        int row = table.convertRowIndexToModel(selectedRow);
+        return tableModel.getRow(row) != null ? row : -1; // Ligne pas encore chargée
     }
 }
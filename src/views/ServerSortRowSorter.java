@@ -0,0 +1,92 @@
+package views;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableModel;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RowSorter qui ne trie rien côté client : l'ordre des lignes est celui du modèle, tel que renvoyé
+ * par la base. Il mémorise seulement la colonne et le sens demandés par un clic sur l'en-tête
+ * (et les affiche via la flèche de l'en-tête) ; la vue écoute ses événements pour relancer la
+ * requête avec le bon ORDER BY.
+ */
+public class ServerSortRowSorter extends RowSorter<TableModel> {
+    private final TableModel model;
+    private List<SortKey> sortKeys = Collections.emptyList();
+
+    public ServerSortRowSorter(TableModel model) {
+        this.model = model;
+    }
+
+    @Override
+    public TableModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        SortOrder order = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+                && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING) {
+            order = SortOrder.DESCENDING;
+        }
+        setSortKeys(Collections.singletonList(new SortKey(column, order)));
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        return index;
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        return index;
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        sortKeys = keys == null ? Collections.emptyList() : Collections.unmodifiableList(keys);
+        fireSortOrderChanged();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+    }
+
+    @Override
+    public void allRowsChanged() {
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+    }
+}
@@ -5,10 +5,13 @@ import models.Vehicule;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
 
 public class VehiculeView extends JFrame {
+    private static final String[] COLUMN_NAMES = {"Matricule", "Modèle", "Marque", "Année", "Poids", "Chevaux", "CV fiscaux"};
+
     private VehiculeController controller;
+    private LazyTableModel<Vehicule> tableModel;
+    private JTable table;
 
     public VehiculeView() {
         controller = new VehiculeController();  // Initialisation du contrôleur.
@@ -18,83 +21,29 @@ public class VehiculeView extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        JPanel panel = new JPanel();
-        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));  // Utilisation de BoxLayout pour une disposition en colonne
-
-        List<Vehicule> vehicules = controller.getAllVehicules();  // Récupération des véhicules depuis la base de données
-        for (Vehicule vehicule : vehicules) {
-            String nomModele = controller.getModeleNameById(vehicule.getIdModele());  // Récupérer le modèle du véhicule par son ID
-
-            // Panneau pour chaque véhicule
-            JPanel vehiculePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            JLabel vehiculeLabel = new JLabel(vehicule.getMatricule() + " (Modèle : " + nomModele + ")");
-
-            // Bouton pour modifier le véhicule
-            JButton modifyButton = new JButton("Modifier");
-            modifyButton.addActionListener(e -> {
-                // Créer des champs de texte pour tous les champs du véhicule
-                JTextField matriculeField = new JTextField(vehicule.getMatricule());
-                JTextField anneeField = new JTextField(String.valueOf(vehicule.getAnneeSortie()));
-                JTextField poidsField = new JTextField(String.valueOf(vehicule.getPoids()));
-                JTextField puissanceChevauxField = new JTextField(String.valueOf(vehicule.getPuissanceChevaux()));
-                JTextField puissanceFiscaleField = new JTextField(String.valueOf(vehicule.getPuissanceFiscale()));
-                JTextField modeleField = new JTextField(nomModele);
-
-                // Demander à l'utilisateur de modifier tous les champs
-                Object[] message = {
-                        "Matricule:", matriculeField,
-                        "Année de sortie:", anneeField,
-                        "Poids:", poidsField,
-                        "Puissance (chevaux):", puissanceChevauxField,
-                        "Puissance fiscale:", puissanceFiscaleField,
-                        "Modèle:", modeleField
-                };
-
-                int option = JOptionPane.showConfirmDialog(this, message, "Modifier un Véhicule", JOptionPane.OK_CANCEL_OPTION);
-                if (option == JOptionPane.OK_OPTION) {
-                    try {
-                        // Récupérer les valeurs modifiées
-                        String newMatricule = matriculeField.getText();
-                        int newAnneeSortie = Integer.parseInt(anneeField.getText());
-                        double newPoids = Double.parseDouble(poidsField.getText());
-                        int newPuissanceChevaux = Integer.parseInt(puissanceChevauxField.getText());
-                        int newPuissanceFiscale = Integer.parseInt(puissanceFiscaleField.getText());
-                        String newModele = modeleField.getText();  // Nouveau modèle
-
-                        // Appeler la méthode de modification dans le contrôleur
-                        controller.updateVehicule(vehicule.getIdVehicule(), newMatricule, newAnneeSortie, newPoids,
-                                newPuissanceChevaux, newPuissanceFiscale, newModele);
-                        refreshView();  // Rafraîchir la vue après modification
-                    } catch (Exception ex) {
-                        showErrorMessage("Une erreur est survenue lors de la modification du véhicule.");
-                    }
-                }
-            });
-
-            // Bouton pour supprimer le véhicule
-            JButton deleteButton = new JButton("Supprimer");
-            deleteButton.addActionListener(e -> {
-                int confirmation = JOptionPane.showConfirmDialog(this,
-                        "Êtes-vous sûr de vouloir supprimer ce véhicule ?",
-                        "Confirmation", JOptionPane.YES_NO_OPTION);
-                if (confirmation == JOptionPane.YES_OPTION) {
-                    try {
-                        controller.deleteVehicule(vehicule.getIdVehicule());
-                        refreshView();  // Rafraîchir la vue après suppression
-                    } catch (Exception ex) {
-                        showErrorMessage("Une erreur est survenue lors de la suppression du véhicule.");
-                    }
-                }
-            });
-
-            // Ajouter les composants au panneau du véhicule
-            vehiculePanel.add(vehiculeLabel);
-            vehiculePanel.add(modifyButton);
-            vehiculePanel.add(deleteButton);
-            panel.add(vehiculePanel);
-        }
+        // Table virtualisée : seul le nombre de véhicules est lu à l'ouverture, les lignes le sont au défilement
+        tableModel = new LazyTableModel<>(
+                COLUMN_NAMES,
+                controller::countVehicules,
+                controller::getVehiculesDetaillesPage,
+                VehiculeView::columnValue);
+        tableModel.setSeekLoader((last, limit) -> controller.getVehiculesDetaillesApres(last.getIdVehicule(), limit));
+        table = new JTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // Barre de chargement : le comptage et les fenêtres sont lus en arrière-plan
+        LoadingBar loadingBar = new LoadingBar(tableModel::cancel);
+        tableModel.setLoadingListener(loading -> {
+            if (loading) {
+                loadingBar.start();
+            } else {
+                loadingBar.stop();
+            }
+        });
+        add(loadingBar, BorderLayout.NORTH);
 
-        // Panneau pour les boutons "Ajouter" et "Retour"
+        // Panneau pour les boutons
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
 
         // Bouton "Ajouter un Véhicule"
@@ -130,34 +79,126 @@ public class VehiculeView extends JFrame {
                     String modele = modeleField.getText();
 
                     // Appeler la méthode d'ajout dans le contrôleur
-                    controller.addVehicule(matricule, anneeSortie, poids, puissanceChevaux, puissanceFiscale, modele);
-                    refreshView();  // Rafraîchir la vue après ajout
+                    int idVehicule = controller.addVehicule(matricule, anneeSortie, poids, puissanceChevaux, puissanceFiscale, modele);
+                    if (idVehicule != -1) {
+                        tableModel.appendRow(controller.getVehiculeDetailleById(idVehicule));  // Ajouter la ligne créée
+                    }
                 } catch (Exception ex) {
                     showErrorMessage("Une erreur est survenue lors de l'ajout du véhicule.");
                 }
             }
         });
 
+        // Bouton pour modifier le véhicule sélectionné
+        JButton modifyButton = new JButton("Modifier");
+        modifyButton.addActionListener(e -> {
+            int row = getSelectedModelRow();
+            if (row == -1) {
+                return;
+            }
+            Vehicule vehicule = tableModel.getRow(row);
+            // Créer des champs de texte pour tous les champs du véhicule
+            JTextField matriculeField = new JTextField(vehicule.getMatricule());
+            JTextField anneeField = new JTextField(String.valueOf(vehicule.getAnneeSortie()));
+            JTextField poidsField = new JTextField(String.valueOf(vehicule.getPoids()));
+            JTextField puissanceChevauxField = new JTextField(String.valueOf(vehicule.getPuissanceChevaux()));
+            JTextField puissanceFiscaleField = new JTextField(String.valueOf(vehicule.getPuissanceFiscale()));
+            JTextField modeleField = new JTextField(vehicule.getNomModele());
+
+            // Demander à l'utilisateur de modifier tous les champs
+            Object[] message = {
+                    "Matricule:", matriculeField,
+                    "Année de sortie:", anneeField,
+                    "Poids:", poidsField,
+                    "Puissance (chevaux):", puissanceChevauxField,
+                    "Puissance fiscale:", puissanceFiscaleField,
+                    "Modèle:", modeleField
+            };
+
+            int option = JOptionPane.showConfirmDialog(this, message, "Modifier un Véhicule", JOptionPane.OK_CANCEL_OPTION);
+            if (option == JOptionPane.OK_OPTION) {
+                try {
+                    // Récupérer les valeurs modifiées
+                    String newMatricule = matriculeField.getText();
+                    int newAnneeSortie = Integer.parseInt(anneeField.getText());
+                    double newPoids = Double.parseDouble(poidsField.getText());
+                    int newPuissanceChevaux = Integer.parseInt(puissanceChevauxField.getText());
+                    int newPuissanceFiscale = Integer.parseInt(puissanceFiscaleField.getText());
+                    String newModele = modeleField.getText();  // Nouveau modèle
+
+                    // Appeler la méthode de modification dans le contrôleur
+                    if (controller.updateVehicule(vehicule.getIdVehicule(), newMatricule, newAnneeSortie, newPoids,
+                            newPuissanceChevaux, newPuissanceFiscale, newModele)) {
+                        tableModel.updateRow(row, controller.getVehiculeDetailleById(vehicule.getIdVehicule()));  // Mettre à jour la ligne
+                    }
+                } catch (Exception ex) {
+                    showErrorMessage("Une erreur est survenue lors de la modification du véhicule.");
+                }
+            }
+        });
+
+        // Bouton pour supprimer le véhicule sélectionné
+        JButton deleteButton = new JButton("Supprimer");
+        deleteButton.addActionListener(e -> {
+            int row = getSelectedModelRow();
+            if (row == -1) {
+                return;
+            }
+            int confirmation = JOptionPane.showConfirmDialog(this,
+                    "Êtes-vous sûr de vouloir supprimer ce véhicule ?",
+                    "Confirmation", JOptionPane.YES_NO_OPTION);
+            if (confirmation == JOptionPane.YES_OPTION) {
+                try {
+                    if (controller.deleteVehicule(tableModel.getRow(row).getIdVehicule())) {
+                        tableModel.removeRow(row);  // Retirer la ligne supprimée
+                    }
+                } catch (Exception ex) {
+                    showErrorMessage("Une erreur est survenue lors de la suppression du véhicule.");
+                }
+            }
+        });
+
+        // Bouton "Actualiser" pour recharger entièrement la table à la demande
+        JButton refreshButton = new JButton("Actualiser");
+        refreshButton.addActionListener(e -> tableModel.reload());
+
         // Bouton "Retour" pour fermer la fenêtre
         JButton backButton = new JButton("Retour");
         backButton.addActionListener(e -> dispose());
 
         // Ajouter les boutons au panneau
         buttonPanel.add(addButton);
+        buttonPanel.add(modifyButton);
+        buttonPanel.add(deleteButton);
+        buttonPanel.add(refreshButton);
         buttonPanel.add(backButton);
-        panel.add(buttonPanel);
-
-        // Ajouter un JScrollPane pour gérer le défilement de la liste des véhicules
-        JScrollPane scrollPane = new JScrollPane(panel);
-        add(scrollPane);
+        add(buttonPanel, BorderLayout.SOUTH);
 
         setVisible(true);
     }
 
-    // Méthode pour rafraîchir la vue
-    private void refreshView() {
-        dispose();
-        new VehiculeView();  // Recharge la fenêtre avec les données actualisées
+    // Valeur affichée dans chaque colonne
+    private static Object columnValue(Vehicule vehicule, int column) {
+        switch (column) {
+            case 0: return vehicule.getMatricule();
+            case 1: return vehicule.getNomModele();
+            case 2: return vehicule.getNomMarque();
+            case 3: return vehicule.getAnneeSortie();
+            case 4: return vehicule.getPoids();
+            case 5: return vehicule.getPuissanceChevaux();
+            default: return vehicule.getPuissanceFiscale();
+        }
+    }
+
+    // Retourne l'indice (dans le modèle) de la ligne sélectionnée, ou -1 avec un avertissement
+    private int getSelectedModelRow() {
+        int selectedRow = table.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Veuillez sélectionner un véhicule.", "Avertissement", JOptionPane.WARNING_MESSAGE);
+            return -1;
+        }
+        int row = table.convertRowIndexToModel(selectedRow);
+        return tableModel.getRow(row) != null ? row : -1; // Ligne pas encore chargée
     }
 
     // Méthode pour afficher un message d'erreur